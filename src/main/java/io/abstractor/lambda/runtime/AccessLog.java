@@ -0,0 +1,343 @@
+package io.abstractor.lambda.runtime;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A JSON lines access log, a line per execution cycle.
+ *
+ * Records come from a fixed pool and are encoded into their own reusable buffer by the executing thread. By
+ * default they are logged through the {@value #LOGGER_NAME} log4j2 logger, whose bundled configuration hands them
+ * to an asynchronous, non blocking appender writing to the standard output (shared with the console appender).
+ * Given an output stream instead, records are handed to a writer thread of the access log, bypassing log4j2, and
+ * are written without allocating in steady state. When the pool is exhausted (the writer fell behind) records are
+ * dropped and counted rather than blocking execution.
+ *
+ * {"ts":1571234567890,"id":"...","mime":"...","inputLength":12,"outputLength":34,"executionMicros":560,"relayMicros":78,"outcome":"success"}
+ *
+ * Lengths are in chars for textual values, in bytes for binary ones and null when unknown.
+ */
+public class AccessLog implements Closeable {
+    public static final String LOGGER_NAME = "io.abstractor.lambda.runtime.AccessLog.records";
+
+    private static final Logger logger = LogManager.getLogger(AccessLog.class);
+
+    private static final byte[] TS = ascii("{\"ts\":");
+    private static final byte[] ID = ascii(",\"id\":");
+    private static final byte[] MIME = ascii(",\"mime\":");
+    private static final byte[] INPUT_LENGTH = ascii(",\"inputLength\":");
+    private static final byte[] OUTPUT_LENGTH = ascii(",\"outputLength\":");
+    private static final byte[] EXECUTION_MICROS = ascii(",\"executionMicros\":");
+    private static final byte[] RELAY_MICROS = ascii(",\"relayMicros\":");
+    private static final byte[] OUTCOME = ascii(",\"outcome\":\"");
+    private static final byte[] END = ascii("\"}\n");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+
+    private static final int INITIAL_RECORD_SIZE = 256;
+
+    public enum Outcome {
+        SUCCESS("success"),
+        EXECUTION_FAILURE("error"),
+        RELAY_FAILURE("relay_error");
+
+        private final byte[] json;
+
+        Outcome(String json) {
+            this.json = ascii(json);
+        }
+    }
+
+    private final ArrayBlockingQueue<Record> free;
+    private final ArrayBlockingQueue<Record> pending;
+    private final OutputStream outputStream;
+    private final Logger recordLogger;
+    private final Thread writer;
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    private AccessLog(OutputStream outputStream, Logger recordLogger, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        this.free = new ArrayBlockingQueue<>(capacity);
+        this.pending = new ArrayBlockingQueue<>(capacity);
+
+        for (int i = 0; i < capacity; i += 1) {
+            free.add(new Record());
+        }
+
+        if (outputStream == null) {
+            this.outputStream = null;
+            this.recordLogger = recordLogger;
+            this.writer = null;
+        }
+        else {
+            this.outputStream = new BufferedOutputStream(outputStream, 64 * 1024);
+            this.recordLogger = null;
+            this.writer = new Thread(this::write, "lambda-runtime-access-log");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+    }
+
+    /**
+     * @param outputStream where lines are written to, by the writer thread only
+     * @param capacity the number of records pending at most
+     */
+    public AccessLog(OutputStream outputStream, int capacity) {
+        this(Objects.requireNonNull(outputStream), null, capacity);
+    }
+
+    /**
+     * Log records through the {@value #LOGGER_NAME} logger, which the log4j2 configuration routes.
+     *
+     * @param capacity the number of records being encoded at most
+     */
+    public AccessLog(int capacity) {
+        this(null, LogManager.getLogger(LOGGER_NAME), capacity);
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Log an execution cycle, never blocks.
+     *
+     * @param executionContext the execution context
+     * @param executionResult the execution result, null unless the execution succeeded
+     * @param outcome the execution cycle outcome
+     * @param executionNanos the time spent deserializing and executing
+     * @param relayNanos the time spent relaying
+     */
+    public void log(ExecutionContext executionContext, ExecutionResult executionResult, Outcome outcome, long executionNanos, long relayNanos) {
+        final Record record = free.poll();
+
+        if (record == null) {
+            droppedCount.incrementAndGet();
+
+            return;
+        }
+
+        final String input = executionContext.getInput();
+
+        record.length = 0;
+        record.put(TS).putLong(System.currentTimeMillis());
+        record.put(ID).putString(executionContext.getId());
+        record.put(MIME).putString(executionContext.getInputMimeType());
+        record.put(INPUT_LENGTH).putLength(input);
+        record.put(OUTPUT_LENGTH).putLength(executionResult == null ? null : executionResult.getExecutionValue());
+        record.put(EXECUTION_MICROS).putLong(TimeUnit.NANOSECONDS.toMicros(executionNanos));
+        record.put(RELAY_MICROS).putLong(TimeUnit.NANOSECONDS.toMicros(relayNanos));
+        record.put(OUTCOME).put(outcome.json).put(END);
+
+        if (recordLogger != null) {
+            try {
+                // The layout ends the line
+                recordLogger.info(new String(record.buffer, 0, record.length - 1, StandardCharsets.UTF_8));
+            }
+            finally {
+                free.offer(record);
+            }
+
+            return;
+        }
+
+        // Never full, there are as many pending slots as records
+        pending.offer(record);
+    }
+
+    private void write() {
+        try {
+            while (running || !pending.isEmpty()) {
+                final Record record = pending.poll(100, TimeUnit.MILLISECONDS);
+
+                if (record != null) {
+                    try {
+                        outputStream.write(record.buffer, 0, record.length);
+                    }
+                    finally {
+                        free.offer(record);
+                    }
+                }
+
+                if (pending.isEmpty()) {
+                    outputStream.flush();
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException e) {
+            logger.error("An error occurred while writing the access log, access logging stopped", e);
+
+            running = false;
+        }
+    }
+
+    /**
+     * @return long the number of records dropped because the writer fell behind
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Write the pending records and stop the writer thread, records logged through log4j2 are left to it.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        outputStream.flush();
+    }
+
+    private static final class Record {
+        private byte[] buffer = new byte[INITIAL_RECORD_SIZE];
+        private int length = 0;
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > buffer.length) {
+                // Grows rarely (long ids or MIME types), the grown buffer is kept
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+
+        private Record put(byte[] bytes) {
+            ensureCapacity(bytes.length);
+
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+
+            return this;
+        }
+
+        private Record putByte(int b) {
+            ensureCapacity(1);
+
+            buffer[length++] = (byte)b;
+
+            return this;
+        }
+
+        private Record putLong(long value) {
+            if (value < 0) {
+                if (value == Long.MIN_VALUE) {
+                    return put(ascii(Long.toString(value)));
+                }
+
+                putByte('-');
+
+                value = -value;
+            }
+
+            ensureCapacity(19);
+
+            final int start = length;
+
+            do {
+                buffer[length++] = (byte)('0' + value % 10);
+                value /= 10;
+            }
+            while (value > 0);
+
+            // Digits were written least significant first
+            for (int i = start, j = length - 1; i < j; i += 1, j -= 1) {
+                final byte digit = buffer[i];
+
+                buffer[i] = buffer[j];
+                buffer[j] = digit;
+            }
+
+            return this;
+        }
+
+        private Record putLength(Object value) {
+            if (value instanceof String) {
+                return putLong(((String)value).length());
+            }
+
+            if (value instanceof byte[]) {
+                return putLong(((byte[])value).length);
+            }
+
+            if (value instanceof ByteBuffer) {
+                return putLong(((ByteBuffer)value).remaining());
+            }
+
+            return put(NULL);
+        }
+
+        /**
+         * A JSON string, escaped and UTF-8 encoded char by char.
+         */
+        private Record putString(String s) {
+            if (s == null) {
+                return put(NULL);
+            }
+
+            putByte('"');
+
+            for (int i = 0; i < s.length(); i += 1) {
+                final char c = s.charAt(i);
+
+                if (c == '"' || c == '\\') {
+                    putByte('\\').putByte(c);
+                }
+                else if (c < 0x20) {
+                    putByte('\\').putByte('u').putByte('0').putByte('0').putByte(HEX[c >> 4]).putByte(HEX[c & 0xF]);
+                }
+                else if (c < 0x80) {
+                    putByte(c);
+                }
+                else if (c < 0x800) {
+                    putByte(0xC0 | c >> 6).putByte(0x80 | c & 0x3F);
+                }
+                else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, s.charAt(++i));
+
+                    putByte(0xF0 | codePoint >> 18).putByte(0x80 | codePoint >> 12 & 0x3F).putByte(0x80 | codePoint >> 6 & 0x3F).putByte(0x80 | codePoint & 0x3F);
+                }
+                else if (Character.isSurrogate(c)) {
+                    putByte('?');
+                }
+                else {
+                    putByte(0xE0 | c >> 12).putByte(0x80 | c >> 6 & 0x3F).putByte(0x80 | c & 0x3F);
+                }
+            }
+
+            return putByte('"');
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package io.abstractor.lambda.runtime;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds the number of in-flight method executions by a limit adjusted from measured latencies (AIMD).
+ *
+ * The no-load latency is estimated as the minimum latency observed, allowed to rise over about a hundred round
+ * trips so it follows a downstream that got slower. While the smoothed latency stays within the tolerance of the
+ * no-load latency the limit grows by one per limit samples (about one per round trip), once it exceeds it the
+ * limit is cut by the backoff ratio. The cut brings load back below the knee of the latency curve, which
+ * refreshes the no-load estimate, so the limit saw-tooths around the knee. The limit only grows while it is
+ * actually used.
+ */
+public class ConcurrencyLimiter {
+    private static final double SHORT_WINDOW = 10;
+    private static final double BASELINE_ROUND_TRIPS = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    // Guarded by lock
+    private double limit;
+    private int inFlight = 0;
+    private double shortLatency = 0;
+    private double baselineLatency = 0;
+    private int heldSamples = 0;
+
+    /**
+     * @param initialLimit the limit to start with
+     * @param minLimit the lowest limit
+     * @param maxLimit the highest limit
+     * @param tolerance how many times the no-load latency is tolerated before backing off (2 for instance)
+     * @param backoffRatio the ratio the limit is multiplied by when backing off (0.5 for instance)
+     */
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= initial <= max");
+        }
+
+        if (tolerance <= 1 || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("tolerance must be above 1 and backoff ratio between 0 and 1");
+        }
+
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+    }
+
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, 2, 0.5);
+    }
+
+    /**
+     * Wait until the number of in-flight executions is below the limit and take a slot.
+     *
+     * @throws InterruptedException in case the waiting thread was interrupted
+     */
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+
+        try {
+            while (inFlight >= (int)limit) {
+                available.await();
+            }
+
+            inFlight += 1;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Give a slot back without a latency sample (nothing was executed).
+     */
+    public void release() {
+        lock.lock();
+
+        try {
+            inFlight -= 1;
+
+            available.signal();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Give a slot back and adjust the limit with the latency of the execution.
+     *
+     * @param latencyNanos the latency of the execution
+     */
+    public void release(long latencyNanos) {
+        lock.lock();
+
+        try {
+            final int previousLimit = (int)limit;
+
+            update(latencyNanos, inFlight);
+
+            inFlight -= 1;
+
+            if ((int)limit > previousLimit) {
+                available.signalAll();
+            }
+            else {
+                available.signal();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(long latencyNanos, int inFlightAtCompletion) {
+        final double latency = Math.max(1, latencyNanos);
+
+        if (baselineLatency == 0) {
+            shortLatency = latency;
+            baselineLatency = latency;
+
+            return;
+        }
+
+        // A round trip completes about limit samples, the baseline rises over a hundred round trips.
+        baselineLatency = Math.min(latency, baselineLatency + (latency - baselineLatency) / (BASELINE_ROUND_TRIPS * limit));
+
+        // Executions started before the previous cut complete slowly, those must not cut again.
+        if (heldSamples > 0) {
+            heldSamples -= 1;
+
+            return;
+        }
+
+        shortLatency += (latency - shortLatency) / SHORT_WINDOW;
+
+        if (shortLatency > baselineLatency * tolerance) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            heldSamples = inFlightAtCompletion - 1;
+            shortLatency = baselineLatency;
+        }
+        else if (inFlightAtCompletion >= limit / 2) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    /**
+     * @return int the current limit of in-flight executions
+     */
+    public int getLimit() {
+        lock.lock();
+
+        try {
+            return (int)limit;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+
+        try {
+            return inFlight;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+}
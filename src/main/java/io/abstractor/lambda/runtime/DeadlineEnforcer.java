@@ -0,0 +1,237 @@
+package io.abstractor.lambda.runtime;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.MethodExecutor;
+import io.abstractor.lambda.runtime.port.Recyclable;
+
+import java.lang.reflect.Method;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes methods within the deadline of their execution context.
+ *
+ * An execution context whose remaining time is below the estimated execution time is rejected before any work
+ * is done. The estimate is the larger of a configured minimum and the p99 of recent execution times.
+ * Rejected contexts record no execution time, so a run of consecutive rejections halves the recorded execution
+ * times (and the estimate with them), a burst of slow executions cannot lock the runtime out for good.
+ * A method still running at the deadline is interrupted (when enabled) and either way fails the execution cycle.
+ */
+class DeadlineEnforcer<T extends ExecutionContext> {
+    private static final int SAMPLES = 1024;
+    private static final int ESTIMATE_INTERVAL = 64;
+    private static final int REJECTIONS_BEFORE_DECAY = 16;
+
+    private final long minimumRemainingNanos;
+    private final ScheduledThreadPoolExecutor watchdog;
+
+    private final long[] samples = new long[SAMPLES];
+    private int sampleCount = 0;
+    private int sampleIndex = 0;
+    private int consecutiveRejections = 0;
+    private volatile long estimateNanos = 0;
+
+    DeadlineEnforcer(Duration minimumRemainingTime, boolean interruptOverruns) {
+        this.minimumRemainingNanos = minimumRemainingTime.toNanos();
+        this.watchdog = interruptOverruns ? createWatchdog() : null;
+    }
+
+    private static ScheduledThreadPoolExecutor createWatchdog() {
+        final ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "lambda-runtime-deadline-watchdog");
+
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        // Deadlines are minutes away, cancelled watches must not pile up in the queue until then.
+        watchdog.setRemoveOnCancelPolicy(true);
+
+        return watchdog;
+    }
+
+    /**
+     * @return int the number of watches waiting for their deadline, 0 when overruns are not interrupted
+     */
+    int getPendingWatchCount() {
+        return watchdog == null ? 0 : watchdog.getQueue().size();
+    }
+
+    /**
+     * @return long the execution time (in nanoseconds) an execution context must have left to be executed
+     */
+    long getEstimateNanos() {
+        return Math.max(minimumRemainingNanos, estimateNanos);
+    }
+
+    synchronized void record(long executionNanos) {
+        consecutiveRejections = 0;
+
+        samples[sampleIndex] = executionNanos;
+        sampleIndex = (sampleIndex + 1) % SAMPLES;
+        sampleCount = Math.min(sampleCount + 1, SAMPLES);
+
+        // Sorting is amortized over a batch of samples.
+        if (sampleIndex % ESTIMATE_INTERVAL == 0) {
+            final long[] sorted = Arrays.copyOf(samples, sampleCount);
+
+            Arrays.sort(sorted);
+
+            estimateNanos = sorted[(int)Math.ceil(sorted.length * 0.99) - 1];
+        }
+    }
+
+    /**
+     * Count a rejection, every few consecutive ones the recorded execution times are halved.
+     */
+    synchronized void reject() {
+        consecutiveRejections += 1;
+
+        if (consecutiveRejections % REJECTIONS_BEFORE_DECAY == 0) {
+            for (int i = 0; i < sampleCount; i += 1) {
+                samples[i] /= 2;
+            }
+
+            estimateNanos /= 2;
+        }
+    }
+
+    /**
+     * Fail the execution cycle when its deadline has passed.
+     *
+     * @param executionContext the execution context
+     * @param phase the phase about to start, for diagnostics
+     */
+    void check(T executionContext, String phase) {
+        final long deadline = executionContext.getDeadline();
+
+        if (deadline > 0 && System.currentTimeMillis() >= deadline) {
+            throw new DeadlineExceededException("deadline of " + executionContext.getId() + " passed before " + phase);
+        }
+    }
+
+    ExecutionResult exec(MethodExecutor<T> methodExecutor, Method method, T executionContext) {
+        final long deadline = executionContext.getDeadline();
+
+        if (deadline <= 0) {
+            final long start = System.nanoTime();
+            final ExecutionResult executionResult = methodExecutor.exec(method, executionContext);
+
+            record(System.nanoTime() - start);
+
+            return executionResult;
+        }
+
+        final long remainingNanos = TimeUnit.MILLISECONDS.toNanos(deadline - System.currentTimeMillis());
+        final long estimate = getEstimateNanos();
+
+        if (remainingNanos < estimate) {
+            reject();
+
+            throw new DeadlineExceededException(String.format(
+                "%s rejected, %d ms remaining, %d ms estimated",
+                executionContext.getId(),
+                TimeUnit.NANOSECONDS.toMillis(remainingNanos),
+                TimeUnit.NANOSECONDS.toMillis(estimate)
+            ));
+        }
+
+        final Watch watch = watchdog == null ? null : new Watch(Thread.currentThread(), remainingNanos);
+        final long start = System.nanoTime();
+
+        ExecutionResult executionResult = null;
+        RuntimeException failure = null;
+        boolean interrupted = false;
+
+        try {
+            executionResult = methodExecutor.exec(method, executionContext);
+        }
+        catch (RuntimeException e) {
+            failure = e;
+        }
+        finally {
+            record(System.nanoTime() - start);
+
+            if (watch != null) {
+                interrupted = watch.complete();
+            }
+        }
+
+        if (interrupted) {
+            recycle(executionResult);
+
+            throw new DeadlineExceededException(executionContext.getId() + " was interrupted at its deadline", failure);
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        try {
+            check(executionContext, "relay");
+        }
+        catch (DeadlineExceededException e) {
+            // The result is never relayed, nor recycled by the runtime.
+            recycle(executionResult);
+
+            throw e;
+        }
+
+        return executionResult;
+    }
+
+    private static void recycle(ExecutionResult executionResult) {
+        if (executionResult instanceof Recyclable) {
+            ((Recyclable)executionResult).recycle();
+        }
+    }
+
+    /**
+     * Interrupts the executing thread once the deadline passed, unless it completed first.
+     */
+    private class Watch implements Runnable {
+        private final Thread thread;
+        private final ScheduledFuture<?> future;
+
+        private boolean completed = false;
+        private boolean fired = false;
+
+        Watch(Thread thread, long remainingNanos) {
+            this.thread = thread;
+            this.future = watchdog.schedule(this, remainingNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!completed) {
+                fired = true;
+
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * @return boolean whether the executing thread was interrupted (the interrupt status is cleared)
+         */
+        synchronized boolean complete() {
+            if (!completed) {
+                completed = true;
+
+                future.cancel(false);
+
+                if (fired) {
+                    // The interrupt targeted this execution only, it must not leak into the next one.
+                    Thread.interrupted();
+                }
+            }
+
+            return fired;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package io.abstractor.lambda.runtime;
+
+/**
+ * Thrown (and relayed) when an execution cycle cannot complete, or did not complete, before its deadline.
+ */
+public class DeadlineExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    DeadlineExceededException(String message, Throwable cause) {
+        // Deadlines are exceeded under load, the stack trace is both costly and meaningless.
+        super(message, cause, false, false);
+    }
+
+    DeadlineExceededException(String message) {
+        this(message, null);
+    }
+}
@@ -0,0 +1,134 @@
+package io.abstractor.lambda.runtime;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A queue of tasks deferred by a handler until its execution result was relayed.
+ *
+ * While a runtime with deferred tasks enabled executes a handler, {@link #defer(Runnable)} enqueues into the
+ * queue of the executing thread. The runtime drains the queue once the execution result (or exception) was
+ * relayed and before retrieving the next execution context. Tasks left over once the time budget is spent stay
+ * queued and run after the next execution cycle. Outside of an execution cycle tasks run immediately.
+ */
+public final class DeferredTaskQueue {
+    private static final Logger logger = LogManager.getLogger(DeferredTaskQueue.class);
+    private static final ThreadLocal<DeferredTaskQueue> current = new ThreadLocal<>();
+
+    /**
+     * What happens to a task deferred into a full queue
+     */
+    public enum OverflowPolicy {
+        /**
+         * Run the task immediately, on the handler's thread.
+         */
+        RUN,
+
+        /**
+         * Drop the task.
+         */
+        DISCARD,
+
+        /**
+         * Throw a {@link RejectedExecutionException} to the handler.
+         */
+        REJECT
+    }
+
+    private final int capacity;
+    private final long budgetNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final ArrayDeque<Runnable> tasks;
+
+    DeferredTaskQueue(int capacity, Duration budget, OverflowPolicy overflowPolicy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        this.capacity = capacity;
+        this.budgetNanos = Objects.requireNonNull(budget).toNanos();
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+        this.tasks = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * Defer a task until the current execution cycle was relayed.
+     *
+     * @param task the task to defer
+     */
+    public static void defer(Runnable task) {
+        Objects.requireNonNull(task);
+
+        final DeferredTaskQueue deferredTaskQueue = current.get();
+
+        if (deferredTaskQueue == null) {
+            task.run();
+        }
+        else {
+            deferredTaskQueue.enqueue(task);
+        }
+    }
+
+    void enqueue(Runnable task) {
+        if (tasks.size() < capacity) {
+            tasks.add(task);
+
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case RUN:
+                task.run();
+                break;
+            case DISCARD:
+                logger.warn("Deferred task queue is full ({} tasks), task discarded", capacity);
+                break;
+            default:
+                throw new RejectedExecutionException("Deferred task queue is full (" + capacity + " tasks)");
+        }
+    }
+
+    void bind() {
+        current.set(this);
+    }
+
+    void unbind() {
+        current.remove();
+    }
+
+    int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Run queued tasks until the queue is empty or the time budget is spent.
+     * A failing task is logged and does not prevent the following ones from running.
+     */
+    void drain() {
+        final long start = System.nanoTime();
+
+        Runnable task;
+
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            }
+            catch (Exception e) {
+                logger.error("An error occurred while running a deferred task", e);
+            }
+
+            if (System.nanoTime() - start >= budgetNanos) {
+                if (!tasks.isEmpty()) {
+                    logger.debug("Deferred tasks budget exceeded, {} tasks postponed", tasks.size());
+                }
+
+                break;
+            }
+        }
+    }
+}
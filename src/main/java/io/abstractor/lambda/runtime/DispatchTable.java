@@ -0,0 +1,59 @@
+package io.abstractor.lambda.runtime;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+
+import java.lang.reflect.Method;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * The handlers a runtime dispatches to, resolved once at startup and looked up by route key.
+ */
+class DispatchTable {
+    private final boolean hasDefaultMethod;
+    private final Method defaultMethod;
+    private final Map<String, Method> routes;
+
+    DispatchTable(Supplier<Method> defaultMethodSupplier, Map<String, Supplier<Method>> routeMethodSuppliers) {
+        this.hasDefaultMethod = defaultMethodSupplier != null;
+        this.defaultMethod = hasDefaultMethod ? defaultMethodSupplier.get() : null;
+        this.routes = new HashMap<>(routeMethodSuppliers.size() * 2);
+
+        for (Map.Entry<String, Supplier<Method>> route : routeMethodSuppliers.entrySet()) {
+            routes.put(route.getKey(), route.getValue().get());
+        }
+    }
+
+    Set<Method> getMethods() {
+        final Set<Method> methods = new LinkedHashSet<>(routes.values());
+
+        methods.add(defaultMethod);
+        methods.remove(null);
+
+        return methods;
+    }
+
+    Method getMethod(ExecutionContext executionContext) {
+        final String routeKey = executionContext.getRouteKey();
+
+        if (routeKey == null) {
+            if (!hasDefaultMethod) {
+                throw new IllegalArgumentException("execution context has no route key and no default handler is defined");
+            }
+
+            return defaultMethod;
+        }
+
+        final Method method = routes.get(routeKey);
+
+        if (method == null && !routes.containsKey(routeKey)) {
+            throw new IllegalArgumentException("no handler is defined for route key " + routeKey);
+        }
+
+        return method;
+    }
+}
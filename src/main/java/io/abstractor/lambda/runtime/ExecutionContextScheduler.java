@@ -0,0 +1,240 @@
+package io.abstractor.lambda.runtime;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Schedules execution contexts from several sources, each with its own weight and in-flight limit.
+ *
+ * Sources are polled, a source supplying null is empty for the time being (sources must not block).
+ * A source at its in-flight limit is skipped until one of its execution contexts completes. When no source
+ * supplies an execution context, the scheduler waits briefly for one and then supplies null.
+ *
+ * @param <T> type / sub-type of execution context
+ */
+public class ExecutionContextScheduler<T extends ExecutionContext> implements Supplier<T> {
+    private static final Logger logger = LogManager.getLogger(ExecutionContextScheduler.class);
+
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    public enum Policy {
+        /**
+         * Sources share execution slots in proportion to their weight (smooth weighted round robin).
+         */
+        WEIGHTED_FAIR,
+
+        /**
+         * The source with the highest weight is always served first, lower ones only get what it leaves.
+         */
+        STRICT_PRIORITY
+    }
+
+    private final Policy policy;
+    private final List<Source<T>> sources;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition completed = lock.newCondition();
+
+    // Guarded by lock
+    private final Map<ExecutionContext, Source<T>> inFlight = new IdentityHashMap<>();
+
+    ExecutionContextScheduler(Policy policy, List<Source<T>> sources) {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("at least one source is required");
+        }
+
+        this.policy = Objects.requireNonNull(policy);
+        this.sources = new ArrayList<>(sources);
+
+        if (policy == Policy.STRICT_PRIORITY) {
+            // Stable, sources of equal weight keep the order they were added in
+            this.sources.sort(Comparator.comparingInt((Source<T> source) -> source.weight).reversed());
+        }
+    }
+
+    @Override
+    public T get() {
+        final long deadline = System.nanoTime() + IDLE_WAIT_NANOS;
+
+        lock.lock();
+
+        try {
+            while (true) {
+                final T executionContext = poll();
+
+                if (executionContext != null) {
+                    return executionContext;
+                }
+
+                final long remaining = deadline - System.nanoTime();
+
+                if (remaining <= 0) {
+                    return null;
+                }
+
+                // Woken early when an execution completes, sources are polled again meanwhile
+                completed.awaitNanos(Math.min(remaining, POLL_INTERVAL_NANOS));
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            return null;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private T poll() {
+        for (Source<T> source : sources) {
+            source.empty = source.inFlight >= source.maxInFlight;
+        }
+
+        while (true) {
+            final Source<T> source = policy == Policy.STRICT_PRIORITY ? selectByPriority() : selectByWeight();
+
+            if (source == null) {
+                return null;
+            }
+
+            T executionContext = null;
+
+            try {
+                executionContext = source.supplier.get();
+            }
+            catch (RuntimeException e) {
+                logger.error("An error occurred while polling execution context source {}", sources.indexOf(source), e);
+            }
+
+            if (executionContext != null) {
+                if (policy == Policy.WEIGHTED_FAIR) {
+                    charge(source);
+                }
+
+                source.inFlight += 1;
+                inFlight.put(executionContext, source);
+
+                return executionContext;
+            }
+
+            source.empty = true;
+        }
+    }
+
+    private Source<T> selectByPriority() {
+        for (Source<T> source : sources) {
+            if (!source.empty) {
+                return source;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Smooth weighted round robin, a source is only charged once it actually supplied an execution context.
+     */
+    private Source<T> selectByWeight() {
+        Source<T> selected = null;
+
+        for (Source<T> source : sources) {
+            if (!source.empty && (selected == null || source.currentWeight + source.weight > selected.currentWeight + selected.weight)) {
+                selected = source;
+            }
+        }
+
+        return selected;
+    }
+
+    private void charge(Source<T> selected) {
+        int totalWeight = 0;
+
+        for (Source<T> source : sources) {
+            if (source.inFlight < source.maxInFlight) {
+                source.currentWeight += source.weight;
+                totalWeight += source.weight;
+            }
+        }
+
+        selected.currentWeight -= totalWeight;
+    }
+
+    /**
+     * Release the in-flight slot of an execution context supplied by this scheduler.
+     *
+     * @param executionContext an execution context whose execution cycle is over
+     */
+    void complete(ExecutionContext executionContext) {
+        lock.lock();
+
+        try {
+            final Source<T> source = inFlight.remove(executionContext);
+
+            if (source != null) {
+                source.inFlight -= 1;
+
+                completed.signalAll();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param sourceIndex the index of a source, in the order sources were added
+     * @return int the number of in-flight execution contexts of the source
+     */
+    public int getInFlight(int sourceIndex) {
+        lock.lock();
+
+        try {
+            for (Source<T> source : sources) {
+                if (source.index == sourceIndex) {
+                    return source.inFlight;
+                }
+            }
+
+            throw new IndexOutOfBoundsException("no source at index " + sourceIndex);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    static final class Source<T extends ExecutionContext> {
+        private final int index;
+        private final Supplier<T> supplier;
+        private final int weight;
+        private final int maxInFlight;
+
+        private int inFlight = 0;
+        private int currentWeight = 0;
+        private boolean empty = false;
+
+        Source(int index, Supplier<T> supplier, int weight, int maxInFlight) {
+            if (weight < 1 || maxInFlight < 1) {
+                throw new IllegalArgumentException("weight and in-flight limit must be positive");
+            }
+
+            this.index = index;
+            this.supplier = Objects.requireNonNull(supplier);
+            this.weight = weight;
+            this.maxInFlight = maxInFlight;
+        }
+    }
+}
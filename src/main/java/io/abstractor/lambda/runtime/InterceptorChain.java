@@ -0,0 +1,55 @@
+package io.abstractor.lambda.runtime;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionInterceptor;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.MethodExecutor;
+
+import java.lang.reflect.Method;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compiles interceptors around a method executor into a fixed chain of links, built once.
+ * Executing through the chain allocates nothing, an empty chain is the method executor itself.
+ */
+final class InterceptorChain {
+    private InterceptorChain() {}
+
+    /**
+     * @param methodExecutor the method executor at the end of the chain
+     * @param interceptors the interceptors, the first one is the outermost
+     * @param <T> type / sub-type of execution context
+     * @return MethodExecutor the head of the chain
+     */
+    static <T extends ExecutionContext> MethodExecutor<T> compile(MethodExecutor<T> methodExecutor, List<ExecutionInterceptor<T>> interceptors) {
+        MethodExecutor<T> head = Objects.requireNonNull(methodExecutor);
+
+        for (int i = interceptors.size() - 1; i >= 0; i -= 1) {
+            head = new Link<>(Objects.requireNonNull(interceptors.get(i)), head);
+        }
+
+        return head;
+    }
+
+    private static final class Link<T extends ExecutionContext> implements MethodExecutor<T> {
+        private final ExecutionInterceptor<T> interceptor;
+        private final MethodExecutor<T> next;
+
+        private Link(ExecutionInterceptor<T> interceptor, MethodExecutor<T> next) {
+            this.interceptor = interceptor;
+            this.next = next;
+        }
+
+        @Override
+        public ExecutionResult exec(Method method, T executionContext) {
+            return interceptor.intercept(method, executionContext, next);
+        }
+
+        @Override
+        public void prepare(Method method) {
+            next.prepare(method);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package io.abstractor.lambda.runtime;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Measures the CPU time and the bytes allocated by the executing thread around each method execution,
+ * reports the cost of every execution to a listener and keeps the costliest ones.
+ *
+ * Allocated bytes are read through {@code com.sun.management.ThreadMXBean} when the JVM provides it.
+ */
+class InvocationAccounting {
+    private static final Logger logger = LogManager.getLogger(InvocationAccounting.class);
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported;
+    private final AllocationCounter allocationCounter;
+    private final Consumer<InvocationCost> listener;
+    private final Comparator<InvocationCost> ranking;
+    private final int topCount;
+
+    // Head is the cheapest of the costliest, the one evicted next
+    private final PriorityQueue<InvocationCost> costliest;
+
+    InvocationAccounting(int topCount, Comparator<InvocationCost> ranking, Consumer<InvocationCost> listener) {
+        if (topCount < 0) {
+            throw new IllegalArgumentException("top count must not be negative");
+        }
+
+        this.topCount = topCount;
+        this.ranking = Objects.requireNonNull(ranking);
+        this.listener = listener;
+        this.costliest = new PriorityQueue<>(Math.max(1, topCount), ranking.reversed());
+        this.cpuTimeSupported = isCpuTimeSupported(threadMXBean);
+        this.allocationCounter = createAllocationCounter(threadMXBean);
+    }
+
+    private static AllocationCounter createAllocationCounter(ThreadMXBean threadMXBean) {
+        try {
+            return AllocationCounter.create(threadMXBean);
+        }
+        catch (LinkageError e) {
+            logger.debug("Thread allocated bytes are not available", e);
+
+            return null;
+        }
+    }
+
+    private static boolean isCpuTimeSupported(ThreadMXBean threadMXBean) {
+        try {
+            if (threadMXBean.isCurrentThreadCpuTimeSupported()) {
+                threadMXBean.setThreadCpuTimeEnabled(true);
+
+                return true;
+            }
+        }
+        catch (UnsupportedOperationException | SecurityException e) {
+            logger.debug("Thread CPU time is not available", e);
+        }
+
+        return false;
+    }
+
+    long getCpuTime() {
+        return cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : -1;
+    }
+
+    long getAllocatedBytes() {
+        return allocationCounter == null ? -1 : allocationCounter.getAllocatedBytes();
+    }
+
+    /**
+     * @param executionContext the execution context the method was executed for
+     * @param wallStart {@link System#nanoTime()} before the execution
+     * @param cpuStart {@link #getCpuTime()} before the execution
+     * @param allocatedStart {@link #getAllocatedBytes()} before the execution
+     */
+    void record(ExecutionContext executionContext, long wallStart, long cpuStart, long allocatedStart) {
+        final long wallNanos = System.nanoTime() - wallStart;
+        final long cpuNanos = cpuStart < 0 ? -1 : getCpuTime() - cpuStart;
+        final long allocatedBytes = allocatedStart < 0 ? -1 : getAllocatedBytes() - allocatedStart;
+        final InvocationCost invocationCost = new InvocationCost(
+            executionContext == null ? null : executionContext.getId(),
+            executionContext == null ? null : executionContext.getInput(),
+            wallNanos,
+            cpuNanos,
+            allocatedBytes
+        );
+
+        if (topCount > 0) {
+            synchronized (costliest) {
+                if (costliest.size() < topCount) {
+                    costliest.add(invocationCost);
+                }
+                else if (ranking.compare(invocationCost, costliest.peek()) < 0) {
+                    costliest.poll();
+                    costliest.add(invocationCost);
+                }
+            }
+        }
+
+        if (listener != null) {
+            try {
+                listener.accept(invocationCost);
+            }
+            catch (RuntimeException e) {
+                logger.warn("An error occurred in the invocation cost listener", e);
+            }
+        }
+    }
+
+    /**
+     * @return List the costliest executions so far, costliest first
+     */
+    List<InvocationCost> getCostliest() {
+        final List<InvocationCost> invocationCosts;
+
+        synchronized (costliest) {
+            invocationCosts = new ArrayList<>(costliest);
+        }
+
+        invocationCosts.sort(ranking);
+
+        return invocationCosts;
+    }
+
+    /**
+     * Isolates the references to {@code com.sun.management}, this class only loads when it is available.
+     */
+    private static final class AllocationCounter {
+        private final com.sun.management.ThreadMXBean threadMXBean;
+
+        private AllocationCounter(com.sun.management.ThreadMXBean threadMXBean) {
+            this.threadMXBean = threadMXBean;
+        }
+
+        static AllocationCounter create(ThreadMXBean threadMXBean) {
+            try {
+                if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+                    final com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean)threadMXBean;
+
+                    if (sunThreadMXBean.isThreadAllocatedMemorySupported()) {
+                        sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+                        return new AllocationCounter(sunThreadMXBean);
+                    }
+                }
+            }
+            catch (UnsupportedOperationException | SecurityException e) {
+                logger.debug("Thread allocated bytes are not available", e);
+            }
+
+            return null;
+        }
+
+        long getAllocatedBytes() {
+            return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.abstractor.lambda.runtime;
+
+import java.util.Comparator;
+
+/**
+ * The resources spent executing a method (deserialization and invocation) for an execution context.
+ * CPU time and allocated bytes are -1 when the JVM does not measure them.
+ */
+public final class InvocationCost {
+    /**
+     * Ranks the costliest first by CPU time, then by allocated bytes.
+     */
+    public static final Comparator<InvocationCost> BY_CPU_TIME = Comparator
+        .comparingLong(InvocationCost::getCpuNanos)
+        .thenComparingLong(InvocationCost::getAllocatedBytes)
+        .reversed();
+
+    /**
+     * Ranks the costliest first by allocated bytes, then by CPU time.
+     */
+    public static final Comparator<InvocationCost> BY_ALLOCATED_BYTES = Comparator
+        .comparingLong(InvocationCost::getAllocatedBytes)
+        .thenComparingLong(InvocationCost::getCpuNanos)
+        .reversed();
+
+    private final String executionId;
+    private final String input;
+    private final long wallNanos;
+    private final long cpuNanos;
+    private final long allocatedBytes;
+
+    InvocationCost(String executionId, String input, long wallNanos, long cpuNanos, long allocatedBytes) {
+        this.executionId = executionId;
+        this.input = input;
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public String getExecutionId() {
+        return executionId;
+    }
+
+    /**
+     * @return String the input of the execution context, may be null
+     */
+    public String getInput() {
+        return input;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: wall=%dns cpu=%dns allocated=%dB", executionId, wallNanos, cpuNanos, allocatedBytes);
+    }
+}
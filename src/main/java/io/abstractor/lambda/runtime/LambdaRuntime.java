@@ -1,81 +1,392 @@
 package io.abstractor.lambda.runtime;
 
+import io.abstractor.lambda.runtime.jfr.InvocationEvents;
 import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionInterceptor;
 import io.abstractor.lambda.runtime.port.ExecutionResult;
 import io.abstractor.lambda.runtime.port.MethodExecutor;
 import io.abstractor.lambda.runtime.port.ExecutionRelay;
+import io.abstractor.lambda.runtime.port.Recyclable;
+import io.abstractor.lambda.runtime.port.ResultEncoder;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.lang.reflect.Method;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class LambdaRuntime<T extends ExecutionContext> {
     private static final Logger logger = LogManager.getLogger(LambdaRuntime.class);
 
     private final Supplier<Method> methodSupplier;
+    private final Map<String, Supplier<Method>> routeMethodSuppliers;
     private final ExecutionRelay<T> executionRelay;
     private final MethodExecutor<T> methodExecutor;
     private final Supplier<T> executionContextSupplier;
+    private final ExecutionContextScheduler<T> executionContextScheduler;
+    private final LogRateLimiter errorLogRateLimiter;
+    private final ThreadLocal<DeferredTaskQueue> deferredTaskQueues;
+    private final DeadlineEnforcer<T> deadlineEnforcer;
+    private final InvocationAccounting invocationAccounting;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final AccessLog accessLog;
+    private final Function<Method, ResultEncoder> resultEncoderFactory;
+    private final Map<Method, ResultEncoder> resultEncoders = new ConcurrentHashMap<>();
+
+    private volatile DispatchTable dispatchTable;
 
     private LambdaRuntime(Builder<T> builder) {
-        this.methodSupplier = Objects.requireNonNull(builder.methodSupplier);
-        this.methodExecutor = Objects.requireNonNull(builder.methodExecutor);
+        // Without routes every execution cycle is dispatched to the default method.
+        this.methodSupplier = builder.routeMethodSuppliers.isEmpty() ? Objects.requireNonNull(builder.methodSupplier) : builder.methodSupplier;
+        this.routeMethodSuppliers = new LinkedHashMap<>(builder.routeMethodSuppliers);
+        this.methodExecutor = InterceptorChain.compile(Objects.requireNonNull(builder.methodExecutor), builder.interceptors);
         this.executionRelay = Objects.requireNonNull(builder.executionRelay);
-        this.executionContextSupplier = Objects.requireNonNull(builder.executionContextSupplier);
+
+        if (builder.executionContextSources.isEmpty()) {
+            this.executionContextScheduler = null;
+            this.executionContextSupplier = Objects.requireNonNull(builder.executionContextSupplier);
+        }
+        else if (builder.executionContextSupplier != null) {
+            throw new IllegalArgumentException("either an execution context supplier or execution context sources can be set");
+        }
+        else {
+            this.executionContextScheduler = new ExecutionContextScheduler<>(builder.schedulingPolicy, builder.executionContextSources);
+            this.executionContextSupplier = executionContextScheduler;
+        }
+
+        this.errorLogRateLimiter = new LogRateLimiter(builder.errorLogRate);
+
+        if (builder.deferredTaskCapacity > 0) {
+            final int capacity = builder.deferredTaskCapacity;
+            final Duration budget = Objects.requireNonNull(builder.deferredTaskBudget);
+            final DeferredTaskQueue.OverflowPolicy overflowPolicy = Objects.requireNonNull(builder.deferredTaskOverflowPolicy);
+
+            this.deferredTaskQueues = ThreadLocal.withInitial(() -> new DeferredTaskQueue(capacity, budget, overflowPolicy));
+        }
+        else {
+            this.deferredTaskQueues = null;
+        }
+
+        if (builder.minimumRemainingTime != null) {
+            this.deadlineEnforcer = new DeadlineEnforcer<>(builder.minimumRemainingTime, builder.interruptOverruns);
+        }
+        else {
+            this.deadlineEnforcer = null;
+        }
+
+        if (builder.accountingTopCount >= 0) {
+            this.invocationAccounting = new InvocationAccounting(builder.accountingTopCount, builder.accountingRanking, builder.accountingListener);
+        }
+        else {
+            this.invocationAccounting = null;
+        }
+
+        this.concurrencyLimiter = builder.concurrencyLimiter;
+        this.accessLog = builder.accessLog;
+        this.resultEncoderFactory = builder.resultEncoderFactory;
     }
 
     private T getExecutionContext() {
+        final Object event = InvocationEvents.begin(InvocationEvents.Phase.CONTEXT_FETCH);
+
         T executionContext = null;
 
         try {
             executionContext = executionContextSupplier.get();
         }
         catch (Exception e) {
-            logger.error("An error occurred while retrieving execution context", e);
+            final long suppressed = errorLogRateLimiter.tryAcquire();
+
+            if (suppressed >= 0) {
+                logger.error("An error occurred while retrieving execution context (suppressed: {})", suppressed, e);
+            }
+        }
+        finally {
+            InvocationEvents.end(event, executionContext, null);
         }
 
         return executionContext;
     }
 
-    private ExecutionResult exec(Method method, T executionContext) {
+    private DispatchTable getDispatchTable() {
+        DispatchTable table = dispatchTable;
+
+        if (table == null) {
+            synchronized (this) {
+                table = dispatchTable;
+
+                if (table == null) {
+                    table = new DispatchTable(methodSupplier, routeMethodSuppliers);
+
+                    for (Method method : table.getMethods()) {
+                        methodExecutor.prepare(method);
+
+                        if (resultEncoderFactory != null) {
+                            resultEncoders.computeIfAbsent(method, resultEncoderFactory);
+                        }
+                    }
+
+                    dispatchTable = table;
+                }
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * @param executionNanos receives the time spent executing the method (first element), left untouched when the
+     *                       method was not executed, may be null
+     */
+    private ExecutionResult exec(DispatchTable dispatchTable, T executionContext, long[] executionNanos) {
+        final DeferredTaskQueue deferredTaskQueue = deferredTaskQueues == null ? null : deferredTaskQueues.get();
+
+        if (deferredTaskQueue != null) {
+            deferredTaskQueue.bind();
+        }
+
+        final long start = accessLog == null ? 0 : System.nanoTime();
+
+        ExecutionResult executionResult = null;
+        AccessLog.Outcome outcome = AccessLog.Outcome.RELAY_FAILURE;
+        long executed = 0;
+
         try {
-            final ExecutionResult executionResult = methodExecutor.exec(method, executionContext);
+            Method method = null;
+
+            try {
+                method = dispatchTable.getMethod(executionContext);
 
-            executionRelay.relayExecutionResult(executionResult);
+                if (invocationAccounting == null) {
+                    executionResult = exec(method, executionContext, executionNanos);
+                }
+                else {
+                    final long wallStart = System.nanoTime();
+                    final long cpuStart = invocationAccounting.getCpuTime();
+                    final long allocatedStart = invocationAccounting.getAllocatedBytes();
+
+                    try {
+                        executionResult = exec(method, executionContext, executionNanos);
+                    }
+                    finally {
+                        invocationAccounting.record(executionContext, wallStart, cpuStart, allocatedStart);
+                    }
+                }
+            }
+            catch (Throwable e) {
+                executed = accessLog == null ? 0 : System.nanoTime();
+                outcome = AccessLog.Outcome.EXECUTION_FAILURE;
+
+                final Object event = InvocationEvents.begin(InvocationEvents.Phase.RELAY);
+
+                try {
+                    executionRelay.relayExecutionException(e, executionContext);
+                }
+                finally {
+                    InvocationEvents.end(event, executionContext == null ? null : executionContext.getId(), null);
+                }
+
+                throw e;
+            }
+
+            executed = accessLog == null ? 0 : System.nanoTime();
+
+            // The method execution succeeded, a failure to relay its result is not relayed as an execution exception.
+            final Object event = InvocationEvents.begin(InvocationEvents.Phase.RELAY);
+
+            try {
+                if (resultEncoderFactory == null) {
+                    executionRelay.relayExecutionResult(executionResult);
+                }
+                else {
+                    executionRelay.relayExecutionResult(executionResult, resultEncoders.computeIfAbsent(method, resultEncoderFactory));
+                }
+            }
+            finally {
+                InvocationEvents.end(event, executionResult.getExecutionId(), executionResult);
+            }
+
+            outcome = AccessLog.Outcome.SUCCESS;
 
             return executionResult;
         }
-        catch (Throwable e) {
-            executionRelay.relayExecutionException(e, executionContext);
+        finally {
+            if (accessLog != null && executionContext != null) {
+                accessLog.log(executionContext, executionResult, outcome, executed - start, System.nanoTime() - executed);
+            }
 
-            throw e;
+            if (executionContextScheduler != null && executionContext != null) {
+                executionContextScheduler.complete(executionContext);
+            }
+
+            // Deferred tasks run once the outcome was relayed, the caller is not waiting on them.
+            if (deferredTaskQueue != null) {
+                deferredTaskQueue.unbind();
+                deferredTaskQueue.drain();
+            }
+        }
+    }
+
+    private ExecutionResult exec(Method method, T executionContext, long[] executionNanos) {
+        final long start = System.nanoTime();
+
+        try {
+            if (deadlineEnforcer == null) {
+                return methodExecutor.exec(method, executionContext);
+            }
+
+            return deadlineEnforcer.exec(methodExecutor, method, executionContext);
+        }
+        finally {
+            if (executionNanos != null) {
+                executionNanos[0] = System.nanoTime() - start;
+            }
+        }
+    }
+
+    private static void recycle(Object object) {
+        if (object instanceof Recyclable) {
+            ((Recyclable)object).recycle();
         }
     }
 
+    /**
+     * @return List the costliest method executions so far (costliest first), empty unless accounting is enabled
+     */
+    public List<InvocationCost> getCostliestInvocations() {
+        return invocationAccounting == null ? Collections.emptyList() : invocationAccounting.getCostliest();
+    }
+
+    /**
+     * Execute a single execution cycle, the returned execution result is owned by the caller.
+     *
+     * @return ExecutionResult the relayed execution result
+     */
     public ExecutionResult exec() {
-        return exec(methodSupplier.get(), getExecutionContext());
+        final T executionContext = getExecutionContext();
+
+        try {
+            return exec(getDispatchTable(), executionContext, null);
+        }
+        finally {
+            recycle(executionContext);
+        }
     }
 
-    // TODO: Examine the behaviour of the "next invocation" API for the sake of concurrency.
-    public void init() {
+    /**
+     * Execute an execution cycle, failures were relayed already and are only logged.
+     * Reusable holders are reclaimed once the cycle is over.
+     */
+    private void execAndRecycle(DispatchTable dispatchTable, T executionContext, long[] executionNanos) {
+        ExecutionResult executionResult = null;
+
         try {
-            final Method method = methodSupplier.get();
+            executionResult = exec(dispatchTable, executionContext, executionNanos);
+        }
+        catch (Throwable e) {
+            // The exception was relayed already, logging is a debugging aid only.
+            if (logger.isDebugEnabled()) {
+                final long suppressed = errorLogRateLimiter.tryAcquire();
 
-            //noinspection InfiniteLoopStatement
+                if (suppressed >= 0) {
+                    logger.debug("An exception occurred during execution (id: {}, suppressed: {})", executionContext.getId(), suppressed, e);
+                }
+            }
+        }
+        finally {
+            // Once relayed the execution cycle is over, reusable holders can be reclaimed.
+            recycle(executionResult);
+            recycle(executionContext);
+        }
+    }
+
+    /**
+     * Fetch execution contexts while the concurrency limiter has room, executing them on worker threads.
+     * Returns once the calling thread is interrupted, letting in-flight executions complete.
+     */
+    private void dispatch(DispatchTable dispatchTable) {
+        final ExecutorService workers = Executors.newFixedThreadPool(concurrencyLimiter.getMaxLimit(), runnable -> {
+            final Thread thread = new Thread(runnable, "lambda-runtime-worker");
+
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        try {
             while (true) {
+                concurrencyLimiter.acquire();
+
                 final T executionContext = getExecutionContext();
 
-                if (executionContext != null) {
+                if (executionContext == null) {
+                    concurrencyLimiter.release();
+
+                    continue;
+                }
+
+                workers.execute(() -> {
+                    // The limit follows the handler latency, relaying and deferred tasks are left out.
+                    final long[] executionNanos = {-1};
+
                     try {
-                        exec(method, executionContext);
+                        execAndRecycle(dispatchTable, executionContext, executionNanos);
                     }
-                    catch (Throwable e) {
-                        logger.debug("An exception occurred during execution (id: {})", executionContext.getId(), e);
+                    finally {
+                        if (executionNanos[0] < 0) {
+                            concurrencyLimiter.release();
+                        }
+                        else {
+                            concurrencyLimiter.release(executionNanos[0]);
+                        }
                     }
+                });
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * Fetch and execute execution contexts forever, one at a time.
+     *
+     * With a concurrency limiter execution contexts are executed on worker threads instead, as many at once as the
+     * limiter allows, and interrupting the calling thread stops fetching.
+     */
+    public void init() {
+        try {
+            final DispatchTable dispatchTable = getDispatchTable();
+
+            if (concurrencyLimiter != null) {
+                dispatch(dispatchTable);
+
+                return;
+            }
+
+            //noinspection InfiniteLoopStatement
+            while (true) {
+                final T executionContext = getExecutionContext();
+
+                if (executionContext != null) {
+                    execAndRecycle(dispatchTable, executionContext, null);
                 }
             }
         }
@@ -90,9 +401,25 @@ public class LambdaRuntime<T extends ExecutionContext> {
 
     public static class Builder<T extends ExecutionContext> {
         private Supplier<Method> methodSupplier;
+        private Map<String, Supplier<Method>> routeMethodSuppliers = new LinkedHashMap<>();
         private MethodExecutor<T> methodExecutor;
+        private List<ExecutionInterceptor<T>> interceptors = new ArrayList<>();
         private ExecutionRelay<T> executionRelay;
         private Supplier<T> executionContextSupplier;
+        private List<ExecutionContextScheduler.Source<T>> executionContextSources = new ArrayList<>();
+        private ExecutionContextScheduler.Policy schedulingPolicy = ExecutionContextScheduler.Policy.WEIGHTED_FAIR;
+        private int errorLogRate = 100;
+        private int deferredTaskCapacity = 0;
+        private Duration deferredTaskBudget = Duration.ofMillis(100);
+        private DeferredTaskQueue.OverflowPolicy deferredTaskOverflowPolicy = DeferredTaskQueue.OverflowPolicy.RUN;
+        private Duration minimumRemainingTime;
+        private boolean interruptOverruns;
+        private int accountingTopCount = -1;
+        private Comparator<InvocationCost> accountingRanking = InvocationCost.BY_CPU_TIME;
+        private Consumer<InvocationCost> accountingListener;
+        private ConcurrencyLimiter concurrencyLimiter;
+        private AccessLog accessLog;
+        private Function<Method, ResultEncoder> resultEncoderFactory;
 
         public Builder<T> setMethodExecutor(MethodExecutor<T> methodExecutor) {
             this.methodExecutor = methodExecutor;
@@ -100,12 +427,41 @@ public class LambdaRuntime<T extends ExecutionContext> {
             return this;
         }
 
+        /**
+         * Add an interceptor around method executions, the first interceptor added is the outermost.
+         * The chain is compiled once when the runtime is built.
+         *
+         * @param interceptor the interceptor
+         * @return Builder this builder
+         */
+        public Builder<T> addInterceptor(ExecutionInterceptor<T> interceptor) {
+            interceptors.add(Objects.requireNonNull(interceptor));
+
+            return this;
+        }
+
         public Builder<T> setMethodSupplier(Supplier<Method> methodSupplier) {
             this.methodSupplier = methodSupplier;
 
             return this;
         }
 
+        /**
+         * Add a handler execution contexts are dispatched to by their route key.
+         * Routes are resolved (and prepared by the method executor) once, when the runtime starts.
+         * A default method supplier is optional once a route was added.
+         *
+         * @param routeKey the route key
+         * @param methodSupplier supplies the route handler
+         * @return Builder this builder
+         * @see ExecutionContext#getRouteKey()
+         */
+        public Builder<T> addRoute(String routeKey, Supplier<Method> methodSupplier) {
+            routeMethodSuppliers.put(Objects.requireNonNull(routeKey), Objects.requireNonNull(methodSupplier));
+
+            return this;
+        }
+
         public Builder<T> setExecutionRelay(ExecutionRelay<T> executionRelay) {
             this.executionRelay = executionRelay;
 
@@ -118,6 +474,135 @@ public class LambdaRuntime<T extends ExecutionContext> {
             return this;
         }
 
+        /**
+         * Fetch execution contexts from several sources instead of a single execution context supplier.
+         * A source supplies null when it has nothing to execute, it must not block.
+         *
+         * @param supplier the source execution context supplier
+         * @param weight the source share of execution slots, or its priority under strict priority scheduling
+         * @param maxInFlight the maximum number of the source execution contexts executing at once
+         * @return Builder this builder
+         * @see ExecutionContextScheduler
+         */
+        public Builder<T> addExecutionContextSource(Supplier<T> supplier, int weight, int maxInFlight) {
+            executionContextSources.add(new ExecutionContextScheduler.Source<>(executionContextSources.size(), supplier, weight, maxInFlight));
+
+            return this;
+        }
+
+        /**
+         * @param schedulingPolicy how execution context sources are chosen ({@link ExecutionContextScheduler.Policy#WEIGHTED_FAIR} by default)
+         * @return Builder this builder
+         */
+        public Builder<T> setSchedulingPolicy(ExecutionContextScheduler.Policy schedulingPolicy) {
+            this.schedulingPolicy = schedulingPolicy;
+
+            return this;
+        }
+
+        /**
+         * @param errorLogRate the maximum number of execution errors logged per second (100 by default)
+         * @return Builder this builder
+         */
+        public Builder<T> setErrorLogRate(int errorLogRate) {
+            this.errorLogRate = errorLogRate;
+
+            return this;
+        }
+
+        /**
+         * Enable {@link DeferredTaskQueue#defer(Runnable)}, disabled by default.
+         *
+         * @param capacity the maximum number of queued tasks per executing thread
+         * @param budget the time spent running deferred tasks after each execution cycle
+         * @param overflowPolicy what to do with tasks deferred into a full queue
+         * @return Builder this builder
+         */
+        public Builder<T> setDeferredTasks(int capacity, Duration budget, DeferredTaskQueue.OverflowPolicy overflowPolicy) {
+            this.deferredTaskCapacity = capacity;
+            this.deferredTaskBudget = budget;
+            this.deferredTaskOverflowPolicy = overflowPolicy;
+
+            return this;
+        }
+
+        /**
+         * Enforce execution context deadlines, disabled by default.
+         *
+         * An execution context is rejected when its remaining time is below the larger of the given minimum and the
+         * p99 of recent execution times, and an execution cycle fails when its deadline passes before relaying.
+         * Rejections and overruns are relayed as a {@link DeadlineExceededException}.
+         *
+         * @param minimumRemainingTime the least time an execution context must have left to be executed
+         * @param interruptOverruns whether to interrupt a method still running at the deadline
+         * @return Builder this builder
+         * @see ExecutionContext#getDeadline()
+         */
+        public Builder<T> setDeadlines(Duration minimumRemainingTime, boolean interruptOverruns) {
+            this.minimumRemainingTime = minimumRemainingTime;
+            this.interruptOverruns = interruptOverruns;
+
+            return this;
+        }
+
+        /**
+         * Measure the CPU time and the bytes allocated by each method execution, disabled by default.
+         *
+         * @param topCount the number of costliest executions kept (0 keeps none)
+         * @param ranking orders executions costliest first, {@link InvocationCost#BY_CPU_TIME} for instance
+         * @param listener receives the cost of every execution (may be null)
+         * @return Builder this builder
+         * @see LambdaRuntime#getCostliestInvocations()
+         */
+        public Builder<T> setAccounting(int topCount, Comparator<InvocationCost> ranking, Consumer<InvocationCost> listener) {
+            this.accountingTopCount = topCount;
+            this.accountingRanking = ranking;
+            this.accountingListener = listener;
+
+            return this;
+        }
+
+        /**
+         * Execute execution contexts concurrently, as many at once as the limiter allows (sequentially by default).
+         * The limiter adapts its limit to the measured execution latency, {@link ConcurrencyLimiter#getLimit()}
+         * exposes it.
+         *
+         * @param concurrencyLimiter the concurrency limiter
+         * @return Builder this builder
+         * @see LambdaRuntime#init()
+         */
+        public Builder<T> setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+
+            return this;
+        }
+
+        /**
+         * Log a line per execution cycle, disabled by default.
+         *
+         * @param accessLog the access log
+         * @return Builder this builder
+         */
+        public Builder<T> setAccessLog(AccessLog accessLog) {
+            this.accessLog = accessLog;
+
+            return this;
+        }
+
+        /**
+         * Relay execution results along with the encoder of the method which produced them, relays then encode
+         * execution values straight to their output channel. Disabled by default.
+         *
+         * @param resultEncoderFactory creates the encoder of a method, once per method ({@code LambdaResultEncoder::forMethod} for instance)
+         * @return Builder this builder
+         * @see ExecutionRelay#relayExecutionResult(ExecutionResult, ResultEncoder)
+         */
+        public Builder<T> setResultEncoder(Function<Method, ResultEncoder> resultEncoderFactory) {
+            this.resultEncoderFactory = resultEncoderFactory;
+
+            return this;
+        }
+
         public LambdaRuntime<T> build() {
             return new LambdaRuntime<>(this);
         }
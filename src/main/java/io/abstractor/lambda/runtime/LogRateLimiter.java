@@ -0,0 +1,50 @@
+package io.abstractor.lambda.runtime;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grants a fixed number of log permits per second and counts the denied ones,
+ * so that error storms do not turn into logging storms.
+ */
+class LogRateLimiter {
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int permitsPerSecond;
+
+    private long windowStart = System.nanoTime();
+    private int permits = 0;
+    private long suppressed = 0;
+
+    LogRateLimiter(int permitsPerSecond) {
+        if (permitsPerSecond < 1) {
+            throw new IllegalArgumentException("permits per second must be positive");
+        }
+
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    /**
+     * @return long -1 when the permit was denied, otherwise the number of permits denied since the last granted one
+     */
+    synchronized long tryAcquire() {
+        final long now = System.nanoTime();
+
+        if (now - windowStart >= WINDOW_NANOS) {
+            windowStart = now;
+            permits = 0;
+        }
+
+        if (permits == permitsPerSecond) {
+            suppressed += 1;
+
+            return -1;
+        }
+
+        final long suppressedCount = suppressed;
+
+        permits += 1;
+        suppressed = 0;
+
+        return suppressedCount;
+    }
+}
@@ -0,0 +1,367 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.MethodExecutor;
+
+import java.lang.reflect.Method;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A method executor decorator memoizing execution values of idempotent handlers.
+ *
+ * Values are keyed by the handler method, the input mime type and the input itself.
+ * Execution contexts without a textual input (binary or encoded input streams) are executed without caching,
+ * keying on them would mean reading and holding their whole input.
+ * The cache is bounded by both entries count and total weight (least recently used entries are evicted first)
+ * and entries expire once their time to live elapsed. Concurrent executions of an identical key are coalesced,
+ * only the first one reaches the decorated executor while the others wait for its outcome.
+ * Failed executions are never cached. Cached results keep the content encoding and content type of the result
+ * they were cached from.
+ *
+ * @param <T> type / sub-type of execution context
+ */
+public class CachingMethodExecutor<T extends ExecutionContext> implements MethodExecutor<T> {
+    private final MethodExecutor<T> methodExecutor;
+    private final long maximumSize;
+    private final long maximumWeight;
+    private final long timeToLiveNanos;
+    private final LongSupplier ticker;
+    private final ToLongBiFunction<T, Object> weigher;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Key, CompletableFuture<CachedResult>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder uncacheable = new LongAdder();
+
+    private long weight = 0;
+
+    private CachingMethodExecutor(Builder<T> builder) {
+        this.methodExecutor = Objects.requireNonNull(builder.methodExecutor);
+        this.weigher = Objects.requireNonNull(builder.weigher);
+        this.ticker = Objects.requireNonNull(builder.ticker);
+        this.maximumSize = builder.maximumSize;
+        this.maximumWeight = builder.maximumWeight;
+        this.timeToLiveNanos = Objects.requireNonNull(builder.timeToLive).toNanos();
+    }
+
+    private synchronized CachedResult lookup(Key key) {
+        final Entry entry = entries.get(key);
+
+        if (entry == null) {
+            return null;
+        }
+
+        if (ticker.getAsLong() - entry.expiresAt >= 0) {
+            remove(key, entry);
+
+            return null;
+        }
+
+        return entry.value;
+    }
+
+    private synchronized void store(Key key, CachedResult value, long entryWeight) {
+        if (entryWeight > maximumWeight) {
+            return;
+        }
+
+        final Entry previous = entries.put(key, new Entry(value, entryWeight, ticker.getAsLong() + timeToLiveNanos));
+
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+
+        weight += entryWeight;
+
+        final Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+
+        // Access ordered, the eldest entry is the least recently used one.
+        while ((entries.size() > maximumSize || weight > maximumWeight) && iterator.hasNext()) {
+            final Entry eldest = iterator.next().getValue();
+
+            iterator.remove();
+
+            weight -= eldest.weight;
+
+            evictions.increment();
+        }
+    }
+
+    private void remove(Key key, Entry entry) {
+        entries.remove(key);
+
+        weight -= entry.weight;
+
+        evictions.increment();
+    }
+
+    private CachedResult await(CompletableFuture<CachedResult> future) {
+        try {
+            return future.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+
+            if (e.getCause() instanceof Error) {
+                throw (Error)e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    @Override
+    public ExecutionResult exec(Method method, T executionContext) {
+        Objects.requireNonNull(method);
+        Objects.requireNonNull(executionContext);
+
+        if (executionContext.getInput() == null) {
+            uncacheable.increment();
+
+            return methodExecutor.exec(method, executionContext);
+        }
+
+        final Key key = new Key(method, executionContext.getInputMimeType(), executionContext.getInput());
+        final CachedResult cachedResult = lookup(key);
+
+        if (cachedResult != null) {
+            hits.increment();
+
+            return cachedResult.toExecutionResult(executionContext.getId());
+        }
+
+        misses.increment();
+
+        final CompletableFuture<CachedResult> future = new CompletableFuture<>();
+        final CompletableFuture<CachedResult> inFlightFuture = inFlight.putIfAbsent(key, future);
+
+        if (inFlightFuture != null) {
+            coalesced.increment();
+
+            return await(inFlightFuture).toExecutionResult(executionContext.getId());
+        }
+
+        try {
+            final ExecutionResult executionResult = methodExecutor.exec(method, executionContext);
+            final CachedResult result = new CachedResult(executionResult);
+
+            store(key, result, weigher.applyAsLong(executionContext, result.value));
+
+            future.complete(result);
+
+            return executionResult;
+        }
+        catch (Throwable e) {
+            // Coalesced executions wait on the future uninterruptibly, it must complete whatever was thrown.
+            future.completeExceptionally(e);
+
+            throw e;
+        }
+        finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    @Override
+    public void prepare(Method method) {
+        methodExecutor.prepare(method);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+
+        weight = 0;
+    }
+
+    public synchronized long getSize() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return long the number of misses that waited for an identical in-flight execution instead of executing.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return long the number of executions bypassing the cache, their execution context had no textual input.
+     */
+    public long getUncacheableCount() {
+        return uncacheable.sum();
+    }
+
+    /**
+     * The default weigher, the length of the input plus the length of textual / binary values.
+     */
+    static long weigh(ExecutionContext executionContext, Object value) {
+        final String input = executionContext.getInput();
+
+        long weight = input == null ? 1 : input.length() + 1;
+
+        if (value instanceof CharSequence) {
+            weight += ((CharSequence)value).length();
+        }
+        else if (value instanceof byte[]) {
+            weight += ((byte[])value).length;
+        }
+
+        return weight;
+    }
+
+    private static final class Key {
+        private final Method method;
+        private final String mimeType;
+        private final String input;
+        private final int hash;
+
+        Key(Method method, String mimeType, String input) {
+            this.method = method;
+            this.mimeType = mimeType;
+            this.input = input;
+            this.hash = 31 * (31 * method.hashCode() + Objects.hashCode(mimeType)) + Objects.hashCode(input);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key key = (Key)o;
+
+            return hash == key.hash && method.equals(key.method) && Objects.equals(mimeType, key.mimeType) && Objects.equals(input, key.input);
+        }
+    }
+
+    /**
+     * An execution value along with the metadata it is relayed with.
+     */
+    private static final class CachedResult {
+        private final Object value;
+        private final String contentEncoding;
+        private final String contentType;
+
+        CachedResult(ExecutionResult executionResult) {
+            this.value = executionResult.getExecutionValue();
+            this.contentEncoding = executionResult.getContentEncoding();
+            this.contentType = executionResult.getContentType();
+        }
+
+        ExecutionResult toExecutionResult(String id) {
+            return new LambdaExecutionResult(id, value, contentEncoding, contentType);
+        }
+    }
+
+    private static final class Entry {
+        private final CachedResult value;
+        private final long weight;
+        private final long expiresAt;
+
+        Entry(CachedResult value, long weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public static class Builder<T extends ExecutionContext> {
+        private MethodExecutor<T> methodExecutor;
+        private long maximumSize = 1024;
+        private long maximumWeight = Long.MAX_VALUE;
+        private Duration timeToLive = Duration.ofMinutes(5);
+        private LongSupplier ticker = System::nanoTime;
+        private ToLongBiFunction<T, Object> weigher = CachingMethodExecutor::weigh;
+
+        public Builder<T> setMethodExecutor(MethodExecutor<T> methodExecutor) {
+            this.methodExecutor = methodExecutor;
+
+            return this;
+        }
+
+        public Builder<T> setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+
+            return this;
+        }
+
+        public Builder<T> setMaximumWeight(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+
+            return this;
+        }
+
+        public Builder<T> setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+
+            return this;
+        }
+
+        /**
+         * @param weigher computes the weight of an entry out of the execution context & the execution value
+         * @return Builder this builder
+         */
+        public Builder<T> setWeigher(ToLongBiFunction<T, Object> weigher) {
+            this.weigher = weigher;
+
+            return this;
+        }
+
+        /**
+         * @param ticker a nano time source, {@link System#nanoTime()} by default
+         * @return Builder this builder
+         */
+        public Builder<T> setTicker(LongSupplier ticker) {
+            this.ticker = ticker;
+
+            return this;
+        }
+
+        public CachingMethodExecutor<T> build() {
+            return new CachingMethodExecutor<>(this);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionRelay;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.ResultEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import java.util.Objects;
+
+/**
+ * A relay decorator compressing execution values whose encoded form reaches a size threshold.
+ *
+ * Values are encoded by the result encoder handed to the relay, or by a {@link LambdaResultEncoder} when none is
+ * (text as UTF-8, binary as is and anything else as JSON). A compressed execution value is relayed as a byte[]
+ * along with its content encoding and the content type of the uncompressed value (text stays text), smaller
+ * values are relayed as is.
+ *
+ * @param <T> type / sub-type of execution context
+ */
+public class CompressingExecutionRelay<T extends ExecutionContext> implements ExecutionRelay<T> {
+    private static final ResultEncoder DEFAULT_RESULT_ENCODER = new LambdaResultEncoder(Object.class);
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ExecutionRelay<T> executionRelay;
+    private final String contentEncoding;
+    private final int threshold;
+
+    /**
+     * @param executionRelay the relay compressed execution results are relayed to
+     * @param contentEncoding "gzip" or "deflate"
+     * @param threshold the size (in bytes) from which execution values are compressed
+     */
+    public CompressingExecutionRelay(ExecutionRelay<T> executionRelay, String contentEncoding, int threshold) {
+        if (!ContentEncoding.isEncoded(contentEncoding)) {
+            throw new IllegalArgumentException("content encoding must compress");
+        }
+
+        this.executionRelay = Objects.requireNonNull(executionRelay);
+        this.contentEncoding = contentEncoding;
+        this.threshold = threshold;
+
+        // Fail fast on unsupported content encodings
+        ContentEncoding.encode(contentEncoding, new byte[0]);
+    }
+
+    public CompressingExecutionRelay(ExecutionRelay<T> executionRelay, int threshold) {
+        this(executionRelay, ContentEncoding.GZIP, threshold);
+    }
+
+    @Override
+    public void relayExecutionResult(ExecutionResult executionResult) {
+        executionRelay.relayExecutionResult(compress(executionResult, null));
+    }
+
+    /**
+     * A compressed execution value is a byte[], which encoders write as is.
+     */
+    @Override
+    public void relayExecutionResult(ExecutionResult executionResult, ResultEncoder resultEncoder) {
+        executionRelay.relayExecutionResult(compress(executionResult, resultEncoder), resultEncoder);
+    }
+
+    /**
+     * @param resultEncoder the encoder of the execution value, may be null
+     */
+    private ExecutionResult compress(ExecutionResult executionResult, ResultEncoder resultEncoder) {
+        if (ContentEncoding.isEncoded(executionResult.getContentEncoding())) {
+            return executionResult;
+        }
+
+        final Object value = executionResult.getExecutionValue();
+        final ResultEncoder encoder = resultEncoder == null ? DEFAULT_RESULT_ENCODER : resultEncoder;
+        final long contentLength = encoder.getContentLength(value);
+
+        // Values of a known length are skipped without being encoded
+        if (contentLength >= 0 && contentLength < threshold) {
+            return executionResult;
+        }
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream(contentLength >= 0 ? (int)Math.min(contentLength, Integer.MAX_VALUE - 8) : BUFFER_SIZE);
+
+        try {
+            encoder.encode(value, content);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (content.size() < threshold) {
+            return executionResult;
+        }
+
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream(Math.max(32, content.size() / 4));
+
+        try (OutputStream outputStream = ContentEncoding.encode(contentEncoding, encoded)) {
+            content.writeTo(outputStream);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new LambdaExecutionResult(executionResult.getExecutionId(), encoded.toByteArray(), contentEncoding, getContentType(executionResult, encoder));
+    }
+
+    private static String getContentType(ExecutionResult executionResult, ResultEncoder resultEncoder) {
+        if (executionResult.getContentType() != null) {
+            return executionResult.getContentType();
+        }
+
+        return resultEncoder.getContentType(executionResult.getExecutionValue());
+    }
+
+    @Override
+    public void relayExecutionException(Throwable e, T executionContext) {
+        executionRelay.relayExecutionException(e, executionContext);
+    }
+
+    @Override
+    public void relayInitException(Throwable e) {
+        executionRelay.relayInitException(e);
+    }
+}
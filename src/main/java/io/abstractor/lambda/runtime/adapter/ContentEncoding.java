@@ -0,0 +1,208 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content encodings ("gzip", "deflate" and "identity") of execution inputs and execution values.
+ */
+public final class ContentEncoding {
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    public static final String IDENTITY = "identity";
+
+    private ContentEncoding() {}
+
+    /**
+     * @param contentEncoding a content encoding
+     * @return boolean whether the content encoding actually transforms the content
+     */
+    public static boolean isEncoded(String contentEncoding) {
+        return contentEncoding != null && !contentEncoding.isEmpty() && !IDENTITY.equalsIgnoreCase(contentEncoding);
+    }
+
+    /**
+     * Wrap an encoded stream with a stream decoding it on the fly.
+     *
+     * @param contentEncoding the content encoding of the stream
+     * @param inputStream the encoded stream
+     * @return InputStream the decoded stream
+     * @throws IOException in case the stream header is invalid
+     * @throws IllegalArgumentException in case the content encoding is not supported
+     */
+    public static InputStream decode(String contentEncoding, InputStream inputStream) throws IOException {
+        if (!isEncoded(contentEncoding)) {
+            return inputStream;
+        }
+
+        switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case GZIP:
+            case "x-gzip":
+                return new GZIPInputStream(inputStream);
+            case DEFLATE:
+                return new InflaterInputStream(inputStream);
+            default:
+                throw new IllegalArgumentException("unsupported content encoding " + contentEncoding);
+        }
+    }
+
+    /**
+     * Wrap a stream with a stream encoding whatever is written to it.
+     *
+     * @param contentEncoding the content encoding
+     * @param outputStream the stream encoded content is written to
+     * @return OutputStream the encoding stream, it must be closed to flush the encoded content
+     * @throws IOException in case the stream header could not be written
+     * @throws IllegalArgumentException in case the content encoding is not supported
+     */
+    public static OutputStream encode(String contentEncoding, OutputStream outputStream) throws IOException {
+        if (!isEncoded(contentEncoding)) {
+            return outputStream;
+        }
+
+        switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case GZIP:
+            case "x-gzip":
+                return new GZIPOutputStream(outputStream);
+            case DEFLATE:
+                return new DeflaterOutputStream(outputStream);
+            default:
+                throw new IllegalArgumentException("unsupported content encoding " + contentEncoding);
+        }
+    }
+
+    public static byte[] encode(String contentEncoding, byte[] content) {
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream(Math.max(32, content.length / 4));
+
+        try (OutputStream outputStream = encode(contentEncoding, encoded)) {
+            outputStream.write(content);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return encoded.toByteArray();
+    }
+
+    /**
+     * @param executionContext an execution context
+     * @return InputStream the decoded input of the execution context or null
+     */
+    public static InputStream getInputStream(ExecutionContext executionContext) {
+        final InputStream inputStream = executionContext.getInputStream();
+
+        if (inputStream == null) {
+            return null;
+        }
+
+        try {
+            return decode(executionContext.getInputContentEncoding(), inputStream);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Same as {@link #getInput(ExecutionContext, long)}, bounded by {@link InputSpooler#DEFAULT_THRESHOLD}.
+     *
+     * @param executionContext an execution context
+     * @return String the decoded input of the execution context (UTF-8) or null
+     */
+    public static String getInput(ExecutionContext executionContext) {
+        return getInput(executionContext, InputSpooler.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param executionContext an execution context
+     * @param maximumLength the largest decoded input (in bytes) read from a stream, larger ones must be streamed
+     * @return String the decoded input of the execution context (UTF-8) or null
+     * @throws IllegalStateException in case the decoded input exceeds the maximum length
+     */
+    public static String getInput(ExecutionContext executionContext, long maximumLength) {
+        final String textualInput = executionContext.getInput();
+
+        // Encoded or streamed only input (spooled for instance)
+        if (textualInput != null && !isEncoded(executionContext.getInputContentEncoding())) {
+            return textualInput;
+        }
+
+        final InputStream inputStream = getInputStream(executionContext);
+
+        if (inputStream == null) {
+            return null;
+        }
+
+        final StringBuilder input = new StringBuilder();
+        final char[] buffer = new char[8192];
+
+        // A few compressed bytes may inflate to gigabytes
+        try (Reader reader = new InputStreamReader(new BoundedInputStream(inputStream, maximumLength), StandardCharsets.UTF_8)) {
+            int read;
+
+            while ((read = reader.read(buffer)) != -1) {
+                input.append(buffer, 0, read);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return input.toString();
+    }
+
+    private static final class BoundedInputStream extends FilterInputStream {
+        private final long maximumLength;
+
+        private long length = 0;
+
+        private BoundedInputStream(InputStream inputStream, long maximumLength) {
+            super(inputStream);
+
+            this.maximumLength = maximumLength;
+        }
+
+        private int count(int read) {
+            if (read > 0) {
+                length += read;
+
+                if (length > maximumLength) {
+                    throw new IllegalStateException("decoded input exceeds " + maximumLength + " bytes");
+                }
+            }
+
+            return read;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+
+            if (read != -1) {
+                count(1);
+            }
+
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return count(super.read(b, off, len));
+        }
+    }
+}
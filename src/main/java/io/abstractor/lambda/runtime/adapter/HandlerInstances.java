@@ -0,0 +1,131 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out the instances a (non static) handler method is invoked on.
+ * Every acquired instance is released once the method returned.
+ */
+public abstract class HandlerInstances {
+    /**
+     * Creates the handler instances of a single handler method.
+     */
+    @FunctionalInterface
+    public interface Strategy {
+        /**
+         * @param instanceFactory creates a new handler instance
+         * @return HandlerInstances the handler instances of a method
+         * @throws Exception in case an eagerly created instance failed to instantiate
+         */
+        HandlerInstances create(Callable<Object> instanceFactory) throws Exception;
+    }
+
+    public abstract Object acquire() throws Exception;
+
+    public void release(Object instance) {}
+
+    /**
+     * A single instance created eagerly and shared by every thread, the handler must be thread safe.
+     *
+     * @return Strategy the singleton strategy
+     */
+    public static Strategy singleton() {
+        return instanceFactory -> {
+            // Final field, the instance is safely published to every thread.
+            final Object instance = instanceFactory.call();
+
+            return new HandlerInstances() {
+                @Override
+                public Object acquire() {
+                    return instance;
+                }
+            };
+        };
+    }
+
+    /**
+     * An instance per thread created on first use, the handler does not need to be thread safe.
+     *
+     * @return Strategy the per thread strategy
+     */
+    public static Strategy perThread() {
+        return instanceFactory -> new HandlerInstances() {
+            private final ThreadLocal<Object> instances = new ThreadLocal<>();
+
+            @Override
+            public Object acquire() throws Exception {
+                Object instance = instances.get();
+
+                if (instance == null) {
+                    instance = instanceFactory.call();
+
+                    instances.set(instance);
+                }
+
+                return instance;
+            }
+        };
+    }
+
+    /**
+     * A bounded pool of instances created on demand, each instance is used by a single thread at a time.
+     * When every instance is checked out, acquiring waits for one to be returned.
+     *
+     * @param size the maximum number of instances
+     * @param timeout how long to wait for an instance to be returned before giving up
+     * @return Strategy the pooled strategy
+     */
+    public static Strategy pooled(int size, Duration timeout) {
+        if (size < 1) {
+            throw new IllegalArgumentException("pool size must be positive");
+        }
+
+        final long timeoutNanos = Objects.requireNonNull(timeout).toNanos();
+
+        return instanceFactory -> new HandlerInstances() {
+            private final ArrayBlockingQueue<Object> available = new ArrayBlockingQueue<>(size);
+            private final AtomicInteger created = new AtomicInteger();
+
+            @Override
+            public Object acquire() throws Exception {
+                Object instance = available.poll();
+
+                if (instance != null) {
+                    return instance;
+                }
+
+                if (created.incrementAndGet() <= size) {
+                    try {
+                        return instanceFactory.call();
+                    }
+                    catch (Exception e) {
+                        created.decrementAndGet();
+
+                        throw e;
+                    }
+                }
+
+                created.decrementAndGet();
+
+                instance = available.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+
+                if (instance == null) {
+                    throw new TimeoutException("no handler instance was returned to the pool within " + timeout);
+                }
+
+                return instance;
+            }
+
+            @Override
+            public void release(Object instance) {
+                available.offer(instance);
+            }
+        };
+    }
+}
@@ -0,0 +1,294 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Spools oversized inputs to temporary files as they are ingested, so they never reach the heap.
+ *
+ * The execution context supplier hands the input body to {@link #spool(InputStream, long)} (see
+ * {@link RuntimeApiClient}), the decision is made before any file is written: bodies of a known length below the
+ * threshold are read into memory, larger ones are streamed straight to a file. Bodies of an unknown length are
+ * buffered up to the threshold, only the overflow moves them to a file.
+ *
+ * A spooled execution context has no textual input, handlers read it as a stream. Once registered,
+ * {@link ByteBuffer} parameters of spooled inputs are read-only memory mapped buffers. The spooled file is deleted
+ * once the execution context is recycled.
+ */
+public class InputSpooler {
+    /**
+     * The largest synchronous Lambda payload, 6 MiB.
+     */
+    public static final long DEFAULT_THRESHOLD = 6 * 1024 * 1024;
+
+    private static final Logger logger = LogManager.getLogger(InputSpooler.class);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final long threshold;
+    private final Path directory;
+
+    /**
+     * @param threshold the size (in bytes) from which inputs are spooled
+     * @param directory the directory temporary files are created in
+     */
+    public InputSpooler(long threshold, Path directory) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+
+        this.threshold = threshold;
+        this.directory = Objects.requireNonNull(directory);
+    }
+
+    public InputSpooler(long threshold) {
+        this(threshold, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Register the {@link ByteBuffer} serializer of this spooler, and a {@link String} serializer refusing to
+     * materialize inputs (decoded ones included) larger than the threshold.
+     *
+     * @param parameterSerializer the parameter serializer
+     * @param <T> type / sub-type of execution context
+     */
+    public <T extends ExecutionContext> void register(LambdaParameterSerializer<T> parameterSerializer) {
+        parameterSerializer.addSerializer(ByteBuffer.class, this::getByteBuffer);
+        parameterSerializer.addSerializer(String.class, executionContext -> ContentEncoding.getInput(executionContext, threshold));
+    }
+
+    /**
+     * Read an input body, spooling it to a file when it reaches the threshold. The input stream is consumed but
+     * left open.
+     *
+     * @param inputStream the input body
+     * @param length the length of the body in bytes, -1 when unknown
+     * @return SpooledInput the input, in memory or in a file
+     * @throws IOException in case reading the body or writing the file failed
+     */
+    public SpooledInput spool(InputStream inputStream, long length) throws IOException {
+        if (length >= threshold) {
+            return spool(inputStream, new byte[0], 0);
+        }
+
+        // Buffered until the threshold is reached, an announced length is trusted for sizing only
+        byte[] buffer = new byte[(int)(length >= 0 ? length : Math.min(threshold, BUFFER_SIZE))];
+        int size = 0;
+
+        while (true) {
+            if (size == buffer.length) {
+                if (size >= threshold) {
+                    return spool(inputStream, buffer, size);
+                }
+
+                final int next = inputStream.read();
+
+                if (next == -1) {
+                    break;
+                }
+
+                buffer = Arrays.copyOf(buffer, (int)Math.min(threshold, Math.max(BUFFER_SIZE, 2L * size)));
+                buffer[size++] = (byte)next;
+
+                continue;
+            }
+
+            final int read = inputStream.read(buffer, size, buffer.length - size);
+
+            if (read == -1) {
+                break;
+            }
+
+            size += read;
+        }
+
+        return new SpooledInput(size == buffer.length ? buffer : Arrays.copyOf(buffer, size));
+    }
+
+    private SpooledInput spool(InputStream inputStream, byte[] head, int headLength) throws IOException {
+        final Path file = Files.createTempFile(directory, "lambda-input-", ".spool");
+
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+
+            outputStream.write(head, 0, headLength);
+
+            int read;
+
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        catch (IOException e) {
+            Files.deleteIfExists(file);
+
+            throw e;
+        }
+
+        return new SpooledInput(file);
+    }
+
+    public ByteBuffer getByteBuffer(ExecutionContext executionContext) {
+        final boolean encoded = ContentEncoding.isEncoded(executionContext.getInputContentEncoding());
+        final SpooledInput spooledInput = executionContext instanceof RuntimeApiExecutionContext ? ((RuntimeApiExecutionContext)executionContext).getSpooledInput() : null;
+
+        try {
+            if (spooledInput != null && !encoded) {
+                return spooledInput.getByteBuffer();
+            }
+
+            final String input = executionContext.getInput();
+
+            if (input != null && !encoded) {
+                return ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+            }
+
+            final InputStream inputStream = ContentEncoding.getInputStream(executionContext);
+
+            if (inputStream == null) {
+                return null;
+            }
+
+            // Binary or decoded input, a file is only written once the stream reached the threshold
+            try (InputStream in = inputStream; SpooledInput decoded = spool(in, -1)) {
+                return decoded.getByteBuffer();
+            }
+        }
+        catch (IOException e) {
+            logger.error("An error occurred while spooling input of {}", executionContext.getId(), e);
+
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Close the spooled streams among the arguments of a method that returned.
+     *
+     * @param args method arguments
+     */
+    static void release(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof SpooledInputStream) {
+                try {
+                    ((SpooledInputStream)arg).close();
+                }
+                catch (IOException e) {
+                    logger.warn("An error occurred while releasing a spooled input", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * An input body, held in memory or spooled to a file which is deleted once closed.
+     */
+    public static final class SpooledInput implements Closeable {
+        private final byte[] bytes;
+        private final Path file;
+
+        private SpooledInput(byte[] bytes) {
+            this.bytes = bytes;
+            this.file = null;
+        }
+
+        private SpooledInput(Path file) {
+            this.bytes = null;
+            this.file = file;
+        }
+
+        /**
+         * @return boolean whether the input was spooled to a file
+         */
+        public boolean isSpooled() {
+            return file != null;
+        }
+
+        /**
+         * @return byte[] the input held in memory, null when spooled
+         */
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return InputStream a new stream over the input, each call starts over
+         */
+        public InputStream getInputStream() {
+            if (file == null) {
+                return new ByteArrayInputStream(bytes);
+            }
+
+            try {
+                return new SpooledInputStream(Files.newInputStream(file));
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        /**
+         * @return ByteBuffer a read-only view of the input, memory mapped when spooled
+         * @throws IOException in case mapping failed
+         */
+        public ByteBuffer getByteBuffer() throws IOException {
+            if (file == null) {
+                return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+            }
+
+            final long size = Files.size(file);
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("input of " + size + " bytes can not be mapped");
+            }
+
+            // A mapping outlives its file, the space is reclaimed once the buffer is garbage collected.
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        }
+
+        /**
+         * Delete the spooled file, streams opened already keep reading it until closed.
+         */
+        @Override
+        public void close() {
+            if (file == null) {
+                return;
+            }
+
+            try {
+                Files.deleteIfExists(file);
+            }
+            catch (IOException e) {
+                logger.debug("Could not delete spooled file {}, deleting on exit", file, e);
+
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    private static final class SpooledInputStream extends FilterInputStream {
+        private SpooledInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+    }
+}
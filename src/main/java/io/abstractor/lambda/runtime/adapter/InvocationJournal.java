@@ -0,0 +1,413 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only journal of execution contexts, results and exceptions, backed by a memory mapped file.
+ *
+ * Appending copies a record into the mapped segment of the file (no system call) and maps the next segment once
+ * the current one is full. Each record is framed as:
+ *
+ * <pre>
+ * int length (of what follows) | byte type | long timestamp (epoch millis) | fields
+ * </pre>
+ *
+ * where each field is an int length (-1 for null) followed by that many bytes. The length of a record is
+ * written last, a record torn by a crash reads as the end of the journal. Opening an existing journal appends
+ * after its last record.
+ *
+ * Contexts are journaled as (id, mime type, input, content encoding, route key, deadline). A textual input is
+ * journaled as UTF-8 with a null content encoding, any other input as its raw (still encoded) bytes along with its
+ * content encoding, "identity" when the stream is not encoded. The deadline (epoch millis) is journaled in decimal,
+ * null when the context has none. Results are journaled as (id) or, when their value is requested,
+ * as (id, value).
+ */
+public class InvocationJournal implements Closeable {
+    public static final byte CONTEXT = 1;
+    public static final byte RESULT = 2;
+    public static final byte EXCEPTION = 3;
+
+    private static final int DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final int segmentSize;
+
+    private MappedByteBuffer segment;
+    private long segmentPosition;
+    private boolean closed = false;
+
+    /**
+     * @param file the journal file, created when missing
+     * @param segmentSize the size (in bytes) of the file regions mapped at once
+     * @throws IOException in case the file could not be opened or mapped
+     */
+    public InvocationJournal(Path file, int segmentSize) throws IOException {
+        if (segmentSize < 64) {
+            throw new IllegalArgumentException("segment size must be at least 64 bytes");
+        }
+
+        this.segmentSize = segmentSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            this.segmentPosition = findEnd(channel);
+            this.segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentPosition, segmentSize);
+        }
+        catch (IOException e) {
+            channel.close();
+
+            throw e;
+        }
+    }
+
+    public InvocationJournal(Path file) throws IOException {
+        this(file, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Journal an execution context. An input without a textual form is read from its own stream (see
+     * {@link ExecutionContext#getInputStream()}), the handler reads a stream of its own. Inputs spooled to a file
+     * are mapped, not copied.
+     *
+     * @param executionContext the execution context
+     */
+    public void appendContext(ExecutionContext executionContext) {
+        final String input = executionContext.getInput();
+        final String contentEncoding = executionContext.getInputContentEncoding();
+
+        final long deadline = executionContext.getDeadline();
+
+        final ByteBuffer id = encode(executionContext.getId());
+        final ByteBuffer mimeType = encode(executionContext.getInputMimeType());
+        final ByteBuffer routeKey = encode(executionContext.getRouteKey());
+        final ByteBuffer deadlineField = deadline > 0 ? encode(Long.toString(deadline)) : null;
+
+        if (input != null && !ContentEncoding.isEncoded(contentEncoding)) {
+            append(CONTEXT, id, mimeType, encode(input), null, routeKey, deadlineField);
+
+            return;
+        }
+
+        final ByteBuffer encoding = encode(contentEncoding == null ? ContentEncoding.IDENTITY : contentEncoding);
+
+        append(CONTEXT, id, mimeType, getRawInput(executionContext), encoding, routeKey, deadlineField);
+    }
+
+    /**
+     * @param executionResult the execution result
+     * @param value whether to journal the execution value as well, non textual / binary values are serialized
+     *              (with Jackson) on the relaying thread
+     */
+    public void appendResult(ExecutionResult executionResult, boolean value) {
+        if (value) {
+            append(RESULT, encode(executionResult.getExecutionId()), encodeValue(executionResult.getExecutionValue()));
+        }
+        else {
+            append(RESULT, encode(executionResult.getExecutionId()));
+        }
+    }
+
+    public void appendException(String id, Throwable e) {
+        final Throwable cause = e instanceof LambdaExecutionException ? e.getCause() : e;
+
+        append(EXCEPTION, encode(id), encode(cause.getClass().getName()), encode(cause.getMessage()));
+    }
+
+    private synchronized void append(byte type, ByteBuffer... fields) {
+        if (closed) {
+            throw new IllegalStateException("journal is closed");
+        }
+
+        long recordLength = 1 + 8;
+
+        for (ByteBuffer field : fields) {
+            recordLength += 4 + (field == null ? 0 : field.remaining());
+        }
+
+        if (4 + recordLength + 4 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("record of " + recordLength + " bytes is too large to be journaled");
+        }
+
+        final int length = (int)recordLength;
+
+        try {
+            // Keeps room for the zero length marking the end of the journal.
+            if (segment.remaining() < 4 + length + 4) {
+                segmentPosition += segment.position();
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentPosition, Math.max(segmentSize, 4 + length + 4));
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final int start = segment.position();
+
+        segment.position(start + 4);
+        segment.put(type);
+        segment.putLong(System.currentTimeMillis());
+
+        for (ByteBuffer field : fields) {
+            if (field == null) {
+                segment.putInt(-1);
+            }
+            else {
+                segment.putInt(field.remaining());
+                segment.put(field.duplicate());
+            }
+        }
+
+        segment.putInt(start, length);
+    }
+
+    /**
+     * @return long the size (in bytes) of the records appended so far
+     */
+    public synchronized long size() {
+        return segmentPosition + segment.position();
+    }
+
+    /**
+     * Flush the mapped segment and trim the file to the records appended.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+            segment.force();
+            channel.truncate(segmentPosition + segment.position());
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    private static ByteBuffer encode(String value) {
+        return value == null ? null : ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ByteBuffer encodeValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof byte[]) {
+            return ByteBuffer.wrap((byte[])value);
+        }
+
+        if (value instanceof String) {
+            return encode((String)value);
+        }
+
+        try {
+            return ByteBuffer.wrap(JacksonPayloadCodec.json().getObjectMapper().writeValueAsBytes(value));
+        }
+        catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer getRawInput(ExecutionContext executionContext) {
+        try {
+            if (executionContext instanceof RuntimeApiExecutionContext) {
+                final InputSpooler.SpooledInput spooledInput = ((RuntimeApiExecutionContext)executionContext).getSpooledInput();
+
+                if (spooledInput != null) {
+                    return spooledInput.getByteBuffer();
+                }
+            }
+
+            final InputStream inputStream = executionContext.getInputStream();
+
+            if (inputStream == null) {
+                return null;
+            }
+
+            try (InputStream in = inputStream) {
+                final ByteArrayOutputStream content = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[8192];
+
+                int read;
+
+                while ((read = in.read(buffer)) != -1) {
+                    content.write(buffer, 0, read);
+                }
+
+                return ByteBuffer.wrap(content.toByteArray());
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long findEnd(FileChannel channel) throws IOException {
+        final ByteBuffer length = ByteBuffer.allocate(4);
+        final long size = channel.size();
+
+        long position = 0;
+
+        while (position + 4 <= size) {
+            length.clear();
+
+            channel.read(length, position);
+
+            final int recordLength = length.getInt(0);
+
+            if (recordLength <= 0 || position + 4 + recordLength > size) {
+                break;
+            }
+
+            position += 4 + recordLength;
+        }
+
+        return position;
+    }
+
+    /**
+     * @param file a journal file
+     * @return Reader a reader of the records of the journal, in order
+     * @throws IOException in case the file could not be opened
+     */
+    public static Reader read(Path file) throws IOException {
+        return new Reader(new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024)));
+    }
+
+    public static final class Reader implements Closeable {
+        private final DataInputStream inputStream;
+
+        private Reader(DataInputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        /**
+         * @return Record the next record or null once the end of the journal was reached
+         * @throws IOException in case the journal could not be read
+         */
+        public Record next() throws IOException {
+            try {
+                final int length = inputStream.readInt();
+
+                if (length <= 0) {
+                    return null;
+                }
+
+                final byte[] body = new byte[length];
+
+                inputStream.readFully(body);
+
+                return new Record(ByteBuffer.wrap(body));
+            }
+            catch (EOFException e) {
+                // A record torn by a crash, or the end of a journal that was not closed
+                return null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+    public static final class Record {
+        private final byte type;
+        private final long timestamp;
+        private final byte[][] fields;
+
+        private Record(ByteBuffer body) {
+            this.type = body.get();
+            this.timestamp = body.getLong();
+
+            final List<byte[]> fields = new ArrayList<>(4);
+
+            while (body.hasRemaining()) {
+                final int length = body.getInt();
+
+                byte[] field = null;
+
+                if (length >= 0) {
+                    field = new byte[length];
+
+                    body.get(field);
+                }
+
+                fields.add(field);
+            }
+
+            this.fields = fields.toArray(new byte[0][]);
+        }
+
+        /**
+         * @return byte {@link #CONTEXT}, {@link #RESULT} or {@link #EXCEPTION}
+         */
+        public byte getType() {
+            return type;
+        }
+
+        /**
+         * @return long when the record was appended (epoch millis)
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getId() {
+            return getField(0);
+        }
+
+        /**
+         * @return int the number of fields of the record
+         */
+        public int getFieldCount() {
+            return fields.length;
+        }
+
+        /**
+         * @param index the index of the field, fields are (id, mime type, input, content encoding, route key,
+         *              deadline) for contexts, (id) or (id, value) for results and (id, error type, error message)
+         *              for exceptions
+         * @return String the field decoded as UTF-8, null when the field is null or absent
+         */
+        public String getField(int index) {
+            final byte[] field = getBytes(index);
+
+            return field == null ? null : new String(field, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @param index the index of the field
+         * @return byte[] the field, null when the field is null or absent
+         */
+        public byte[] getBytes(int index) {
+            return index < fields.length ? fields[index] : null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.PayloadCodec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.util.Objects;
+
+/**
+ * A payload codec backed by a Jackson object mapper, JSON, Smile and CBOR codecs are built in.
+ */
+public class JacksonPayloadCodec implements PayloadCodec {
+    public static final String JSON_MEDIA_TYPE = "application/json";
+    public static final String SMILE_MEDIA_TYPE = "application/x-jackson-smile";
+    public static final String CBOR_MEDIA_TYPE = "application/cbor";
+
+    private final ObjectMapper objectMapper;
+    private final boolean binary;
+
+    public JacksonPayloadCodec(ObjectMapper objectMapper, boolean binary) {
+        this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.binary = binary;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    @Override
+    public <R> R decode(Class<R> cls, InputStream inputStream) throws IOException {
+        return objectMapper.readValue(inputStream, cls);
+    }
+
+    @Override
+    public <R> R decode(Class<R> cls, String input) throws IOException {
+        return objectMapper.readValue(input, cls);
+    }
+
+    @Override
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public static JacksonPayloadCodec json() {
+        return JsonHolder.INSTANCE;
+    }
+
+    public static JacksonPayloadCodec smile() {
+        return SmileHolder.INSTANCE;
+    }
+
+    public static JacksonPayloadCodec cbor() {
+        return CborHolder.INSTANCE;
+    }
+
+    // Each mapper is created on first use of its format.
+    private static class JsonHolder {
+        private static final JacksonPayloadCodec INSTANCE = new JacksonPayloadCodec(new ObjectMapper(), false);
+    }
+
+    private static class SmileHolder {
+        private static final JacksonPayloadCodec INSTANCE = new JacksonPayloadCodec(new ObjectMapper(new SmileFactory()), true);
+    }
+
+    private static class CborHolder {
+        private static final JacksonPayloadCodec INSTANCE = new JacksonPayloadCodec(new ObjectMapper(new CBORFactory()), true);
+    }
+}
@@ -0,0 +1,124 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * An execution context supplier replaying the execution contexts recorded in an {@link InvocationJournal}.
+ *
+ * Contexts are replayed either at the pace they were recorded or as fast as they are consumed, once the journal
+ * is exhausted the supplier returns null. Replaying into {@code LambdaRuntime#exec()} until
+ * {@link #hasNext()} is false measures the throughput of a handler under a recorded load.
+ *
+ * Textual inputs are replayed as text, any other input is replayed as a stream of its recorded bytes along with
+ * its content encoding. Route keys are replayed as recorded, deadlines leave as much time as was left when the
+ * context was recorded.
+ */
+public class JournalReplaySupplier implements Supplier<RecyclableExecutionContext>, Closeable {
+    public enum Pacing {
+        /**
+         * Supply each context once as much time elapsed since the first one as when it was recorded.
+         */
+        RECORDED,
+
+        /**
+         * Supply contexts as fast as they are consumed.
+         */
+        MAXIMUM
+    }
+
+    private final InvocationJournal.Reader reader;
+    private final Pacing pacing;
+    private final RecyclableExecutionContext.Pool pool = new RecyclableExecutionContext.Pool(16);
+
+    private InvocationJournal.Record next;
+    private long firstTimestamp = -1;
+    private long startNanos;
+    private long replayedCount = 0;
+
+    public JournalReplaySupplier(Path journal, Pacing pacing) throws IOException {
+        this.pacing = Objects.requireNonNull(pacing);
+        this.reader = InvocationJournal.read(journal);
+    }
+
+    public synchronized boolean hasNext() {
+        try {
+            while (next == null) {
+                final InvocationJournal.Record record = reader.next();
+
+                if (record == null) {
+                    return false;
+                }
+
+                if (record.getType() == InvocationJournal.CONTEXT) {
+                    next = record;
+                }
+            }
+
+            return true;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public RecyclableExecutionContext get() {
+        final InvocationJournal.Record record;
+        final long dueNanos;
+
+        synchronized (this) {
+            if (!hasNext()) {
+                return null;
+            }
+
+            record = next;
+            next = null;
+
+            if (firstTimestamp < 0) {
+                firstTimestamp = record.getTimestamp();
+                startNanos = System.nanoTime();
+            }
+
+            dueNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(record.getTimestamp() - firstTimestamp);
+            replayedCount += 1;
+        }
+
+        // Other suppliers keep reading the journal meanwhile
+        if (pacing == Pacing.RECORDED) {
+            long waitNanos;
+
+            while ((waitNanos = dueNanos - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(waitNanos);
+            }
+        }
+
+        final String contentEncoding = record.getField(3);
+        final String deadline = record.getField(5);
+
+        final RecyclableExecutionContext executionContext = contentEncoding == null
+            ? pool.acquire().set(record.getId(), record.getField(2), record.getField(1))
+            : pool.acquire().set(record.getId(), record.getBytes(2), record.getField(1), contentEncoding);
+
+        // The time that was left when the context was recorded is left again
+        return executionContext
+            .setRouteKey(record.getField(4))
+            .setDeadline(deadline == null ? 0 : System.currentTimeMillis() + Long.parseLong(deadline) - record.getTimestamp());
+    }
+
+    public synchronized long getReplayedCount() {
+        return replayedCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
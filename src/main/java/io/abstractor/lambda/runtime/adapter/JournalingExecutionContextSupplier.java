@@ -0,0 +1,43 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * An execution context supplier decorator appending every supplied execution context to an {@link InvocationJournal}.
+ * A journaling failure is logged, it never fails the execution cycle.
+ *
+ * @param <T> type / sub-type of execution context
+ */
+public class JournalingExecutionContextSupplier<T extends ExecutionContext> implements Supplier<T> {
+    private static final Logger logger = LogManager.getLogger(JournalingExecutionContextSupplier.class);
+
+    private final Supplier<T> executionContextSupplier;
+    private final InvocationJournal journal;
+
+    public JournalingExecutionContextSupplier(Supplier<T> executionContextSupplier, InvocationJournal journal) {
+        this.executionContextSupplier = Objects.requireNonNull(executionContextSupplier);
+        this.journal = Objects.requireNonNull(journal);
+    }
+
+    @Override
+    public T get() {
+        final T executionContext = executionContextSupplier.get();
+
+        if (executionContext != null) {
+            try {
+                journal.appendContext(executionContext);
+            }
+            catch (RuntimeException e) {
+                logger.warn("An error occurred while journaling execution context {}", executionContext.getId(), e);
+            }
+        }
+
+        return executionContext;
+    }
+}
@@ -0,0 +1,82 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionRelay;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.ResultEncoder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Objects;
+
+/**
+ * A relay decorator appending execution results and exceptions to an {@link InvocationJournal}.
+ * A journaling failure is logged, it never fails the execution cycle.
+ *
+ * Execution values are only journaled when requested, serializing them delays every relay.
+ *
+ * @param <T> type / sub-type of execution context
+ */
+public class JournalingExecutionRelay<T extends ExecutionContext> implements ExecutionRelay<T> {
+    private static final Logger logger = LogManager.getLogger(JournalingExecutionRelay.class);
+
+    private final ExecutionRelay<T> executionRelay;
+    private final InvocationJournal journal;
+    private final boolean journalValues;
+
+    /**
+     * @param executionRelay the decorated relay
+     * @param journal the journal
+     * @param journalValues whether to journal execution values along with execution ids
+     */
+    public JournalingExecutionRelay(ExecutionRelay<T> executionRelay, InvocationJournal journal, boolean journalValues) {
+        this.executionRelay = Objects.requireNonNull(executionRelay);
+        this.journal = Objects.requireNonNull(journal);
+        this.journalValues = journalValues;
+    }
+
+    public JournalingExecutionRelay(ExecutionRelay<T> executionRelay, InvocationJournal journal) {
+        this(executionRelay, journal, false);
+    }
+
+    @Override
+    public void relayExecutionResult(ExecutionResult executionResult) {
+        journal(executionResult);
+
+        executionRelay.relayExecutionResult(executionResult);
+    }
+
+    @Override
+    public void relayExecutionResult(ExecutionResult executionResult, ResultEncoder resultEncoder) {
+        journal(executionResult);
+
+        executionRelay.relayExecutionResult(executionResult, resultEncoder);
+    }
+
+    private void journal(ExecutionResult executionResult) {
+        try {
+            journal.appendResult(executionResult, journalValues);
+        }
+        catch (RuntimeException e) {
+            logger.warn("An error occurred while journaling execution result {}", executionResult.getExecutionId(), e);
+        }
+    }
+
+    @Override
+    public void relayExecutionException(Throwable e, T executionContext) {
+        try {
+            journal.appendException(executionContext.getId(), e);
+        }
+        catch (RuntimeException journalException) {
+            logger.warn("An error occurred while journaling execution exception {}", executionContext.getId(), journalException);
+        }
+
+        executionRelay.relayExecutionException(e, executionContext);
+    }
+
+    @Override
+    public void relayInitException(Throwable e) {
+        executionRelay.relayInitException(e);
+    }
+}
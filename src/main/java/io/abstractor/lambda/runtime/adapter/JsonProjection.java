@@ -0,0 +1,25 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a handler parameter to a single value inside a JSON input,
+ * addressed by a JSON Pointer (RFC 6901) such as "/Records/0/s3/bucket/name".
+ *
+ * When a handler declares projected parameters the input is read once with a streaming
+ * parser and only the addressed values are materialized, everything else is skipped.
+ * A pointer that does not match any value resolves to null, so prefer boxed types.
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JsonProjection {
+    /**
+     * @return String a JSON Pointer expression
+     */
+    String value();
+}
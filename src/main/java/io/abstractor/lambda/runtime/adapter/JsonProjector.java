@@ -0,0 +1,239 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves the {@link JsonProjection} parameters of a method in a single streaming pass.
+ *
+ * The pointers of a method are compiled into a tree of path segments, the input is then walked
+ * token by token and any subtree that does not lead to a pointer is skipped without being materialized.
+ * Parsing stops as soon as every projected parameter was resolved.
+ */
+class JsonProjector {
+    private static final Logger logger = LogManager.getLogger(JsonProjector.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int[] NO_PARAMETERS = new int[0];
+
+    private final Node root = new Node();
+    private final JavaType[] parameterTypes;
+    private final boolean[] projected;
+    private final int projectedCount;
+
+    private JsonProjector(Method method) {
+        final Type[] genericParameterTypes = method.getGenericParameterTypes();
+        final Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+
+        int count = 0;
+
+        parameterTypes = new JavaType[genericParameterTypes.length];
+        projected = new boolean[genericParameterTypes.length];
+
+        for (int i = 0; i < genericParameterTypes.length; i += 1) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof JsonProjection) {
+                    final String pointer = ((JsonProjection)annotation).value();
+
+                    root.add(JsonPointer.compile(pointer), i);
+
+                    parameterTypes[i] = objectMapper.getTypeFactory().constructType(genericParameterTypes[i]);
+                    projected[i] = true;
+                    count += 1;
+                }
+            }
+        }
+
+        projectedCount = count;
+    }
+
+    boolean isEmpty() {
+        return projectedCount == 0;
+    }
+
+    boolean isProjected(int parameterIndex) {
+        return projected[parameterIndex];
+    }
+
+    /**
+     * Populate the projected slots of a method arguments array.
+     * Slots of parameters that are not projected are left untouched.
+     *
+     * @param input a JSON document (may be null)
+     * @param arguments the method arguments array
+     */
+    void project(String input, Object[] arguments) {
+        if (input == null || isEmpty()) {
+            return;
+        }
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            project(parser, arguments);
+        }
+        catch (IOException e) {
+            logger.error("An error occurred during projection of {} parameters", projectedCount, e);
+
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Same as {@link #project(String, Object[])}, reading the JSON document from a stream (closed once read).
+     *
+     * @param input a JSON document (may be null)
+     * @param arguments the method arguments array
+     */
+    void project(InputStream input, Object[] arguments) {
+        if (input == null || isEmpty()) {
+            return;
+        }
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            project(parser, arguments);
+        }
+        catch (IOException e) {
+            logger.error("An error occurred during projection of {} parameters", projectedCount, e);
+
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void project(JsonParser parser, Object[] arguments) throws IOException {
+        if (parser.nextToken() != null) {
+            visit(parser, root, arguments, projectedCount);
+        }
+    }
+
+    private int visit(JsonParser parser, Node node, Object[] arguments, int remaining) throws IOException {
+        if (node.parameterIndexes.length > 0) {
+            if (node.parameterIndexes.length == 1 && node.isLeaf()) {
+                final int parameterIndex = node.parameterIndexes[0];
+
+                arguments[parameterIndex] = objectMapper.readValue(parser, parameterTypes[parameterIndex]);
+
+                return remaining - 1;
+            }
+
+            // Overlapping pointers ("/a" and "/a/b"), the subtree is needed anyway.
+            return resolve(objectMapper.readTree(parser), node, arguments, remaining);
+        }
+
+        final JsonToken token = parser.currentToken();
+
+        if (token == JsonToken.START_OBJECT) {
+            while (remaining > 0 && parser.nextToken() == JsonToken.FIELD_NAME) {
+                final Node child = node.fields.get(parser.getCurrentName());
+
+                parser.nextToken();
+
+                if (child == null) {
+                    parser.skipChildren();
+                }
+                else {
+                    remaining = visit(parser, child, arguments, remaining);
+                }
+            }
+        }
+        else if (token == JsonToken.START_ARRAY) {
+            int index = 0;
+
+            while (remaining > 0 && parser.nextToken() != JsonToken.END_ARRAY) {
+                final Node child = index < node.elements.length ? node.elements[index] : null;
+
+                if (child == null) {
+                    parser.skipChildren();
+                }
+                else {
+                    remaining = visit(parser, child, arguments, remaining);
+                }
+
+                index += 1;
+            }
+        }
+
+        return remaining;
+    }
+
+    private int resolve(JsonNode jsonNode, Node node, Object[] arguments, int remaining) {
+        if (jsonNode == null || jsonNode.isMissingNode()) {
+            return remaining;
+        }
+
+        for (int parameterIndex : node.parameterIndexes) {
+            arguments[parameterIndex] = objectMapper.convertValue(jsonNode, parameterTypes[parameterIndex]);
+
+            remaining -= 1;
+        }
+
+        for (Map.Entry<String, Node> field : node.fields.entrySet()) {
+            remaining = resolve(jsonNode.get(field.getKey()), field.getValue(), arguments, remaining);
+        }
+
+        // Numeric segments are registered both as fields & elements, an array never matches a field.
+        if (jsonNode.isArray()) {
+            for (int i = 0; i < node.elements.length; i += 1) {
+                if (node.elements[i] != null) {
+                    remaining = resolve(jsonNode.get(i), node.elements[i], arguments, remaining);
+                }
+            }
+        }
+
+        return remaining;
+    }
+
+    static JsonProjector of(Method method) {
+        return new JsonProjector(method);
+    }
+
+    private static class Node {
+        private final Map<String, Node> fields = new HashMap<>();
+
+        private Node[] elements = new Node[0];
+        private int[] parameterIndexes = NO_PARAMETERS;
+
+        boolean isLeaf() {
+            return fields.isEmpty();
+        }
+
+        void add(JsonPointer pointer, int parameterIndex) {
+            if (pointer.matches()) {
+                parameterIndexes = Arrays.copyOf(parameterIndexes, parameterIndexes.length + 1);
+                parameterIndexes[parameterIndexes.length - 1] = parameterIndex;
+
+                return;
+            }
+
+            final String property = pointer.getMatchingProperty();
+            final Node child = fields.computeIfAbsent(property, key -> new Node());
+            final int index = pointer.getMatchingIndex();
+
+            // A segment such as "0" may address either an object field or an array element.
+            if (index >= 0) {
+                if (index >= elements.length) {
+                    elements = Arrays.copyOf(elements, index + 1);
+                }
+
+                elements[index] = child;
+            }
+
+            child.add(pointer.tail(), parameterIndex);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.UndeclaredThrowableException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thrown by {@link LambdaMethodExecutor} when a method execution failed, the cause is the handler's own failure
+ * ({@link InvocationTargetException} and similar reflection wrappers are unwrapped).
+ *
+ * Capturing the stack trace of this wrapper is optional since the cause already carries the interesting one,
+ * skipping it keeps failures cheap when many executions fail at once.
+ */
+public class LambdaExecutionException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private static final String MESSAGE = "An error occurred during method execution";
+
+    // Payloads of failures without a message only depend on the failure type, those are built once.
+    private static final Map<Class<?>, String> errorPayloads = new ConcurrentHashMap<>();
+
+    static {
+        final Class<?>[] commonTypes = {
+            NullPointerException.class,
+            IllegalArgumentException.class,
+            IllegalStateException.class,
+            UnsupportedOperationException.class,
+            IndexOutOfBoundsException.class,
+            ClassCastException.class,
+            ArithmeticException.class,
+            RuntimeException.class,
+            Exception.class
+        };
+
+        for (Class<?> type : commonTypes) {
+            errorPayloads.put(type, createErrorPayload(type.getName(), null));
+        }
+    }
+
+    public LambdaExecutionException(Throwable cause, boolean captureStackTrace) {
+        super(MESSAGE, unwrap(cause), false, captureStackTrace);
+    }
+
+    public LambdaExecutionException(Throwable cause) {
+        this(cause, true);
+    }
+
+    /**
+     * @return String the class name of the handler failure
+     */
+    public String getErrorType() {
+        return getCause().getClass().getName();
+    }
+
+    /**
+     * @return String the message of the handler failure, may be null
+     */
+    public String getErrorMessage() {
+        return getCause().getMessage();
+    }
+
+    /**
+     * @return String a JSON object with "errorType" and "errorMessage" members describing the handler failure
+     */
+    public String getErrorPayload() {
+        return createErrorPayload(getCause());
+    }
+
+    public static String createErrorPayload(Throwable e) {
+        final String message = e.getMessage();
+
+        if (message == null) {
+            return errorPayloads.computeIfAbsent(e.getClass(), type -> createErrorPayload(type.getName(), null));
+        }
+
+        return createErrorPayload(e.getClass().getName(), message);
+    }
+
+    private static String createErrorPayload(String errorType, String errorMessage) {
+        final JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        final StringBuilder payload = new StringBuilder(64 + errorType.length());
+
+        payload.append("{\"errorType\":\"").append(encoder.quoteAsString(errorType)).append("\",\"errorMessage\":");
+
+        if (errorMessage == null) {
+            payload.append("null");
+        }
+        else {
+            payload.append('"').append(encoder.quoteAsString(errorMessage)).append('"');
+        }
+
+        return payload.append('}').toString();
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = e;
+
+        while ((cause instanceof InvocationTargetException || cause instanceof UndeclaredThrowableException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        return cause;
+    }
+}
@@ -5,10 +5,22 @@ import io.abstractor.lambda.runtime.port.ExecutionResult;
 public class LambdaExecutionResult implements ExecutionResult {
     private final String id;
     private final Object methodExecutionValue;
+    private final String contentEncoding;
+    private final String contentType;
 
-    public LambdaExecutionResult(String id, Object methodExecutionValue) {
+    public LambdaExecutionResult(String id, Object methodExecutionValue, String contentEncoding, String contentType) {
         this.id = Utils.StringUtils.requireNonBlank(id);
         this.methodExecutionValue = methodExecutionValue;
+        this.contentEncoding = contentEncoding;
+        this.contentType = contentType;
+    }
+
+    public LambdaExecutionResult(String id, Object methodExecutionValue, String contentEncoding) {
+        this(id, methodExecutionValue, contentEncoding, null);
+    }
+
+    public LambdaExecutionResult(String id, Object methodExecutionValue) {
+        this(id, methodExecutionValue, null);
     }
 
     @Override
@@ -20,4 +32,14 @@ public class LambdaExecutionResult implements ExecutionResult {
     public Object getExecutionValue() {
         return methodExecutionValue;
     }
+
+    @Override
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
 }
@@ -1,5 +1,6 @@
 package io.abstractor.lambda.runtime.adapter;
 
+import io.abstractor.lambda.runtime.jfr.InvocationEvents;
 import io.abstractor.lambda.runtime.port.ExecutionContext;
 import io.abstractor.lambda.runtime.port.ExecutionResult;
 import io.abstractor.lambda.runtime.port.MethodExecutor;
@@ -8,15 +9,34 @@ import io.abstractor.lambda.runtime.port.ParameterSerializer;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LambdaMethodExecutor<T extends ExecutionContext> implements MethodExecutor<T> {
     private final ParameterSerializer<T> parameterSerializer;
+    private final boolean captureStackTrace;
+    private final HandlerInstances.Strategy handlerInstancesStrategy;
+    private final Map<Method, MethodPlan> methodPlans = new ConcurrentHashMap<>();
 
-    private Object methodInvokeContext = null;
+    /**
+     * @param parameterSerializer the serializer resolving method arguments
+     * @param captureStackTrace whether {@link LambdaExecutionException} captures its own stack trace,
+     *                          the stack trace of the handler failure (the cause) is unaffected.
+     * @param handlerInstancesStrategy how instances of non static handlers are shared between threads
+     */
+    public LambdaMethodExecutor(ParameterSerializer<T> parameterSerializer, boolean captureStackTrace, HandlerInstances.Strategy handlerInstancesStrategy) {
+        this.parameterSerializer = Objects.requireNonNull(parameterSerializer);
+        this.captureStackTrace = captureStackTrace;
+        this.handlerInstancesStrategy = Objects.requireNonNull(handlerInstancesStrategy);
+    }
+
+    public LambdaMethodExecutor(ParameterSerializer<T> parameterSerializer, boolean captureStackTrace) {
+        this(parameterSerializer, captureStackTrace, HandlerInstances.singleton());
+    }
 
     public LambdaMethodExecutor(ParameterSerializer<T> parameterSerializer) {
-        this.parameterSerializer = Objects.requireNonNull(parameterSerializer);
+        this(parameterSerializer, true);
     }
 
     public LambdaMethodExecutor() {
@@ -24,19 +44,75 @@ public class LambdaMethodExecutor<T extends ExecutionContext> implements MethodE
     }
 
     protected Object[] resolveMethodArguments(T executionContext, Method method) {
-        final int parameterCount = method.getParameterCount();
-        final Object[] parameters = new Object[parameterCount];
-        final Class<?>[] parameterTypes = method.getParameterTypes();
+        MethodPlan methodPlan = methodPlans.get(method);
+
+        // Only happens when resolving arguments of a method that was never executed nor prepared
+        if (methodPlan == null) {
+            methodPlan = new MethodPlan(method, null);
+        }
+
+        final Class<?>[] parameterTypes = methodPlan.parameterTypes;
+        final int parameterCount = parameterTypes.length;
+        final Object[] parameters = createMethodArguments(parameterCount);
+        final JsonProjector jsonProjector = methodPlan.jsonProjector;
+
+        if (!jsonProjector.isEmpty() && executionContext.isJson()) {
+            final Object event = InvocationEvents.begin(InvocationEvents.Phase.DESERIALIZATION);
+
+            try {
+                if (ContentEncoding.isEncoded(executionContext.getInputContentEncoding()) || executionContext.getInput() == null) {
+                    jsonProjector.project(ContentEncoding.getInputStream(executionContext), parameters);
+                }
+                else {
+                    jsonProjector.project(executionContext.getInput(), parameters);
+                }
+            }
+            finally {
+                InvocationEvents.end(event, executionContext, "@JsonProjection");
+            }
+        }
 
         for (int i = 0; i < parameterCount; i += 1) {
             final Class<?> parameterClass = parameterTypes[i];
 
-            parameters[i] = getParameterSerializer().serialize(parameterClass, executionContext);
+            if (jsonProjector.isEmpty() || !jsonProjector.isProjected(i)) {
+                final Object event = InvocationEvents.begin(InvocationEvents.Phase.DESERIALIZATION);
+
+                try {
+                    parameters[i] = getParameterSerializer().serialize(parameterClass, executionContext);
+                }
+                finally {
+                    InvocationEvents.end(event, executionContext, parameterClass.getName());
+                }
+            }
         }
 
         return parameters;
     }
 
+    /**
+     * @param parameterCount the number of parameters of the method about to be invoked
+     * @return Object[] an empty arguments array of the given length
+     */
+    protected Object[] createMethodArguments(int parameterCount) {
+        return new Object[parameterCount];
+    }
+
+    /**
+     * Called once the method returned, the arguments array is no longer referenced by the executor.
+     *
+     * @param args the arguments array created by {@link #createMethodArguments(int)}
+     */
+    protected void releaseMethodArguments(Object[] args) {}
+
+    protected ExecutionResult createExecutionResult(T executionContext, Object value) {
+        return new LambdaExecutionResult(executionContext.getId(), value);
+    }
+
+    protected RuntimeException createExecutionException(Throwable e) {
+        return new LambdaExecutionException(e, captureStackTrace);
+    }
+
     protected Object invoke(Method method, Object methodInvokeContext, Object[] args) throws Exception {
         // We assume that the method about to be invoke is "public".
         // This helps keeps things simple and avoid reflection voodoo
@@ -71,22 +147,124 @@ public class LambdaMethodExecutor<T extends ExecutionContext> implements MethodE
         return context;
     }
 
+    /**
+     * Plans are computed atomically, concurrent first executions of a method create a single set of handler instances.
+     */
+    private MethodPlan getMethodPlan(Method method) throws Exception {
+        final MethodPlan methodPlan = methodPlans.get(method);
+
+        if (methodPlan != null) {
+            return methodPlan;
+        }
+
+        try {
+            return methodPlans.computeIfAbsent(method, this::createMethodPlan);
+        }
+        catch (MethodPlanException e) {
+            throw (Exception)e.getCause();
+        }
+    }
+
+    private MethodPlan createMethodPlan(Method method) {
+        final HandlerInstances handlerInstances;
+
+        if (Modifier.isStatic(method.getModifiers())) {
+            handlerInstances = null;
+        }
+        else {
+            try {
+                handlerInstances = handlerInstancesStrategy.create(() -> createMethodInvokeContext(method));
+            }
+            catch (Exception e) {
+                throw new MethodPlanException(e);
+            }
+        }
+
+        return new MethodPlan(method, handlerInstances);
+    }
+
+    /**
+     * Resolve once everything an execution of the given method needs:
+     * the handler instances, the parameter types and the JSON projections.
+     *
+     * @param method the method to prepare
+     * @throws LambdaExecutionException in case an eagerly created handler instance could not be created
+     */
+    @Override
+    public void prepare(Method method) {
+        Objects.requireNonNull(method);
+
+        try {
+            getMethodPlan(method);
+        }
+        catch (Exception e) {
+            throw createExecutionException(e);
+        }
+    }
+
     @Override
     public ExecutionResult exec(Method method, T executionContext) {
         Objects.requireNonNull(method);
         Objects.requireNonNull(executionContext);
 
         try {
-            if (methodInvokeContext == null) {
-                methodInvokeContext = createMethodInvokeContext(method);
-            }
+            final MethodPlan methodPlan = getMethodPlan(method);
+            final Object methodInvokeContext = methodPlan.handlerInstances == null ? null : methodPlan.handlerInstances.acquire();
+
+            try {
+                final Object[] args = resolveMethodArguments(executionContext, method);
 
-            final Object value = invoke(method, methodInvokeContext, resolveMethodArguments(executionContext, method));
+                try {
+                    final Object event = InvocationEvents.begin(InvocationEvents.Phase.INVOCATION);
+                    final Object value;
 
-            return new LambdaExecutionResult(executionContext.getId(), value);
+                    try {
+                        value = invoke(method, methodInvokeContext, args);
+                    }
+                    finally {
+                        // Failed invocations are recorded as well
+                        InvocationEvents.end(event, executionContext, null);
+                    }
+
+                    return createExecutionResult(executionContext, value);
+                }
+                finally {
+                    InputSpooler.release(args);
+
+                    releaseMethodArguments(args);
+                }
+            }
+            finally {
+                if (methodPlan.handlerInstances != null) {
+                    methodPlan.handlerInstances.release(methodInvokeContext);
+                }
+            }
         }
         catch (Throwable e) {
-            throw new RuntimeException("An error occurred during method execution", e);
+            throw createExecutionException(e);
+        }
+    }
+
+    /**
+     * Carries checked exceptions out of {@link Map#computeIfAbsent}, unwrapped by {@link #getMethodPlan(Method)}.
+     */
+    private static class MethodPlanException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MethodPlanException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    private static class MethodPlan {
+        private final HandlerInstances handlerInstances;
+        private final Class<?>[] parameterTypes;
+        private final JsonProjector jsonProjector;
+
+        MethodPlan(Method method, HandlerInstances handlerInstances) {
+            this.handlerInstances = handlerInstances;
+            this.parameterTypes = method.getParameterTypes();
+            this.jsonProjector = JsonProjector.of(method);
         }
     }
 }
@@ -2,15 +2,13 @@ package io.abstractor.lambda.runtime.adapter;
 
 import io.abstractor.lambda.runtime.port.ExecutionContext;
 import io.abstractor.lambda.runtime.port.ParameterSerializer;
-
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.abstractor.lambda.runtime.port.PayloadCodec;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
@@ -22,13 +20,25 @@ import java.util.function.Function;
 /**
  * A basic serializer backed by Jackson
  *
+ * Types without a dedicated serializer are decoded by the payload codec registered for the input media type.
+ * A codec is looked up by media type essence ("application/json"), then by structured syntax suffix
+ * ("application/vnd.api+json" is decoded by the "application/json" codec).
+ *
+ * Inputs with a content encoding ("gzip" or "deflate") are decompressed while being decoded, without
+ * materializing the decompressed payload.
+ *
  * @param <T> type / sub-type of execution context
  */
 public class LambdaParameterSerializer<T extends ExecutionContext> implements ParameterSerializer<T> {
     private static final Logger logger = LogManager.getLogger(LambdaParameterSerializer.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
 
     private final Map<String, Function<T, ?>> serializers = new HashMap<>();
+    private final Map<String, PayloadCodec> codecs = new HashMap<>();
+    private final Map<String, PayloadCodec> suffixCodecs = new HashMap<>();
+
+    public LambdaParameterSerializer() {
+        addCodec(JacksonPayloadCodec.JSON_MEDIA_TYPE, JacksonPayloadCodec.json());
+    }
 
     public void addSerializer(Class<?> cls, Function<T, Object> serializer) {
         Objects.requireNonNull(cls);
@@ -49,6 +59,39 @@ public class LambdaParameterSerializer<T extends ExecutionContext> implements Pa
         }
     }
 
+    /**
+     * @param mediaType a media type, "application/json" for instance
+     * @param codec the codec decoding inputs of that media type
+     */
+    public void addCodec(String mediaType, PayloadCodec codec) {
+        Objects.requireNonNull(codec);
+
+        final MediaType parsedMediaType = MediaType.parse(Objects.requireNonNull(mediaType));
+
+        if (codecs.containsKey(parsedMediaType.getEssence())) {
+            logger.debug("Overriding codec definition of {}", parsedMediaType);
+        }
+
+        codecs.put(parsedMediaType.getEssence(), codec);
+        suffixCodecs.put(parsedMediaType.getSubtype(), codec);
+    }
+
+    public PayloadCodec getCodec(String mimeType) {
+        final MediaType mediaType = MediaType.parse(mimeType);
+
+        if (mediaType == null) {
+            return null;
+        }
+
+        final PayloadCodec codec = codecs.get(mediaType.getEssence());
+
+        if (codec == null && mediaType.getSuffix() != null) {
+            return suffixCodecs.get(mediaType.getSuffix());
+        }
+
+        return codec;
+    }
+
     public Function<T, ?> getSerializer(Class<?> cls) {
         return serializers.get(Objects.requireNonNull(cls).getCanonicalName());
     }
@@ -57,18 +100,33 @@ public class LambdaParameterSerializer<T extends ExecutionContext> implements Pa
     @Override
     public <R> R serialize(Class<R> cls, T executionContext) {
         final String classCanonicalName = Objects.requireNonNull(cls).getCanonicalName();
-        final String executionContextBody = executionContext.getInput();
 
         R serializedValue = null;
 
         if (serializers.containsKey(classCanonicalName)) {
             return (R)serializers.get(classCanonicalName).apply(executionContext);
         }
-        else if (executionContext.isJson()) {
+
+        PayloadCodec codec = getCodec(executionContext.getInputMimeType());
+
+        // Any mime type mentioning "json" is decoded as JSON ("text/json" for instance)
+        if (codec == null && executionContext.isJson()) {
+            codec = codecs.get(JacksonPayloadCodec.JSON_MEDIA_TYPE);
+        }
+
+        if (codec != null) {
             try {
-                serializedValue = (R)objectMapper.readValue(executionContextBody, cls);
+                // Binary, encoded and spooled inputs only have a stream
+                if (codec.isBinary() || ContentEncoding.isEncoded(executionContext.getInputContentEncoding()) || executionContext.getInput() == null) {
+                    final InputStream inputStream = ContentEncoding.getInputStream(executionContext);
+
+                    serializedValue = inputStream == null ? null : codec.decode(cls, inputStream);
+                }
+                else {
+                    serializedValue = codec.decode(cls, executionContext.getInput());
+                }
             }
-            catch (JsonProcessingException e) {
+            catch (IOException e) {
                 logger.error("An error occurred during serialization of {} type", cls, e);
 
                 throw new RuntimeException(e);
@@ -81,12 +139,15 @@ public class LambdaParameterSerializer<T extends ExecutionContext> implements Pa
     public static <T extends ExecutionContext> LambdaParameterSerializer<T> createDefaultInstance() {
         final LambdaParameterSerializer<T> parameterSerializer = new LambdaParameterSerializer<>();
 
+        parameterSerializer.addCodec(JacksonPayloadCodec.SMILE_MEDIA_TYPE, JacksonPayloadCodec.smile());
+        parameterSerializer.addCodec(JacksonPayloadCodec.CBOR_MEDIA_TYPE, JacksonPayloadCodec.cbor());
+
         parameterSerializer.addSerializer(String.class, executionContext -> {
-            return executionContext.getInput();
+            return ContentEncoding.getInput(executionContext);
         });
 
         parameterSerializer.addSerializer(InputStream.class, executionContext -> {
-            return new ByteArrayInputStream(executionContext.getInput().getBytes());
+            return ContentEncoding.getInputStream(executionContext);
         });
 
         parameterSerializer.addSerializer(OutputStream.class, executionContext -> {
@@ -94,19 +155,19 @@ public class LambdaParameterSerializer<T extends ExecutionContext> implements Pa
         });
 
         parameterSerializer.addSerializer(new Class[]{int.class, Integer.class}, executionContext -> {
-            return Integer.valueOf(executionContext.getInput());
+            return Integer.valueOf(ContentEncoding.getInput(executionContext));
         });
 
         parameterSerializer.addSerializer(new Class[]{float.class, Float.class}, executionContext -> {
-            return Float.parseFloat(executionContext.getInput());
+            return Float.parseFloat(ContentEncoding.getInput(executionContext));
         });
 
         parameterSerializer.addSerializer(new Class[]{double.class, Double.class}, executionContext -> {
-            return Double.parseDouble(executionContext.getInput());
+            return Double.parseDouble(ContentEncoding.getInput(executionContext));
         });
 
         parameterSerializer.addSerializer(new Class[]{boolean.class, Boolean.class}, executionContext -> {
-            return Boolean.parseBoolean(executionContext.getInput());
+            return Boolean.parseBoolean(ContentEncoding.getInput(executionContext));
         });
 
         return parameterSerializer;
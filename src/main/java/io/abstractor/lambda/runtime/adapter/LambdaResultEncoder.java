@@ -0,0 +1,222 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ResultEncoder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Encodes the execution values of a method, given its (generic) return type.
+ *
+ * A byte[] or a ByteBuffer is written as is, a String as UTF-8 text and anything else as JSON through an
+ * {@link ObjectWriter} resolved once for the return type. Strings are measured ahead of time and encoded through
+ * a reusable per thread buffer, they are sent with a fixed length and never copied as a whole. Values the return
+ * type does not describe (an interceptor replaced the value for instance) are written as JSON according to their
+ * runtime type.
+ */
+public class LambdaResultEncoder implements ResultEncoder {
+    static final String OCTET_STREAM_MEDIA_TYPE = "application/octet-stream";
+    static final String TEXT_MEDIA_TYPE = "text/plain; charset=utf-8";
+    private static final int COPY_BUFFER_SIZE = 8192;
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<TextEncoder> textEncoders = ThreadLocal.withInitial(TextEncoder::new);
+
+    private final ObjectWriter runtimeTypeWriter;
+    private final ObjectWriter returnTypeWriter;
+    private final Class<?> returnType;
+
+    /**
+     * @param objectMapper the object mapper JSON is written with
+     * @param returnType the return type of the method whose values are encoded
+     */
+    public LambdaResultEncoder(ObjectMapper objectMapper, Type returnType) {
+        final JavaType javaType = objectMapper.constructType(Objects.requireNonNull(returnType));
+
+        this.runtimeTypeWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.returnType = javaType.getRawClass();
+
+        // Object (or a primitive boxed at runtime) leaves nothing to resolve ahead of time
+        if (javaType.isJavaLangObject() || javaType.isPrimitive()) {
+            this.returnTypeWriter = runtimeTypeWriter;
+        }
+        else {
+            this.returnTypeWriter = objectMapper.writerFor(javaType).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+    }
+
+    public LambdaResultEncoder(Type returnType) {
+        this(JacksonPayloadCodec.json().getObjectMapper(), returnType);
+    }
+
+    /**
+     * @param method a method whose execution values are encoded
+     * @return LambdaResultEncoder an encoder for the method return type
+     */
+    public static LambdaResultEncoder forMethod(Method method) {
+        return new LambdaResultEncoder(method.getGenericReturnType());
+    }
+
+    @Override
+    public String getContentType(Object value) {
+        if (value instanceof byte[] || value instanceof ByteBuffer) {
+            return OCTET_STREAM_MEDIA_TYPE;
+        }
+
+        if (value instanceof String) {
+            return TEXT_MEDIA_TYPE;
+        }
+
+        return JacksonPayloadCodec.JSON_MEDIA_TYPE;
+    }
+
+    @Override
+    public long getContentLength(Object value) {
+        if (value instanceof byte[]) {
+            return ((byte[])value).length;
+        }
+
+        if (value instanceof ByteBuffer) {
+            return ((ByteBuffer)value).remaining();
+        }
+
+        if (value instanceof String) {
+            return utf8Length((String)value);
+        }
+
+        if (value == null) {
+            return NULL.length;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public void encode(Object value, OutputStream outputStream) throws IOException {
+        if (value instanceof byte[]) {
+            outputStream.write((byte[])value);
+        }
+        else if (value instanceof ByteBuffer) {
+            write((ByteBuffer)value, outputStream);
+        }
+        else if (value instanceof String) {
+            textEncoders.get().write((String)value, outputStream);
+        }
+        else if (value == null) {
+            outputStream.write(NULL);
+        }
+        else if (returnType.isInstance(value)) {
+            returnTypeWriter.writeValue(outputStream, value);
+        }
+        else {
+            runtimeTypeWriter.writeValue(outputStream, value);
+        }
+    }
+
+    /**
+     * The length of the UTF-8 encoding of a String, unpaired surrogates are encoded as a single '?' (as by
+     * {@link String#getBytes(java.nio.charset.Charset)}).
+     */
+    static long utf8Length(String s) {
+        long length = 0;
+
+        for (int i = 0; i < s.length(); i += 1) {
+            final char c = s.charAt(i);
+
+            if (c < 0x80) {
+                length += 1;
+            }
+            else if (c < 0x800) {
+                length += 2;
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i += 1;
+            }
+            else if (Character.isSurrogate(c)) {
+                length += 1;
+            }
+            else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Writes the remaining bytes, the buffer position is left untouched (a relay may encode a value twice).
+     */
+    private static void write(ByteBuffer value, OutputStream outputStream) throws IOException {
+        if (value.hasArray()) {
+            outputStream.write(value.array(), value.arrayOffset() + value.position(), value.remaining());
+
+            return;
+        }
+
+        final ByteBuffer buffer = value.duplicate();
+        final byte[] chunk = new byte[Math.min(buffer.remaining(), COPY_BUFFER_SIZE)];
+
+        while (buffer.hasRemaining()) {
+            final int length = Math.min(buffer.remaining(), chunk.length);
+
+            buffer.get(chunk, 0, length);
+            outputStream.write(chunk, 0, length);
+        }
+    }
+
+    /**
+     * A UTF-8 encoder and its output buffer, reused by the thread owning them.
+     */
+    private static final class TextEncoder {
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+
+        void write(String value, OutputStream outputStream) throws IOException {
+            final CharBuffer input = CharBuffer.wrap(value);
+
+            encoder.reset();
+
+            CoderResult result;
+
+            do {
+                result = encoder.encode(input, buffer, true);
+
+                drain(outputStream);
+            }
+            while (result.isOverflow());
+
+            while (encoder.flush(buffer).isOverflow()) {
+                drain(outputStream);
+            }
+
+            drain(outputStream);
+        }
+
+        private void drain(OutputStream outputStream) throws IOException {
+            if (buffer.position() > 0) {
+                outputStream.write(buffer.array(), 0, buffer.position());
+            }
+
+            buffer.clear();
+        }
+    }
+}
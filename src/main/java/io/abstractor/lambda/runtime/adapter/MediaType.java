@@ -0,0 +1,93 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A parsed media type ("application/vnd.api+json; charset=utf-8" for instance).
+ * Parsed media types are cached since execution contexts repeat a handful of mime types.
+ */
+public final class MediaType {
+    private static final int CACHE_CAPACITY = 256;
+    private static final Map<String, MediaType> cache = new ConcurrentHashMap<>();
+
+    private final String type;
+    private final String subtype;
+    private final String suffix;
+    private final String essence;
+
+    private MediaType(String type, String subtype) {
+        final int plus = subtype.lastIndexOf('+');
+
+        this.type = type;
+        this.subtype = subtype;
+        this.suffix = plus == -1 ? null : subtype.substring(plus + 1);
+        this.essence = subtype.isEmpty() ? type : type + "/" + subtype;
+    }
+
+    /**
+     * @return String the type ("application" for instance)
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return String the subtype ("vnd.api+json" for instance)
+     */
+    public String getSubtype() {
+        return subtype;
+    }
+
+    /**
+     * @return String the structured syntax suffix ("json" for "vnd.api+json" for instance) or null
+     */
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * @return String the type and subtype without parameters ("application/vnd.api+json" for instance)
+     */
+    public String getEssence() {
+        return essence;
+    }
+
+    @Override
+    public String toString() {
+        return essence;
+    }
+
+    /**
+     * @param mimeType a mime type, parameters are ignored
+     * @return MediaType the parsed media type or null when the mime type is null
+     */
+    public static MediaType parse(String mimeType) {
+        if (mimeType == null) {
+            return null;
+        }
+
+        MediaType mediaType = cache.get(mimeType);
+
+        if (mediaType == null) {
+            final int semicolon = mimeType.indexOf(';');
+            final String essence = (semicolon == -1 ? mimeType : mimeType.substring(0, semicolon)).trim().toLowerCase(Locale.ROOT);
+            final int slash = essence.indexOf('/');
+
+            if (slash == -1) {
+                mediaType = new MediaType(essence, "");
+            }
+            else {
+                mediaType = new MediaType(essence.substring(0, slash).trim(), essence.substring(slash + 1).trim());
+            }
+
+            // Bounded, an unexpected variety of mime types is parsed on every call instead.
+            if (cache.size() < CACHE_CAPACITY) {
+                cache.put(mimeType, mediaType);
+            }
+        }
+
+        return mediaType;
+    }
+}
@@ -0,0 +1,200 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.Recyclable;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A mutable execution context holder handed out by a {@link Pool}.
+ *
+ * An execution context supplier acquires a holder, populates it and hands it to the runtime,
+ * the runtime recycles it back into its pool once the execution cycle was relayed.
+ * In debug mode accessing a recycled holder throws, which exposes references leaked past their execution cycle.
+ */
+public class RecyclableExecutionContext implements ExecutionContext, Recyclable {
+    private final Pool pool;
+
+    private String id;
+    private String input;
+    private byte[] inputBytes;
+    private String inputMimeType;
+    private String inputContentEncoding;
+    private String routeKey;
+    private long deadline;
+    private boolean owned = false;
+
+    private RecyclableExecutionContext(Pool pool) {
+        this.pool = pool;
+    }
+
+    public RecyclableExecutionContext set(String id, String input, String inputMimeType) {
+        this.id = id;
+        this.input = input;
+        this.inputBytes = null;
+        this.inputMimeType = inputMimeType;
+        this.inputContentEncoding = null;
+        this.routeKey = null;
+        this.deadline = 0;
+
+        return this;
+    }
+
+    /**
+     * Populate the holder with an input that has no textual form, it is only available as a stream.
+     *
+     * @param id the execution id
+     * @param input the raw bytes of the input
+     * @param inputMimeType the mime type of the input
+     * @param inputContentEncoding the content encoding of the input, may be null
+     * @return RecyclableExecutionContext this holder
+     */
+    public RecyclableExecutionContext set(String id, byte[] input, String inputMimeType, String inputContentEncoding) {
+        this.id = id;
+        this.input = null;
+        this.inputBytes = input;
+        this.inputMimeType = inputMimeType;
+        this.inputContentEncoding = inputContentEncoding;
+        this.routeKey = null;
+        this.deadline = 0;
+
+        return this;
+    }
+
+    /**
+     * @param routeKey the key of the route the execution cycle is dispatched to, may be null
+     * @return RecyclableExecutionContext this holder
+     */
+    public RecyclableExecutionContext setRouteKey(String routeKey) {
+        this.routeKey = routeKey;
+
+        return this;
+    }
+
+    /**
+     * @param deadline the deadline of the execution cycle (epoch millis), 0 for none
+     * @return RecyclableExecutionContext this holder
+     */
+    public RecyclableExecutionContext setDeadline(long deadline) {
+        this.deadline = deadline;
+
+        return this;
+    }
+
+    private void requireOwned() {
+        if (pool.debug && !owned) {
+            throw new IllegalStateException("execution context was accessed after being recycled (leaked reference)");
+        }
+    }
+
+    @Override
+    public String getId() {
+        requireOwned();
+
+        return id;
+    }
+
+    @Override
+    public String getInput() {
+        requireOwned();
+
+        return input;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        requireOwned();
+
+        return inputBytes == null ? ExecutionContext.super.getInputStream() : new ByteArrayInputStream(inputBytes);
+    }
+
+    @Override
+    public String getInputContentEncoding() {
+        requireOwned();
+
+        return inputContentEncoding;
+    }
+
+    @Override
+    public String getInputMimeType() {
+        requireOwned();
+
+        return inputMimeType;
+    }
+
+    @Override
+    public String getRouteKey() {
+        requireOwned();
+
+        return routeKey;
+    }
+
+    @Override
+    public long getDeadline() {
+        requireOwned();
+
+        return deadline;
+    }
+
+    @Override
+    public void recycle() {
+        requireOwned();
+
+        // Recycling twice would hand the same holder to two owners.
+        if (!owned) {
+            return;
+        }
+
+        id = null;
+        input = null;
+        inputBytes = null;
+        inputMimeType = null;
+        inputContentEncoding = null;
+        routeKey = null;
+        deadline = 0;
+        owned = false;
+
+        pool.release(this);
+    }
+
+    /**
+     * A bounded pool of execution context holders, a holder is created whenever the pool is empty
+     * and holders recycled into a full pool are left for the garbage collector.
+     */
+    public static class Pool {
+        private final boolean debug;
+        private final ArrayBlockingQueue<RecyclableExecutionContext> available;
+
+        public Pool(int capacity, boolean debug) {
+            this.debug = debug;
+            this.available = new ArrayBlockingQueue<>(capacity);
+        }
+
+        public Pool(int capacity) {
+            this(capacity, false);
+        }
+
+        public RecyclableExecutionContext acquire() {
+            RecyclableExecutionContext executionContext = available.poll();
+
+            if (executionContext == null) {
+                executionContext = new RecyclableExecutionContext(this);
+            }
+
+            executionContext.owned = true;
+
+            return executionContext;
+        }
+
+        public int getAvailableCount() {
+            return available.size();
+        }
+
+        private void release(RecyclableExecutionContext executionContext) {
+            available.offer(executionContext);
+        }
+    }
+}
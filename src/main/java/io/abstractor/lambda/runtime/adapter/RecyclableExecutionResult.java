@@ -0,0 +1,71 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.Recyclable;
+
+/**
+ * A mutable execution result holder reused across execution cycles.
+ *
+ * A holder is owned from {@link #set(String, Object)} until {@link #recycle()}.
+ * In debug mode accessing a recycled holder throws, which exposes references leaked past their execution cycle.
+ */
+public class RecyclableExecutionResult implements ExecutionResult, Recyclable {
+    private final boolean debug;
+
+    private String id;
+    private Object methodExecutionValue;
+    private boolean owned = false;
+
+    public RecyclableExecutionResult(boolean debug) {
+        this.debug = debug;
+    }
+
+    public RecyclableExecutionResult() {
+        this(false);
+    }
+
+    public RecyclableExecutionResult set(String id, Object methodExecutionValue) {
+        if (debug && owned) {
+            throw new IllegalStateException("execution result " + this.id + " was not recycled before reuse");
+        }
+
+        this.id = Utils.StringUtils.requireNonBlank(id);
+        this.methodExecutionValue = methodExecutionValue;
+        this.owned = true;
+
+        return this;
+    }
+
+    public boolean isOwned() {
+        return owned;
+    }
+
+    private void requireOwned() {
+        if (debug && !owned) {
+            throw new IllegalStateException("execution result was accessed after being recycled (leaked reference)");
+        }
+    }
+
+    @Override
+    public String getExecutionId() {
+        requireOwned();
+
+        return id;
+    }
+
+    @Override
+    public Object getExecutionValue() {
+        requireOwned();
+
+        return methodExecutionValue;
+    }
+
+    @Override
+    public void recycle() {
+        requireOwned();
+
+        id = null;
+        methodExecutionValue = null;
+        owned = false;
+    }
+}
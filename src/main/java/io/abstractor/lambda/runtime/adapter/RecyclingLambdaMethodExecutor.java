@@ -0,0 +1,106 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.ParameterSerializer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Method;
+
+import java.util.Arrays;
+
+/**
+ * A method executor reusing per thread the arguments array and the execution result holder,
+ * leaving the execution value and the arguments themselves as the only steady state allocations.
+ *
+ * The execution result is owned by the caller until it is recycled (the runtime recycles it once relayed).
+ * When a thread executes again before recycling its previous result a fresh holder is used instead.
+ *
+ * @param <T> type / sub-type of execution context
+ */
+public class RecyclingLambdaMethodExecutor<T extends ExecutionContext> extends LambdaMethodExecutor<T> {
+    private static final Logger logger = LogManager.getLogger(RecyclingLambdaMethodExecutor.class);
+
+    private final boolean debug;
+    private final ThreadLocal<Slot> slots = ThreadLocal.withInitial(Slot::new);
+
+    public RecyclingLambdaMethodExecutor(ParameterSerializer<T> parameterSerializer, boolean debug) {
+        super(parameterSerializer);
+
+        this.debug = debug;
+    }
+
+    public RecyclingLambdaMethodExecutor(boolean debug) {
+        this(LambdaParameterSerializer.createDefaultInstance(), debug);
+    }
+
+    public RecyclingLambdaMethodExecutor() {
+        this(false);
+    }
+
+    @Override
+    protected Object[] createMethodArguments(int parameterCount) {
+        final Slot slot = slots.get();
+
+        // Nested executions on the same thread get their own array.
+        if (slot.depth != 1) {
+            return super.createMethodArguments(parameterCount);
+        }
+
+        if (slot.arguments.length <= parameterCount) {
+            slot.arguments = Arrays.copyOf(slot.arguments, parameterCount + 1);
+        }
+
+        if (slot.arguments[parameterCount] == null) {
+            slot.arguments[parameterCount] = new Object[parameterCount];
+        }
+
+        return slot.arguments[parameterCount];
+    }
+
+    @Override
+    protected ExecutionResult createExecutionResult(T executionContext, Object value) {
+        final Slot slot = slots.get();
+
+        if (slot.result.isOwned()) {
+            if (debug) {
+                logger.warn("execution result {} was not recycled, allocating a new holder", slot.result.getExecutionId());
+            }
+
+            slot.result = new RecyclableExecutionResult(debug);
+        }
+
+        return slot.result.set(executionContext.getId(), value);
+    }
+
+    @Override
+    public ExecutionResult exec(Method method, T executionContext) {
+        final Slot slot = slots.get();
+
+        slot.depth += 1;
+
+        try {
+            return super.exec(method, executionContext);
+        }
+        finally {
+            if (slot.depth == 1 && method != null && method.getParameterCount() < slot.arguments.length) {
+                final Object[] args = slot.arguments[method.getParameterCount()];
+
+                // Do not retain arguments (and the payload they reference) past the execution cycle
+                if (args != null) {
+                    Arrays.fill(args, null);
+                }
+            }
+
+            slot.depth -= 1;
+        }
+    }
+
+    private class Slot {
+        private int depth = 0;
+        private Object[][] arguments = new Object[0][];
+        private RecyclableExecutionResult result = new RecyclableExecutionResult(debug);
+    }
+}
@@ -0,0 +1,12 @@
+package io.abstractor.lambda.runtime.adapter;
+
+/**
+ * Thrown when relaying failed, as opposed to the method execution being relayed.
+ */
+public class RelayException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    RelayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,495 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionRelay;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.Recyclable;
+import io.abstractor.lambda.runtime.port.ResultEncoder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A relay decorator bounding the time each relay call takes, retrying failed calls and optionally hedging slow ones.
+ *
+ * Every attempt is given a timeout, a failed or timed out attempt is retried after a jittered exponential backoff.
+ * Once all attempts failed a {@link RelayException} is thrown.
+ *
+ * Without hedging attempts run on the calling thread, which is interrupted once the timeout elapsed. Blocking I/O
+ * ignoring interrupts (java.net sockets) must be bounded by the decorated relay itself, as {@link RuntimeApiClient}
+ * does with its connect and read timeouts. The default timeout is lower than those, so that a slow call is retried
+ * before the client gives up on it.
+ *
+ * With hedging attempts run on a pool, an attempt still pending after the p95 of recent relay latencies is
+ * duplicated and whichever call completes first wins (relays must tolerate duplicates). Losing and timed out calls
+ * keep running in the background: they relay an immutable copy of {@link Recyclable} execution results, and relaying
+ * an execution exception of a {@link Recyclable} execution context returns only once every call it started ended.
+ *
+ * Relay failures are counted apart from the handler failures (execution exceptions) being relayed.
+ *
+ * @param <T> type / sub-type of execution context
+ */
+public class ResilientExecutionRelay<T extends ExecutionContext> implements ExecutionRelay<T> {
+    private static final Logger logger = LogManager.getLogger(ResilientExecutionRelay.class);
+
+    private static final int LATENCY_WINDOW = 128;
+    private static final int HEDGING_MINIMUM_SAMPLES = 20;
+
+    private final ExecutionRelay<T> executionRelay;
+    private final long timeoutNanos;
+    private final int maxRetries;
+    private final long backoffNanos;
+    private final long maxBackoffNanos;
+    private final boolean hedging;
+    private final ExecutorService executorService;
+    private final ScheduledThreadPoolExecutor watchdog;
+
+    private final AtomicLong relayFailureCount = new AtomicLong();
+    private final AtomicLong handlerFailureCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong hedgeCount = new AtomicLong();
+
+    // Guarded by latencies
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount = 0;
+    private long hedgeDelayNanos = Long.MAX_VALUE;
+
+    private ResilientExecutionRelay(Builder<T> builder) {
+        if (builder.maxRetries < 0) {
+            throw new IllegalArgumentException("max retries must not be negative");
+        }
+
+        this.executionRelay = Objects.requireNonNull(builder.executionRelay);
+        this.timeoutNanos = builder.timeout.toNanos();
+        this.maxRetries = builder.maxRetries;
+        this.backoffNanos = builder.backoff.toNanos();
+        this.maxBackoffNanos = builder.maxBackoff.toNanos();
+        this.hedging = builder.hedging;
+
+        if (hedging) {
+            this.executorService = Executors.newCachedThreadPool(runnable -> thread(runnable, "lambda-runtime-relay"));
+            this.watchdog = null;
+        }
+        else {
+            this.executorService = null;
+            this.watchdog = new ScheduledThreadPoolExecutor(1, runnable -> thread(runnable, "lambda-runtime-relay-watchdog"));
+
+            // Cancelled watches must not stay queued until their timeout.
+            this.watchdog.setRemoveOnCancelPolicy(true);
+        }
+    }
+
+    private static Thread thread(Runnable runnable, String name) {
+        final Thread thread = new Thread(runnable, name);
+
+        thread.setDaemon(true);
+
+        return thread;
+    }
+
+    /**
+     * A recyclable execution result may be recycled while hedged or timed out calls still run, they get a copy.
+     */
+    private ExecutionResult snapshot(ExecutionResult executionResult) {
+        if (!hedging || !(executionResult instanceof Recyclable)) {
+            return executionResult;
+        }
+
+        return new LambdaExecutionResult(
+            executionResult.getExecutionId(),
+            executionResult.getExecutionValue(),
+            executionResult.getContentEncoding(),
+            executionResult.getContentType()
+        );
+    }
+
+    @Override
+    public void relayExecutionResult(ExecutionResult executionResult) {
+        final ExecutionResult snapshot = snapshot(executionResult);
+
+        relay("execution result " + snapshot.getExecutionId(), () -> executionRelay.relayExecutionResult(snapshot), false);
+    }
+
+    /**
+     * Hedged calls encode the same execution value concurrently, encoders must not consume it.
+     */
+    @Override
+    public void relayExecutionResult(ExecutionResult executionResult, ResultEncoder resultEncoder) {
+        final ExecutionResult snapshot = snapshot(executionResult);
+
+        relay("execution result " + snapshot.getExecutionId(), () -> executionRelay.relayExecutionResult(snapshot, resultEncoder), false);
+    }
+
+    @Override
+    public void relayExecutionException(Throwable e, T executionContext) {
+        handlerFailureCount.incrementAndGet();
+
+        relay("execution exception " + executionContext.getId(), () -> executionRelay.relayExecutionException(e, executionContext), executionContext instanceof Recyclable);
+    }
+
+    @Override
+    public void relayInitException(Throwable e) {
+        relay("init exception", () -> executionRelay.relayInitException(e), false);
+    }
+
+    /**
+     * @param awaitCalls whether to return only once every call started ended, the call references recyclable state
+     */
+    private void relay(String description, Runnable call, boolean awaitCalls) {
+        // The relaying thread is a party, each pooled call registers itself until it ended
+        final Phaser calls = hedging ? new Phaser(1) : null;
+
+        try {
+            relay(description, call, calls);
+        }
+        finally {
+            if (calls != null) {
+                if (awaitCalls) {
+                    await(calls);
+                }
+                else {
+                    calls.arriveAndDeregister();
+                }
+            }
+        }
+    }
+
+    private static void await(Phaser calls) {
+        final boolean interrupted = Thread.interrupted();
+
+        calls.arriveAndAwaitAdvance();
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void relay(String description, Runnable call, Phaser calls) {
+        Throwable failure = null;
+
+        for (int attempt = 0; attempt <= maxRetries; attempt += 1) {
+            if (attempt > 0) {
+                retryCount.incrementAndGet();
+
+                if (!backoff(attempt)) {
+                    break;
+                }
+            }
+
+            try {
+                if (calls == null) {
+                    attempt(call);
+                }
+                else {
+                    attempt(call, calls);
+                }
+
+                return;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                failure = e;
+
+                break;
+            }
+            catch (Throwable e) {
+                failure = e;
+
+                logger.debug("Relaying {} failed (attempt: {})", description, attempt + 1, e);
+            }
+        }
+
+        relayFailureCount.incrementAndGet();
+
+        throw new RelayException("relaying " + description + " failed", failure);
+    }
+
+    /**
+     * Full jitter, a random sleep between zero and the exponential backoff of the attempt.
+     *
+     * @return boolean whether the backoff completed without being interrupted
+     */
+    private boolean backoff(int attempt) {
+        final long ceiling = Math.min(maxBackoffNanos, backoffNanos << Math.min(attempt - 1, 30));
+
+        if (ceiling <= 0) {
+            return true;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+
+            return true;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            return false;
+        }
+    }
+
+    /**
+     * An attempt on the calling thread, interrupted once timed out.
+     */
+    private void attempt(Runnable call) throws Throwable {
+        final Watch watch = new Watch(Thread.currentThread());
+
+        Throwable failure = null;
+
+        try {
+            call.run();
+        }
+        catch (Throwable e) {
+            failure = e;
+        }
+
+        final boolean timedOut = watch.complete();
+
+        if (failure == null) {
+            return;
+        }
+
+        if (timedOut) {
+            throw new TimeoutException("relay call timed out").initCause(failure);
+        }
+
+        throw failure;
+    }
+
+    /**
+     * An attempt on the pool, hedged when slow. Calls not started by the time the attempt ended are skipped.
+     */
+    private void attempt(Runnable call, Phaser calls) throws Throwable {
+        final CompletionService<Void> completionService = new ExecutorCompletionService<>(executorService);
+        final AtomicBoolean ended = new AtomicBoolean();
+        final long start = System.nanoTime();
+
+        final Runnable pooledCall = () -> {
+            try {
+                if (!ended.get()) {
+                    call.run();
+                }
+            }
+            finally {
+                calls.arriveAndDeregister();
+            }
+        };
+
+        calls.register();
+        completionService.submit(pooledCall, null);
+
+        boolean hedged = false;
+        Throwable failure = null;
+
+        try {
+            // A call failing before being hedged fails the attempt, duplicating it would be pointless
+            for (int pending = 1; pending > 0; ) {
+                final long elapsed = System.nanoTime() - start;
+                final long hedgeDelay = getHedgeDelay();
+
+                if (elapsed >= timeoutNanos) {
+                    throw new TimeoutException("relay call timed out");
+                }
+
+                if (!hedged && elapsed >= hedgeDelay) {
+                    hedged = true;
+                    pending += 1;
+
+                    hedgeCount.incrementAndGet();
+                    calls.register();
+                    completionService.submit(pooledCall, null);
+                }
+
+                final long wait = hedged ? timeoutNanos - elapsed : Math.min(timeoutNanos, hedgeDelay) - elapsed;
+                final Future<Void> completed = completionService.poll(wait, TimeUnit.NANOSECONDS);
+
+                if (completed == null) {
+                    continue;
+                }
+
+                pending -= 1;
+
+                try {
+                    completed.get();
+
+                    record(System.nanoTime() - start);
+
+                    return;
+                }
+                catch (ExecutionException e) {
+                    failure = e.getCause();
+                }
+            }
+
+            throw failure;
+        }
+        finally {
+            // Interrupting running calls would not stop blocking I/O, they run to completion
+            ended.set(true);
+        }
+    }
+
+    private long getHedgeDelay() {
+        synchronized (latencies) {
+            return hedgeDelayNanos;
+        }
+    }
+
+    private void record(long latencyNanos) {
+        synchronized (latencies) {
+            latencies[latencyCount % LATENCY_WINDOW] = latencyNanos;
+            latencyCount += 1;
+
+            // The percentile is refreshed every few samples, sorting a copy of the window is cheap but not free
+            if (latencyCount >= HEDGING_MINIMUM_SAMPLES && latencyCount % 8 == 0) {
+                final long[] window = Arrays.copyOf(latencies, Math.min(latencyCount, LATENCY_WINDOW));
+
+                Arrays.sort(window);
+
+                hedgeDelayNanos = window[(int)Math.ceil(window.length * 0.95) - 1];
+            }
+        }
+    }
+
+    /**
+     * @return long the number of relay calls which failed every attempt
+     */
+    public long getRelayFailureCount() {
+        return relayFailureCount.get();
+    }
+
+    /**
+     * @return long the number of execution exceptions (handler failures) relayed
+     */
+    public long getHandlerFailureCount() {
+        return handlerFailureCount.get();
+    }
+
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    /**
+     * @return int the number of watches waiting for their timeout, 0 with hedging
+     */
+    int getPendingWatchCount() {
+        return watchdog == null ? 0 : watchdog.getQueue().size();
+    }
+
+    /**
+     * Interrupts the calling thread once the timeout elapsed, unless the attempt completed first.
+     */
+    private class Watch implements Runnable {
+        private final Thread thread;
+        private final ScheduledFuture<?> future;
+
+        private boolean completed = false;
+        private boolean fired = false;
+
+        Watch(Thread thread) {
+            this.thread = thread;
+            this.future = watchdog.schedule(this, timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!completed) {
+                fired = true;
+
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * @return boolean whether the calling thread was interrupted (the interrupt status is cleared)
+         */
+        synchronized boolean complete() {
+            completed = true;
+
+            future.cancel(false);
+
+            if (fired) {
+                // The interrupt targeted the attempt only, it must not leak into the caller
+                Thread.interrupted();
+            }
+
+            return fired;
+        }
+    }
+
+    public static class Builder<T extends ExecutionContext> {
+        private ExecutionRelay<T> executionRelay;
+        private Duration timeout = Duration.ofSeconds(2);
+        private int maxRetries = 2;
+        private Duration backoff = Duration.ofMillis(10);
+        private Duration maxBackoff = Duration.ofMillis(200);
+        private boolean hedging = false;
+
+        public Builder<T> setExecutionRelay(ExecutionRelay<T> executionRelay) {
+            this.executionRelay = executionRelay;
+
+            return this;
+        }
+
+        /**
+         * @param timeout the time given to each attempt, hedged calls included (2 seconds by default)
+         * @return Builder this builder
+         */
+        public Builder<T> setTimeout(Duration timeout) {
+            this.timeout = Objects.requireNonNull(timeout);
+
+            return this;
+        }
+
+        /**
+         * @param maxRetries the number of attempts after the first one (2 by default)
+         * @param backoff the backoff ceiling of the first retry, doubled on each retry (10ms by default)
+         * @param maxBackoff the largest backoff ceiling (200ms by default)
+         * @return Builder this builder
+         */
+        public Builder<T> setRetries(int maxRetries, Duration backoff, Duration maxBackoff) {
+            this.maxRetries = maxRetries;
+            this.backoff = Objects.requireNonNull(backoff);
+            this.maxBackoff = Objects.requireNonNull(maxBackoff);
+
+            return this;
+        }
+
+        /**
+         * @param hedging whether to duplicate calls slower than the p95 of recent ones (disabled by default)
+         * @return Builder this builder
+         */
+        public Builder<T> setHedging(boolean hedging) {
+            this.hedging = hedging;
+
+            return this;
+        }
+
+        public ResilientExecutionRelay<T> build() {
+            return new ResilientExecutionRelay<>(this);
+        }
+    }
+}
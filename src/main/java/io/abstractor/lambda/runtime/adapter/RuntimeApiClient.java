@@ -0,0 +1,278 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionRelay;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.ResultEncoder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * An execution context supplier and relay speaking the Lambda Runtime API over HTTP.
+ *
+ * Fetching the next execution context long polls the next invocation endpoint. Execution results are posted as
+ * is when they are a String or a byte[], as JSON otherwise. Connections are kept alive between requests.
+ *
+ * Every request but the long poll is bounded by a connect and a read timeout, a hung request fails with a
+ * {@link java.net.SocketTimeoutException} (wrapped in an {@link UncheckedIOException}) as interrupts are ignored.
+ */
+public class RuntimeApiClient implements Supplier<RuntimeApiExecutionContext>, ExecutionRelay<RuntimeApiExecutionContext> {
+    private static final Logger logger = LogManager.getLogger(RuntimeApiClient.class);
+
+    private static final String VERSION = "2018-06-01";
+    private static final int BUFFER_SIZE = 8192;
+
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(10);
+
+    private final String baseUrl;
+    private final InputSpooler inputSpooler;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    /**
+     * @param runtimeApi the address of the Runtime API ("host:port"), as found in AWS_LAMBDA_RUNTIME_API
+     * @param inputSpooler spools oversized invocation bodies as they are read, may be null
+     * @param connectTimeout the time given to establish a connection
+     * @param readTimeout the time given to every read of a response, the long poll excepted
+     */
+    public RuntimeApiClient(String runtimeApi, InputSpooler inputSpooler, Duration connectTimeout, Duration readTimeout) {
+        this.baseUrl = "http://" + Utils.StringUtils.requireNonBlank(runtimeApi) + "/" + VERSION + "/runtime/";
+        this.inputSpooler = inputSpooler;
+        this.connectTimeoutMillis = toMillis(connectTimeout);
+        this.readTimeoutMillis = toMillis(readTimeout);
+
+        // Fail fast on malformed addresses
+        ExecutionRelay.create(baseUrl);
+    }
+
+    public RuntimeApiClient(String runtimeApi, InputSpooler inputSpooler) {
+        this(runtimeApi, inputSpooler, DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+    }
+
+    public RuntimeApiClient(String runtimeApi) {
+        this(runtimeApi, null);
+    }
+
+    public static RuntimeApiClient fromEnvironment() {
+        return new RuntimeApiClient(Objects.requireNonNull(System.getenv("AWS_LAMBDA_RUNTIME_API"), "AWS_LAMBDA_RUNTIME_API is not set"));
+    }
+
+    @Override
+    public RuntimeApiExecutionContext get() {
+        try {
+            final HttpURLConnection connection = open("invocation/next");
+
+            // Long poll, an idle environment waits for its next invocation indefinitely
+            connection.setReadTimeout(0);
+
+            final int status = connection.getResponseCode();
+
+            if (status != 200) {
+                read(connection);
+
+                throw new IllegalStateException("next invocation request failed with status " + status);
+            }
+
+            final String id = connection.getHeaderField("Lambda-Runtime-Aws-Request-Id");
+            final String mimeType = connection.getContentType();
+            final String deadlineHeader = connection.getHeaderField("Lambda-Runtime-Deadline-Ms");
+            final long deadline = deadlineHeader == null ? 0 : Long.parseLong(deadlineHeader);
+            final String functionArn = connection.getHeaderField("Lambda-Runtime-Invoked-Function-Arn");
+
+            if (inputSpooler == null) {
+                return new RuntimeApiExecutionContext(id, new String(read(connection), StandardCharsets.UTF_8), mimeType, deadline, functionArn);
+            }
+
+            final InputSpooler.SpooledInput spooledInput;
+
+            // Spooled as it is read, an oversized body is never materialized on the heap
+            try (InputStream inputStream = connection.getInputStream()) {
+                spooledInput = inputSpooler.spool(inputStream, connection.getContentLengthLong());
+            }
+
+            if (spooledInput.isSpooled()) {
+                return new RuntimeApiExecutionContext(id, spooledInput, mimeType, deadline, functionArn);
+            }
+
+            return new RuntimeApiExecutionContext(id, new String(spooledInput.getBytes(), StandardCharsets.UTF_8), mimeType, deadline, functionArn);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void relayExecutionResult(ExecutionResult executionResult) {
+        final Object value = executionResult.getExecutionValue();
+        final byte[] body;
+        final String contentType;
+
+        if (value instanceof byte[]) {
+            body = (byte[])value;
+            contentType = "application/octet-stream";
+        }
+        else if (value instanceof String) {
+            body = ((String)value).getBytes(StandardCharsets.UTF_8);
+            contentType = "text/plain; charset=utf-8";
+        }
+        else {
+            try {
+                body = JacksonPayloadCodec.json().getObjectMapper().writeValueAsBytes(value);
+                contentType = JacksonPayloadCodec.JSON_MEDIA_TYPE;
+            }
+            catch (JsonProcessingException e) {
+                logger.error("An error occurred during serialization of execution result {}", executionResult.getExecutionId(), e);
+
+                throw new RuntimeException(e);
+            }
+        }
+
+        post("invocation/" + executionResult.getExecutionId() + "/response", body, getContentType(executionResult, contentType), executionResult.getContentEncoding(), null);
+    }
+
+    /**
+     * The execution value is encoded straight into the request body, streamed in chunks unless its length is known.
+     */
+    @Override
+    public void relayExecutionResult(ExecutionResult executionResult, ResultEncoder resultEncoder) {
+        final Object value = executionResult.getExecutionValue();
+
+        post(
+            "invocation/" + executionResult.getExecutionId() + "/response",
+            resultEncoder.getContentLength(value),
+            outputStream -> resultEncoder.encode(value, outputStream),
+            getContentType(executionResult, resultEncoder.getContentType(value)),
+            executionResult.getContentEncoding(),
+            null
+        );
+    }
+
+    /**
+     * The content type carried by the execution result (an encoded value keeps the type of its decoded form) wins.
+     */
+    private static String getContentType(ExecutionResult executionResult, String valueContentType) {
+        return executionResult.getContentType() != null ? executionResult.getContentType() : valueContentType;
+    }
+
+    @Override
+    public void relayExecutionException(Throwable e, RuntimeApiExecutionContext executionContext) {
+        final Throwable cause = e instanceof LambdaExecutionException ? e.getCause() : e;
+        final byte[] body = LambdaExecutionException.createErrorPayload(cause).getBytes(StandardCharsets.UTF_8);
+
+        post("invocation/" + executionContext.getId() + "/error", body, JacksonPayloadCodec.JSON_MEDIA_TYPE, null, cause.getClass().getName());
+    }
+
+    @Override
+    public void relayInitException(Throwable e) {
+        final byte[] body = LambdaExecutionException.createErrorPayload(e).getBytes(StandardCharsets.UTF_8);
+
+        post("init/error", body, JacksonPayloadCodec.JSON_MEDIA_TYPE, null, e.getClass().getName());
+    }
+
+    private void post(String path, byte[] body, String contentType, String contentEncoding, String errorType) {
+        post(path, body.length, outputStream -> outputStream.write(body), contentType, contentEncoding, errorType);
+    }
+
+    private void post(String path, long contentLength, Body body, String contentType, String contentEncoding, String errorType) {
+        try {
+            final HttpURLConnection connection = open(path);
+
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", contentType);
+
+            if (contentLength >= 0) {
+                connection.setFixedLengthStreamingMode(contentLength);
+            }
+            else {
+                connection.setChunkedStreamingMode(BUFFER_SIZE);
+            }
+
+            if (contentEncoding != null) {
+                connection.setRequestProperty("Content-Encoding", contentEncoding);
+            }
+
+            if (errorType != null) {
+                connection.setRequestProperty("Lambda-Runtime-Function-Error-Type", errorType);
+            }
+
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                body.writeTo(outputStream);
+            }
+
+            final int status = connection.getResponseCode();
+
+            // The response is drained so the connection is kept alive
+            read(connection);
+
+            if (status != 202) {
+                throw new IllegalStateException("POST " + path + " failed with status " + status);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface Body {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection)new URL(baseUrl + path).openConnection();
+
+        connection.setUseCaches(false);
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+
+        return connection;
+    }
+
+    private static int toMillis(Duration timeout) {
+        final long millis = timeout.toMillis();
+
+        if (millis <= 0 || millis > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("timeout must be between 1 millisecond and " + Integer.MAX_VALUE + " milliseconds");
+        }
+
+        return (int)millis;
+    }
+
+    private static byte[] read(HttpURLConnection connection) throws IOException {
+        final InputStream inputStream = connection.getResponseCode() >= 400 ? connection.getErrorStream() : connection.getInputStream();
+
+        if (inputStream == null) {
+            return new byte[0];
+        }
+
+        final int contentLength = connection.getContentLength();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream(contentLength > 0 ? contentLength : BUFFER_SIZE);
+        final byte[] buffer = new byte[BUFFER_SIZE];
+
+        try (InputStream in = inputStream) {
+            int read;
+
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+        }
+
+        return body.toByteArray();
+    }
+}
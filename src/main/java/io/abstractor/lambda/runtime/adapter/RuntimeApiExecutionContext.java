@@ -0,0 +1,84 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.Recyclable;
+
+import java.io.InputStream;
+
+/**
+ * An execution context fetched from the Lambda Runtime API.
+ *
+ * An input spooled at ingestion (see {@link InputSpooler}) has no textual form, it is only available as a stream
+ * and its file is deleted once the execution context is recycled.
+ */
+public class RuntimeApiExecutionContext implements ExecutionContext, Recyclable {
+    private final String id;
+    private final String input;
+    private final InputSpooler.SpooledInput spooledInput;
+    private final String inputMimeType;
+    private final long deadline;
+    private final String invokedFunctionArn;
+
+    public RuntimeApiExecutionContext(String id, String input, String inputMimeType, long deadline, String invokedFunctionArn) {
+        this(id, input, null, inputMimeType, deadline, invokedFunctionArn);
+    }
+
+    public RuntimeApiExecutionContext(String id, InputSpooler.SpooledInput spooledInput, String inputMimeType, long deadline, String invokedFunctionArn) {
+        this(id, null, spooledInput, inputMimeType, deadline, invokedFunctionArn);
+    }
+
+    private RuntimeApiExecutionContext(String id, String input, InputSpooler.SpooledInput spooledInput, String inputMimeType, long deadline, String invokedFunctionArn) {
+        this.id = Utils.StringUtils.requireNonBlank(id);
+        this.input = input;
+        this.spooledInput = spooledInput;
+        this.inputMimeType = inputMimeType;
+        this.deadline = deadline;
+        this.invokedFunctionArn = invokedFunctionArn;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getInput() {
+        return input;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return spooledInput == null ? ExecutionContext.super.getInputStream() : spooledInput.getInputStream();
+    }
+
+    /**
+     * @return SpooledInput the input spooled at ingestion, null when the input is textual
+     */
+    public InputSpooler.SpooledInput getSpooledInput() {
+        return spooledInput;
+    }
+
+    @Override
+    public String getInputMimeType() {
+        return inputMimeType;
+    }
+
+    @Override
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public String getInvokedFunctionArn() {
+        return invokedFunctionArn;
+    }
+
+    /**
+     * Delete the spooled input, if any.
+     */
+    @Override
+    public void recycle() {
+        if (spooledInput != null) {
+            spooledInput.close();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package io.abstractor.lambda.runtime.emulator;
+
+/**
+ * A log-linear histogram of latencies (in microseconds), exact below 1024 microseconds and within 0.2% above.
+ * Recording is constant time and allocation free. Not thread safe.
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKETS = 512;
+    private static final int EXACT = 2 * SUB_BUCKETS;
+
+    private final long[] counts = new long[54 * SUB_BUCKETS + EXACT];
+    private long totalCount = 0;
+    private long maximum = 0;
+
+    static int bucketOf(long micros) {
+        if (micros < EXACT) {
+            return (int)micros;
+        }
+
+        // Keeps the 10 most significant bits of the value.
+        final int shift = 63 - Long.numberOfLeadingZeros(micros) - 9;
+
+        return shift * SUB_BUCKETS + (int)(micros >>> shift);
+    }
+
+    static long lowestValueOf(int bucket) {
+        if (bucket < EXACT) {
+            return bucket;
+        }
+
+        final int shift = bucket / SUB_BUCKETS - 1;
+
+        return (long)(bucket - shift * SUB_BUCKETS) << shift;
+    }
+
+    void record(long micros) {
+        final long value = Math.max(0, micros);
+
+        counts[bucketOf(value)] += 1;
+        totalCount += 1;
+        maximum = Math.max(maximum, value);
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    long getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * @param percentile a percentile between 0 and 100
+     * @return long the latency (in microseconds) at or below which the given percentile of latencies fall
+     */
+    long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long)Math.ceil(totalCount * percentile / 100));
+
+        long count = 0;
+
+        for (int bucket = 0; bucket < counts.length; bucket += 1) {
+            count += counts[bucket];
+
+            if (count >= rank) {
+                return Math.min(maximum, lowestValueOf(bucket));
+            }
+        }
+
+        return maximum;
+    }
+}
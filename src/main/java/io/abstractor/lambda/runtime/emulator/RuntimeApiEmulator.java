@@ -0,0 +1,804 @@
+package io.abstractor.lambda.runtime.emulator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A local server speaking the next / response / error endpoints of the Lambda Runtime API, for load testing a
+ * runtime end to end on a single box.
+ *
+ * Inputs are taken from a generator, an invocation is handed to the first poller waiting on the next endpoint and
+ * its latency is measured from dispatch until its response (or error) was posted. Once the generator is exhausted
+ * (it returned null) or the maximum number of invocations was dispatched, pollers are held like idle Lambda
+ * environments do. A single selector thread serves every connection, keep-alive connections included.
+ */
+public class RuntimeApiEmulator implements Closeable {
+    private static final Logger logger = LogManager.getLogger(RuntimeApiEmulator.class);
+
+    private static final String NEXT_PATH = "/2018-06-01/runtime/invocation/next";
+    private static final String INVOCATION_PATH = "/2018-06-01/runtime/invocation/";
+    private static final String INIT_ERROR_PATH = "/2018-06-01/runtime/init/error";
+    private static final byte[] ACCEPTED_BODY = "{\"status\":\"OK\"}".getBytes(StandardCharsets.UTF_8);
+    private static final int MAX_HEAD_SIZE = 16 * 1024;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Supplier<String> inputGenerator;
+    private final String inputMimeType;
+    private final long timeoutMillis;
+    private final long maximumInvocations;
+    private final String functionArn;
+    private final Thread thread;
+
+    // Only accessed by the selector thread
+    private final ArrayDeque<Connection> pollers = new ArrayDeque<>();
+    private final Map<String, Long> inFlight = new HashMap<>();
+    private boolean exhausted = false;
+
+    // Guarded by this
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private long dispatchedCount = 0;
+    private long errorCount = 0;
+    private long initErrorCount = 0;
+    private long firstDispatchNanos = 0;
+    private long lastCompletionNanos = 0;
+
+    private volatile boolean running = true;
+
+    private RuntimeApiEmulator(Builder builder) throws IOException {
+        this.inputGenerator = Objects.requireNonNull(builder.inputGenerator);
+        this.inputMimeType = builder.inputMimeType;
+        this.timeoutMillis = builder.timeout.toMillis();
+        this.maximumInvocations = builder.maximumInvocations;
+        this.functionArn = builder.functionArn;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+
+        try {
+            serverChannel.bind(new InetSocketAddress(builder.host, builder.port), builder.backlog);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        }
+        catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+
+            throw e;
+        }
+
+        this.thread = new Thread(this::run, "lambda-runtime-api-emulator");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return String the address of the emulator as expected in AWS_LAMBDA_RUNTIME_API ("host:port")
+     */
+    public String getRuntimeApi() {
+        try {
+            final InetSocketAddress address = (InetSocketAddress)serverChannel.getLocalAddress();
+
+            return address.getHostString() + ":" + address.getPort();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized Stats getStats() {
+        final long elapsedNanos = lastCompletionNanos - firstDispatchNanos;
+        final long completedCount = latencies.getTotalCount();
+
+        return new Stats(
+            dispatchedCount,
+            completedCount,
+            errorCount,
+            initErrorCount,
+            elapsedNanos > 0 ? completedCount * 1e9 / elapsedNanos : 0,
+            latencies.getValueAtPercentile(50),
+            latencies.getValueAtPercentile(90),
+            latencies.getValueAtPercentile(99),
+            latencies.getValueAtPercentile(99.9),
+            latencies.getMaximum()
+        );
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+
+        selector.wakeup();
+
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+
+                    keys.remove();
+
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+
+                        if (key.isAcceptable()) {
+                            accept();
+                        }
+                        else {
+                            final Connection connection = (Connection)key.attachment();
+
+                            if (key.isWritable()) {
+                                connection.flush();
+                            }
+
+                            if (key.isValid() && key.isReadable()) {
+                                connection.read();
+                            }
+                        }
+                    }
+                    catch (IOException | RuntimeException e) {
+                        if (key.channel() == serverChannel) {
+                            logger.warn("An error occurred while accepting a connection", e);
+                        }
+                        else {
+                            logger.debug("Closing connection after an error", e);
+
+                            close(key);
+                        }
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            logger.error("Runtime API emulator stopped after an error", e);
+        }
+        finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+
+            try {
+                selector.close();
+            }
+            catch (IOException e) {
+                logger.debug("An error occurred while closing the selector", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        final SocketChannel channel = serverChannel.accept();
+
+        if (channel == null) {
+            return;
+        }
+
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+
+        final SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+
+        key.attach(new Connection(channel, key));
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+
+        if (key.attachment() instanceof Connection) {
+            pollers.remove(key.attachment());
+        }
+
+        try {
+            key.channel().close();
+        }
+        catch (IOException e) {
+            logger.debug("An error occurred while closing a channel", e);
+        }
+    }
+
+    private void handle(Connection connection, String method, String path, byte[] body) throws IOException {
+        if ("GET".equals(method) && NEXT_PATH.equals(path)) {
+            pollers.add(connection);
+
+            connection.parked = true;
+
+            dispatch();
+
+            return;
+        }
+
+        if ("POST".equals(method) && INIT_ERROR_PATH.equals(path)) {
+            synchronized (this) {
+                initErrorCount += 1;
+            }
+
+            connection.respond(202, "Accepted", "application/json", ACCEPTED_BODY, null);
+
+            return;
+        }
+
+        if ("POST".equals(method) && path.startsWith(INVOCATION_PATH)) {
+            final String rest = path.substring(INVOCATION_PATH.length());
+            final int slash = rest.indexOf('/');
+            final String id = slash < 0 ? rest : rest.substring(0, slash);
+            final String action = slash < 0 ? "" : rest.substring(slash + 1);
+
+            if (action.equals("response") || action.equals("error")) {
+                final Long dispatchNanos = inFlight.remove(id);
+
+                if (dispatchNanos == null) {
+                    connection.respond(400, "Bad Request", "application/json", error("InvalidRequestID", "unknown or completed request id " + id), null);
+
+                    return;
+                }
+
+                final long now = System.nanoTime();
+
+                synchronized (this) {
+                    latencies.record(TimeUnit.NANOSECONDS.toMicros(now - dispatchNanos));
+                    lastCompletionNanos = now;
+
+                    if (action.equals("error")) {
+                        errorCount += 1;
+                    }
+                }
+
+                connection.respond(202, "Accepted", "application/json", ACCEPTED_BODY, null);
+
+                return;
+            }
+        }
+
+        connection.respond(404, "Not Found", "application/json", error("NotFound", method + " " + path), null);
+    }
+
+    private void dispatch() throws IOException {
+        while (!pollers.isEmpty() && !exhausted) {
+            final String input;
+
+            synchronized (this) {
+                input = dispatchedCount < maximumInvocations ? inputGenerator.get() : null;
+            }
+
+            if (input == null) {
+                exhausted = true;
+
+                logger.debug("Inputs exhausted, {} pollers held", pollers.size());
+
+                return;
+            }
+
+            final Connection connection = pollers.poll();
+            final long now = System.nanoTime();
+            final String id;
+
+            synchronized (this) {
+                if (dispatchedCount == 0) {
+                    firstDispatchNanos = now;
+                }
+
+                dispatchedCount += 1;
+
+                id = String.format("00000000-0000-4000-8000-%012x", dispatchedCount);
+            }
+
+            inFlight.put(id, now);
+
+            final Map<String, String> headers = new HashMap<>();
+
+            headers.put("Lambda-Runtime-Aws-Request-Id", id);
+            headers.put("Lambda-Runtime-Deadline-Ms", Long.toString(System.currentTimeMillis() + timeoutMillis));
+            headers.put("Lambda-Runtime-Invoked-Function-Arn", functionArn);
+
+            connection.parked = false;
+            connection.respond(200, "OK", inputMimeType, input.getBytes(StandardCharsets.UTF_8), headers);
+        }
+    }
+
+    private static byte[] error(String errorType, String errorMessage) {
+        return String.format("{\"errorType\":\"%s\",\"errorMessage\":\"%s\"}", errorType, errorMessage.replace("\"", "'")).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * An HTTP/1.1 connection, requests are handled one at a time in the order they were received.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+
+        private ByteBuffer in = ByteBuffer.allocate(8192);
+        private boolean parked = false;
+        private boolean closeAfterFlush = false;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void read() throws IOException {
+            if (!in.hasRemaining()) {
+                final ByteBuffer grown = ByteBuffer.allocate(in.capacity() * 2);
+
+                in.flip();
+                grown.put(in);
+
+                in = grown;
+            }
+
+            if (channel.read(in) < 0) {
+                close(key);
+
+                return;
+            }
+
+            process();
+        }
+
+        private void process() throws IOException {
+            while (!parked && key.isValid()) {
+                final int headEnd = indexOfHeadEnd();
+
+                if (headEnd < 0) {
+                    if (in.position() > MAX_HEAD_SIZE) {
+                        throw new IOException("request head too large");
+                    }
+
+                    return;
+                }
+
+                final String head = new String(in.array(), 0, headEnd, StandardCharsets.ISO_8859_1);
+                final String[] lines = head.split("\r\n");
+                final String[] requestLine = lines[0].split(" ");
+
+                if (requestLine.length < 3) {
+                    throw new IOException("malformed request line " + lines[0]);
+                }
+
+                int contentLength = 0;
+                boolean chunked = false;
+
+                for (int i = 1; i < lines.length; i += 1) {
+                    final int colon = lines[i].indexOf(':');
+
+                    if (colon < 0) {
+                        continue;
+                    }
+
+                    final String name = lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                    final String value = lines[i].substring(colon + 1).trim();
+
+                    if (name.equals("content-length")) {
+                        contentLength = Integer.parseInt(value);
+                    }
+                    else if (name.equals("transfer-encoding")) {
+                        if (!value.equalsIgnoreCase("chunked")) {
+                            throw new IOException("transfer encoding " + value + " is not supported");
+                        }
+
+                        chunked = true;
+                    }
+                    else if (name.equals("connection") && value.equalsIgnoreCase("close")) {
+                        closeAfterFlush = true;
+                    }
+                }
+
+                final int requestEnd;
+                final byte[] body;
+
+                if (chunked) {
+                    final ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+
+                    requestEnd = readChunks(headEnd + 4, chunks);
+
+                    // Incomplete, the buffer grows once full
+                    if (requestEnd < 0) {
+                        return;
+                    }
+
+                    body = chunks.toByteArray();
+                }
+                else {
+                    requestEnd = headEnd + 4 + contentLength;
+
+                    if (in.position() < requestEnd) {
+                        if (requestEnd > in.capacity()) {
+                            final ByteBuffer grown = ByteBuffer.allocate(requestEnd);
+
+                            in.flip();
+                            grown.put(in);
+
+                            in = grown;
+                        }
+
+                        return;
+                    }
+
+                    body = new byte[contentLength];
+
+                    System.arraycopy(in.array(), headEnd + 4, body, 0, contentLength);
+                }
+
+                // Compact the buffer, pipelined requests stay queued
+                final int remaining = in.position() - requestEnd;
+
+                System.arraycopy(in.array(), requestEnd, in.array(), 0, remaining);
+
+                in.position(remaining);
+
+                final String path = requestLine[1];
+                final int query = path.indexOf('?');
+
+                handle(this, requestLine[0], query < 0 ? path : path.substring(0, query), body);
+            }
+        }
+
+        /**
+         * Decode a chunked body (trailers are not supported).
+         *
+         * @return int the end of the request, or -1 when the body was not fully received yet
+         */
+        private int readChunks(int offset, ByteArrayOutputStream body) throws IOException {
+            final byte[] bytes = in.array();
+
+            while (true) {
+                final int lineEnd = indexOfLineEnd(offset);
+
+                if (lineEnd < 0) {
+                    return -1;
+                }
+
+                final String sizeLine = new String(bytes, offset, lineEnd - offset, StandardCharsets.ISO_8859_1);
+                final int extension = sizeLine.indexOf(';');
+                final int size;
+
+                try {
+                    size = Integer.parseInt((extension < 0 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+                }
+                catch (NumberFormatException e) {
+                    throw new IOException("malformed chunk size " + sizeLine);
+                }
+
+                final int chunkEnd = lineEnd + 2 + size;
+
+                if (in.position() < chunkEnd + 2) {
+                    return -1;
+                }
+
+                if (size == 0) {
+                    return chunkEnd + 2;
+                }
+
+                body.write(bytes, lineEnd + 2, size);
+
+                offset = chunkEnd + 2;
+            }
+        }
+
+        private int indexOfLineEnd(int offset) {
+            final byte[] bytes = in.array();
+
+            for (int i = offset; i + 1 < in.position(); i += 1) {
+                if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        private int indexOfHeadEnd() {
+            final byte[] bytes = in.array();
+
+            for (int i = 0; i + 3 < in.position(); i += 1) {
+                if (bytes[i] == '\r' && bytes[i + 1] == '\n' && bytes[i + 2] == '\r' && bytes[i + 3] == '\n') {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        void respond(int status, String reason, String contentType, byte[] body, Map<String, String> headers) throws IOException {
+            final StringBuilder head = new StringBuilder(256);
+
+            head.append("HTTP/1.1 ").append(status).append(' ').append(reason).append("\r\n");
+            head.append("Content-Length: ").append(body.length).append("\r\n");
+
+            if (contentType != null) {
+                head.append("Content-Type: ").append(contentType).append("\r\n");
+            }
+
+            if (headers != null) {
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+                }
+            }
+
+            if (closeAfterFlush) {
+                head.append("Connection: close\r\n");
+            }
+
+            head.append("\r\n");
+
+            pending.add(ByteBuffer.wrap(head.toString().getBytes(StandardCharsets.ISO_8859_1)));
+            pending.add(ByteBuffer.wrap(body));
+
+            flush();
+
+            // A poller parked while the previous request was handled resumes with the requests it pipelined.
+            if (key.isValid()) {
+                process();
+            }
+        }
+
+        void flush() throws IOException {
+            while (!pending.isEmpty()) {
+                final ByteBuffer buffer = pending.peek();
+
+                channel.write(buffer);
+
+                if (buffer.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+
+                    return;
+                }
+
+                pending.poll();
+            }
+
+            key.interestOps(SelectionKey.OP_READ);
+
+            if (closeAfterFlush) {
+                close(key);
+            }
+        }
+    }
+
+    /**
+     * A snapshot of the invocations served so far, latencies are in microseconds.
+     */
+    public static final class Stats {
+        private final long dispatchedCount;
+        private final long completedCount;
+        private final long errorCount;
+        private final long initErrorCount;
+        private final double throughput;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+        private final long maximum;
+
+        private Stats(long dispatchedCount, long completedCount, long errorCount, long initErrorCount, double throughput,
+                      long p50, long p90, long p99, long p999, long maximum) {
+            this.dispatchedCount = dispatchedCount;
+            this.completedCount = completedCount;
+            this.errorCount = errorCount;
+            this.initErrorCount = initErrorCount;
+            this.throughput = throughput;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.maximum = maximum;
+        }
+
+        public long getDispatchedCount() {
+            return dispatchedCount;
+        }
+
+        /**
+         * @return long the number of invocations whose response or error was posted
+         */
+        public long getCompletedCount() {
+            return completedCount;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public long getInitErrorCount() {
+            return initErrorCount;
+        }
+
+        /**
+         * @return double completed invocations per second, from the first dispatch until the last completion
+         */
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public long getMaximum() {
+            return maximum;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "dispatched=%d completed=%d errors=%d initErrors=%d throughput=%.1f/s p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus",
+                dispatchedCount, completedCount, errorCount, initErrorCount, throughput, p50, p90, p99, p999, maximum
+            );
+        }
+    }
+
+    public static class Builder {
+        private String host = "127.0.0.1";
+        private int port = 0;
+        private int backlog = 1024;
+        private Supplier<String> inputGenerator;
+        private String inputMimeType = "application/json";
+        private Duration timeout = Duration.ofSeconds(3);
+        private long maximumInvocations = Long.MAX_VALUE;
+        private String functionArn = "arn:aws:lambda:us-east-1:000000000000:function:emulated";
+
+        public Builder setHost(String host) {
+            this.host = host;
+
+            return this;
+        }
+
+        /**
+         * @param port the port to listen on, 0 picks a free port
+         * @return Builder this builder
+         */
+        public Builder setPort(int port) {
+            this.port = port;
+
+            return this;
+        }
+
+        public Builder setBacklog(int backlog) {
+            this.backlog = backlog;
+
+            return this;
+        }
+
+        /**
+         * @param inputGenerator supplies the input of each invocation, null once exhausted
+         * @return Builder this builder
+         */
+        public Builder setInputGenerator(Supplier<String> inputGenerator) {
+            this.inputGenerator = inputGenerator;
+
+            return this;
+        }
+
+        /**
+         * Serve the non blank lines of a file as inputs, over and over.
+         *
+         * @param file a file with an input per line (JSON lines for instance)
+         * @return Builder this builder
+         * @throws IOException in case the file could not be read
+         */
+        public Builder setInputFile(Path file) throws IOException {
+            final List<String> inputs;
+
+            try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+                inputs = lines.filter(line -> !line.trim().isEmpty()).collect(Collectors.toCollection(ArrayList::new));
+            }
+
+            if (inputs.isEmpty()) {
+                throw new IllegalArgumentException(file + " has no inputs");
+            }
+
+            final int[] next = {0};
+
+            return setInputGenerator(() -> inputs.get(next[0]++ % inputs.size()));
+        }
+
+        public Builder setInputMimeType(String inputMimeType) {
+            this.inputMimeType = inputMimeType;
+
+            return this;
+        }
+
+        /**
+         * @param timeout the function timeout, sets the deadline of each invocation
+         * @return Builder this builder
+         */
+        public Builder setTimeout(Duration timeout) {
+            this.timeout = Objects.requireNonNull(timeout);
+
+            return this;
+        }
+
+        public Builder setMaximumInvocations(long maximumInvocations) {
+            this.maximumInvocations = maximumInvocations;
+
+            return this;
+        }
+
+        public Builder setFunctionArn(String functionArn) {
+            this.functionArn = functionArn;
+
+            return this;
+        }
+
+        public RuntimeApiEmulator build() throws IOException {
+            return new RuntimeApiEmulator(this);
+        }
+    }
+
+    /**
+     * Serve the inputs of a file until interrupted, printing stats every second.
+     *
+     * @param args the port and the input file
+     * @throws Exception in case the emulator could not be started
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("usage: RuntimeApiEmulator <port> <input file>");
+            System.exit(2);
+        }
+
+        try (RuntimeApiEmulator emulator = new Builder().setPort(Integer.parseInt(args[0])).setInputFile(Paths.get(args[1])).build()) {
+            System.out.println("AWS_LAMBDA_RUNTIME_API=" + emulator.getRuntimeApi());
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.sleep(1000);
+
+                System.out.println(emulator.getStats());
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package io.abstractor.lambda.runtime.emulator;
+
+import io.abstractor.lambda.runtime.LambdaRuntime;
+import io.abstractor.lambda.runtime.adapter.LambdaMethodExecutor;
+import io.abstractor.lambda.runtime.adapter.LambdaMethodSupplier;
+import io.abstractor.lambda.runtime.adapter.RuntimeApiClient;
+import io.abstractor.lambda.runtime.adapter.RuntimeApiExecutionContext;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Primes a handler with sample inputs through the same path a Lambda environment takes (Runtime API client,
+ * method lookup, deserialization, execution and relay) and exits, so the JVM can record the classes loaded on
+ * the way. Run it with -XX:ArchiveClassesAtExit (JDK 13+) to produce a dynamic AppCDS archive, or with
+ * -XX:DumpLoadedClassList to produce a class list.
+ */
+public final class TrainingRun {
+    private static final Logger logger = LogManager.getLogger(TrainingRun.class);
+
+    private TrainingRun() {}
+
+    /**
+     * Execute invocations against a local Runtime API emulator serving the sample inputs.
+     * Failing invocations are relayed as errors and still count, the error path is worth training too.
+     *
+     * @param handler the handler fully qualified method name, as in _HANDLER ("package.Class.method")
+     * @param sampleInputs a file with an input per line, served over and over
+     * @param invocations the number of invocations to execute
+     * @return RuntimeApiEmulator.Stats the invocations served
+     * @throws IOException in case the emulator could not be started
+     */
+    public static RuntimeApiEmulator.Stats train(String handler, Path sampleInputs, int invocations) throws IOException {
+        try (RuntimeApiEmulator emulator = new RuntimeApiEmulator.Builder().setInputFile(sampleInputs).setMaximumInvocations(invocations).build()) {
+            final RuntimeApiClient runtimeApiClient = new RuntimeApiClient(emulator.getRuntimeApi());
+            final LambdaRuntime<RuntimeApiExecutionContext> lambdaRuntime = new LambdaRuntime.Builder<RuntimeApiExecutionContext>()
+                .setMethodSupplier(new LambdaMethodSupplier(handler))
+                .setMethodExecutor(new LambdaMethodExecutor<>())
+                .setExecutionRelay(runtimeApiClient)
+                .setExecutionContextSupplier(runtimeApiClient)
+                .build();
+
+            for (int i = 0; i < invocations; i += 1) {
+                try {
+                    lambdaRuntime.exec();
+                }
+                catch (Exception e) {
+                    logger.debug("Training invocation failed", e);
+                }
+            }
+
+            return emulator.getStats();
+        }
+    }
+
+    /**
+     * @param args the handler, the sample inputs file and optionally the number of invocations (100 by default)
+     * @throws Exception in case the training run could not be started
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("usage: TrainingRun <handler> <sample inputs file> [invocations]");
+            System.exit(2);
+        }
+
+        final int invocations = args.length == 3 ? Integer.parseInt(args[2]) : 100;
+
+        System.out.println(train(args[0], Paths.get(args[1]), invocations));
+
+        // Daemon threads aside, exiting explicitly is what triggers the archive dump
+        System.exit(0);
+    }
+}
@@ -0,0 +1,49 @@
+package io.abstractor.lambda.runtime.jfr;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+
+/**
+ * Java Flight Recorder events of the phases of an execution cycle.
+ *
+ * This is the Java 8 version, every method is a no-op. On Java 11+ the multi-release jar supplies a version
+ * committing JFR events ("io.abstractor.lambda.*"), which only allocates while the events are enabled.
+ *
+ * <pre>
+ * final Object event = InvocationEvents.begin(InvocationEvents.Phase.INVOCATION);
+ * ...
+ * InvocationEvents.end(event, executionContext, null);
+ * </pre>
+ */
+public final class InvocationEvents {
+    public enum Phase {
+        CONTEXT_FETCH,
+        DESERIALIZATION,
+        INVOCATION,
+        RELAY
+    }
+
+    private InvocationEvents() {}
+
+    /**
+     * @param phase the phase starting
+     * @return Object the started event or null when the phase is not recorded
+     */
+    public static Object begin(Phase phase) {
+        return null;
+    }
+
+    /**
+     * @param event the event returned by {@link #begin(Phase)}
+     * @param executionContext the execution context the phase worked on (may be null)
+     * @param detail the parameter type of a deserialization (may be null)
+     */
+    public static void end(Object event, ExecutionContext executionContext, String detail) {}
+
+    /**
+     * @param event the relay event returned by {@link #begin(Phase)}
+     * @param executionId the id of the relayed execution
+     * @param executionResult the relayed execution result (null when an exception was relayed)
+     */
+    public static void end(Object event, String executionId, ExecutionResult executionResult) {}
+}
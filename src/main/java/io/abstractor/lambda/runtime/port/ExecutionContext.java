@@ -1,5 +1,10 @@
 package io.abstractor.lambda.runtime.port;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import java.nio.charset.StandardCharsets;
+
 /**
  * An object holding information regarding the current execution cycle of a method
  */
@@ -18,6 +23,29 @@ public interface ExecutionContext {
      */
     String getInput();
 
+    /**
+     * @return InputStream the raw bytes of the current execution cycle input (UTF-8 encoded input by default)
+     *
+     * Execution contexts carrying binary input (Smile or CBOR for instance) should override this method.
+     * Every call must return a new stream over the whole input, the input may be read by decorators (a journal for
+     * instance) before the handler reads it.
+     * This method may return null
+     */
+    default InputStream getInputStream() {
+        final String input = getInput();
+
+        return input == null ? null : new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return String the content encoding of the input stream ("gzip" or "deflate" for instance)
+     *
+     * This method may return null, in which case the input is not encoded.
+     */
+    default String getInputContentEncoding() {
+        return null;
+    }
+
     /**
      * @return String the mime type of the input (application/json for instance)
      *
@@ -25,6 +53,24 @@ public interface ExecutionContext {
      */
     String getInputMimeType();
 
+    /**
+     * @return String the key of the route (handler) this execution cycle is dispatched to
+     *
+     * This method may return null, in which case the default handler is used.
+     */
+    default String getRouteKey() {
+        return null;
+    }
+
+    /**
+     * @return long the time (milliseconds since the epoch) by which the execution cycle must be relayed
+     *
+     * This method returns 0 when the execution cycle has no deadline.
+     */
+    default long getDeadline() {
+        return 0;
+    }
+
     default boolean isJson() {
         final String mimeType = getInputMimeType();
 
@@ -0,0 +1,16 @@
+package io.abstractor.lambda.runtime.port;
+
+import java.lang.reflect.Method;
+
+/**
+ * Wraps method executions with a cross-cutting concern (auth checks, validation, tracing, metrics...).
+ *
+ * An interceptor either proceeds by calling {@code next.exec(method, executionContext)}, possibly acting on the
+ * execution result or failure, or short-circuits by returning a result or throwing without calling it.
+ *
+ * @param <T> type / sub-type of execution context
+ */
+@FunctionalInterface
+public interface ExecutionInterceptor<T extends ExecutionContext> {
+    ExecutionResult intercept(Method method, T executionContext, MethodExecutor<T> next);
+}
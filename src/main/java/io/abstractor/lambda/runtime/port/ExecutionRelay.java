@@ -13,6 +13,17 @@ import java.net.URL;
 public interface ExecutionRelay<T extends ExecutionContext> {
 	void relayExecutionResult(ExecutionResult executionResult);
 
+	/**
+	 * Relay an execution result whose value can be encoded straight to the relay output channel.
+	 * Relays unable to take advantage of an encoder relay the execution result as is.
+	 *
+	 * @param executionResult the execution result
+	 * @param resultEncoder the encoder of the method which produced the execution value
+	 */
+	default void relayExecutionResult(ExecutionResult executionResult, ResultEncoder resultEncoder) {
+		relayExecutionResult(executionResult);
+	}
+
 	void relayExecutionException(Throwable e, T executionContext);
 
 	void relayInitException(Throwable e);
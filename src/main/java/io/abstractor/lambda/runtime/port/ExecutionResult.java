@@ -17,4 +17,22 @@ public interface ExecutionResult {
      * This method may return null.
      */
     Object getExecutionValue();
+
+    /**
+     * @return String the content encoding of the execution value ("gzip" for instance)
+     *
+     * This method may return null, in which case the execution value is not encoded.
+     */
+    default String getContentEncoding() {
+        return null;
+    }
+
+    /**
+     * @return String the media type of the execution value, once decoded ("application/json" for instance)
+     *
+     * This method may return null, in which case relays derive the media type from the execution value.
+     */
+    default String getContentType() {
+        return null;
+    }
 }
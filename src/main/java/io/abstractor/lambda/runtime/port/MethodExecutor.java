@@ -4,4 +4,12 @@ import java.lang.reflect.Method;
 
 public interface MethodExecutor<T extends ExecutionContext> {
     ExecutionResult exec(Method method, T executionContext);
+
+    /**
+     * Called by the runtime at startup for every method it may execute,
+     * allowing an executor to resolve ahead of time whatever a method execution needs.
+     *
+     * @param method a method that may be executed later on
+     */
+    default void prepare(Method method) {}
 }
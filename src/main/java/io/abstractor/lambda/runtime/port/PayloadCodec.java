@@ -0,0 +1,39 @@
+package io.abstractor.lambda.runtime.port;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes an execution context input of a given media type into objects.
+ */
+public interface PayloadCodec {
+    /**
+     * @param <R> The expected type of the decoded object
+     * @param cls A class reference of type R
+     * @param inputStream the raw input
+     * @return R the decoded object
+     * @throws IOException in case the input could not be decoded
+     */
+    <R> R decode(Class<R> cls, InputStream inputStream) throws IOException;
+
+    /**
+     * @param <R> The expected type of the decoded object
+     * @param cls A class reference of type R
+     * @param input the input
+     * @return R the decoded object
+     * @throws IOException in case the input could not be decoded
+     */
+    default <R> R decode(Class<R> cls, String input) throws IOException {
+        return decode(cls, new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @return boolean whether the media type is binary, binary inputs are read from {@link ExecutionContext#getInputStream()}
+     */
+    default boolean isBinary() {
+        return false;
+    }
+}
@@ -0,0 +1,14 @@
+package io.abstractor.lambda.runtime.port;
+
+/**
+ * An object whose ownership is scoped to a single execution cycle and which may be reused once that cycle ended.
+ *
+ * The runtime recycles execution contexts and execution results implementing this interface
+ * once they were relayed. References to a recycled object must not be kept.
+ */
+public interface Recyclable {
+    /**
+     * Release this object back to its owner, after this call the object state is undefined.
+     */
+    void recycle();
+}
@@ -0,0 +1,31 @@
+package io.abstractor.lambda.runtime.port;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes execution values straight to a relay output channel, sparing relays an intermediate serialization.
+ * The runtime hands relays the encoder of the method that produced the execution value.
+ */
+public interface ResultEncoder {
+    /**
+     * @param value an execution value (may be null)
+     * @return String the media type of the encoded value
+     */
+    String getContentType(Object value);
+
+    /**
+     * @param value an execution value (may be null)
+     * @return long the length of the encoded value in bytes, or -1 when it is only known once encoded
+     */
+    default long getContentLength(Object value) {
+        return -1;
+    }
+
+    /**
+     * @param value an execution value (may be null)
+     * @param outputStream where the encoded value is written to, it is left open
+     * @throws IOException in case writing failed
+     */
+    void encode(Object value, OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,141 @@
+package io.abstractor.lambda.runtime.jfr;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of the phases of an execution cycle (Java 11+ version).
+ *
+ * Events are only allocated while their type is enabled in a recording, the payload length of an execution
+ * context is the length of its input (in chars, no bytes are counted as none are encoded).
+ */
+public final class InvocationEvents {
+    public enum Phase {
+        CONTEXT_FETCH,
+        DESERIALIZATION,
+        INVOCATION,
+        RELAY
+    }
+
+    private static final EventType CONTEXT_FETCH = EventType.getEventType(ContextFetchEvent.class);
+    private static final EventType DESERIALIZATION = EventType.getEventType(DeserializationEvent.class);
+    private static final EventType INVOCATION = EventType.getEventType(InvocationEvent.class);
+    private static final EventType RELAY = EventType.getEventType(RelayEvent.class);
+
+    private InvocationEvents() {}
+
+    public static Object begin(Phase phase) {
+        final PhaseEvent event;
+
+        switch (phase) {
+            case CONTEXT_FETCH:
+                event = CONTEXT_FETCH.isEnabled() ? new ContextFetchEvent() : null;
+                break;
+            case DESERIALIZATION:
+                event = DESERIALIZATION.isEnabled() ? new DeserializationEvent() : null;
+                break;
+            case INVOCATION:
+                event = INVOCATION.isEnabled() ? new InvocationEvent() : null;
+                break;
+            default:
+                event = RELAY.isEnabled() ? new RelayEvent() : null;
+        }
+
+        if (event != null) {
+            event.begin();
+        }
+
+        return event;
+    }
+
+    public static void end(Object event, ExecutionContext executionContext, String detail) {
+        if (event == null) {
+            return;
+        }
+
+        final PhaseEvent phaseEvent = (PhaseEvent)event;
+
+        phaseEvent.end();
+
+        if (phaseEvent.shouldCommit()) {
+            if (executionContext != null) {
+                final String input = executionContext.getInput();
+
+                phaseEvent.executionId = executionContext.getId();
+                phaseEvent.payloadLength = input == null ? -1 : input.length();
+            }
+
+            if (phaseEvent instanceof DeserializationEvent) {
+                ((DeserializationEvent)phaseEvent).parameterType = detail;
+            }
+
+            phaseEvent.commit();
+        }
+    }
+
+    public static void end(Object event, String executionId, ExecutionResult executionResult) {
+        if (event == null) {
+            return;
+        }
+
+        final PhaseEvent phaseEvent = (PhaseEvent)event;
+
+        phaseEvent.end();
+
+        if (phaseEvent.shouldCommit()) {
+            final Object value = executionResult == null ? null : executionResult.getExecutionValue();
+
+            phaseEvent.executionId = executionId;
+
+            if (value instanceof String) {
+                phaseEvent.payloadLength = ((String)value).length();
+            }
+            else if (value instanceof byte[]) {
+                phaseEvent.payloadLength = ((byte[])value).length;
+            }
+            else {
+                phaseEvent.payloadLength = -1;
+            }
+
+            phaseEvent.commit();
+        }
+    }
+
+    @Category({"Lambda", "Runtime"})
+    @StackTrace(false)
+    abstract static class PhaseEvent extends Event {
+        @Label("Execution Id")
+        String executionId;
+
+        @Label("Payload Length")
+        @Description("Length of the input (or relayed value), in chars for text and in bytes for binary values, -1 when unknown")
+        long payloadLength = -1;
+    }
+
+    @Name("io.abstractor.lambda.ContextFetch")
+    @Label("Execution Context Fetch")
+    static final class ContextFetchEvent extends PhaseEvent {}
+
+    @Name("io.abstractor.lambda.Deserialization")
+    @Label("Argument Deserialization")
+    static final class DeserializationEvent extends PhaseEvent {
+        @Label("Parameter Type")
+        String parameterType;
+    }
+
+    @Name("io.abstractor.lambda.Invocation")
+    @Label("Handler Invocation")
+    static final class InvocationEvent extends PhaseEvent {}
+
+    @Name("io.abstractor.lambda.Relay")
+    @Label("Execution Relay")
+    static final class RelayEvent extends PhaseEvent {}
+}
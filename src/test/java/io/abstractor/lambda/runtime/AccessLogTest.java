@@ -0,0 +1,193 @@
+package io.abstractor.lambda.runtime;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.AppenderRef;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AccessLogTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static ExecutionResult executionResult(Object value) {
+        return new ExecutionResult() {
+            @Override
+            public String getExecutionId() {
+                return "id";
+            }
+
+            @Override
+            public Object getExecutionValue() {
+                return value;
+            }
+        };
+    }
+
+    private static String[] lines(ByteArrayOutputStream outputStream) {
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n");
+    }
+
+    @Test
+    void recordsAreJsonLines() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final SettableExecutionContext executionContext = new SettableExecutionContext("{\"a\":1}", "application/json");
+
+        try (AccessLog accessLog = new AccessLog(outputStream, 16)) {
+            accessLog.log(executionContext, executionResult(new byte[42]), AccessLog.Outcome.SUCCESS, TimeUnit.MICROSECONDS.toNanos(1234), TimeUnit.MICROSECONDS.toNanos(56));
+            accessLog.log(executionContext, null, AccessLog.Outcome.EXECUTION_FAILURE, 0, 0);
+        }
+
+        final String[] lines = lines(outputStream);
+
+        assertEquals(2, lines.length);
+
+        final JsonNode success = objectMapper.readTree(lines[0]);
+
+        assertTrue(success.get("ts").asLong() > 0);
+        assertEquals(executionContext.getId(), success.get("id").asText());
+        assertEquals("application/json", success.get("mime").asText());
+        assertEquals(7, success.get("inputLength").asInt());
+        assertEquals(42, success.get("outputLength").asInt());
+        assertEquals(1234, success.get("executionMicros").asLong());
+        assertEquals(56, success.get("relayMicros").asLong());
+        assertEquals("success", success.get("outcome").asText());
+
+        final JsonNode failure = objectMapper.readTree(lines[1]);
+
+        assertTrue(failure.get("outputLength").isNull());
+        assertEquals("error", failure.get("outcome").asText());
+    }
+
+    @Test
+    void stringsAreEscaped() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final String mimeType = "q\"b\\s\n\u00e9\u20ac\ud83d\ude00";
+
+        try (AccessLog accessLog = new AccessLog(outputStream, 1)) {
+            accessLog.log(new SettableExecutionContext(null, mimeType), executionResult("output"), AccessLog.Outcome.RELAY_FAILURE, 0, 0);
+        }
+
+        final JsonNode record = objectMapper.readTree(lines(outputStream)[0]);
+
+        assertEquals(mimeType, record.get("mime").asText());
+        assertTrue(record.get("inputLength").isNull());
+        assertEquals(6, record.get("outputLength").asInt());
+        assertEquals("relay_error", record.get("outcome").asText());
+    }
+
+    @Test
+    void recordsAreLoggedThroughLog4j() throws Exception {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        final LoggerContext loggerContext = (LoggerContext)LogManager.getContext(false);
+        final Configuration configuration = loggerContext.getConfiguration();
+
+        final Appender appender = new AbstractAppender("access-log-test", null, null, true) {
+            @Override
+            public void append(LogEvent event) {
+                messages.add(event.getMessage().getFormattedMessage());
+            }
+        };
+
+        appender.start();
+
+        configuration.addLogger(AccessLog.LOGGER_NAME, LoggerConfig.createLogger(false, Level.INFO, AccessLog.LOGGER_NAME, "true", new AppenderRef[0], null, configuration, null));
+        configuration.getLoggerConfig(AccessLog.LOGGER_NAME).addAppender(appender, Level.INFO, null);
+        loggerContext.updateLoggers();
+
+        try (AccessLog accessLog = new AccessLog(1)) {
+            accessLog.log(new SettableExecutionContext("input", "text/plain"), executionResult("output"), AccessLog.Outcome.SUCCESS, 0, 0);
+            accessLog.log(new SettableExecutionContext("input", "text/plain"), executionResult("output"), AccessLog.Outcome.SUCCESS, 0, 0);
+
+            // The only record is back in the pool once logged
+            assertEquals(0, accessLog.getDroppedCount());
+        }
+        finally {
+            configuration.removeLogger(AccessLog.LOGGER_NAME);
+            loggerContext.updateLoggers();
+        }
+
+        assertEquals(2, messages.size());
+        assertEquals("success", objectMapper.readTree(messages.get(0)).get("outcome").asText());
+        assertFalse(messages.get(0).endsWith("\n"));
+    }
+
+    @Test
+    void recordsAreWrittenByTheRuntime() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (AccessLog accessLog = new AccessLog(outputStream, 16)) {
+            LambdaRuntimeTest.lambdaRuntimeBuilder().setAccessLog(accessLog).build().exec();
+        }
+
+        final JsonNode record = objectMapper.readTree(lines(outputStream)[0]);
+
+        assertEquals("success", record.get("outcome").asText());
+    }
+
+    @Test
+    void steadyStateLoggingDoesNotAllocate() throws Exception {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+
+        final com.sun.management.ThreadMXBean allocationCounter = (com.sun.management.ThreadMXBean)threadMXBean;
+
+        assumeTrue(allocationCounter.isThreadAllocatedMemorySupported() && allocationCounter.isThreadAllocatedMemoryEnabled());
+
+        final ExecutionContext executionContext = new SettableExecutionContext("{\"n\":1}", "application/json");
+        final ExecutionResult executionResult = executionResult("{\"n\":2}");
+        final long threadId = Thread.currentThread().getId();
+        final int records = 100_000;
+
+        final OutputStream discard = new OutputStream() {
+            @Override
+            public void write(int b) {}
+
+            @Override
+            public void write(byte[] b, int off, int len) {}
+        };
+
+        try (AccessLog accessLog = new AccessLog(discard, 1024)) {
+            // Warm up, lets the JIT compile the encoding path
+            for (int i = 0; i < records; i += 1) {
+                accessLog.log(executionContext, executionResult, AccessLog.Outcome.SUCCESS, i, i);
+            }
+
+            final long allocatedStart = allocationCounter.getThreadAllocatedBytes(threadId);
+
+            for (int i = 0; i < records; i += 1) {
+                accessLog.log(executionContext, executionResult, AccessLog.Outcome.SUCCESS, i, i);
+            }
+
+            final long allocated = allocationCounter.getThreadAllocatedBytes(threadId) - allocatedStart;
+
+            // A single String per record would take 24+ bytes, lock contention with the writer may allocate rarely
+            assertTrue(allocated < records, "allocated " + allocated + " bytes for " + records + " records");
+        }
+    }
+}
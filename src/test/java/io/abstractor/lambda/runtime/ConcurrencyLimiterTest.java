@@ -0,0 +1,171 @@
+package io.abstractor.lambda.runtime;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionRelay;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+    private static final int KNEE = 20;
+
+    // Flat below the knee, queueing above it
+    private static long latencyNanos(int inFlight) {
+        return TimeUnit.MILLISECONDS.toNanos(10) + Math.max(0, inFlight - KNEE) * TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Test
+    void limitConvergesAroundTheKnee() throws Exception {
+        final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(2, 1, 200);
+
+        int minimum = Integer.MAX_VALUE;
+        int maximum = 0;
+
+        for (int round = 0; round < 500; round += 1) {
+            final int inFlight = concurrencyLimiter.getLimit();
+
+            for (int i = 0; i < inFlight; i += 1) {
+                concurrencyLimiter.acquire();
+            }
+
+            for (int i = 0; i < inFlight; i += 1) {
+                concurrencyLimiter.release(latencyNanos(inFlight));
+            }
+
+            if (round >= 250) {
+                minimum = Math.min(minimum, concurrencyLimiter.getLimit());
+                maximum = Math.max(maximum, concurrencyLimiter.getLimit());
+            }
+        }
+
+        assertEquals(0, concurrencyLimiter.getInFlight());
+        assertTrue(minimum >= KNEE / 4, "limit dropped to " + minimum);
+        assertTrue(maximum <= KNEE * 2 + 5, "limit grew to " + maximum);
+    }
+
+    @Test
+    void unusedLimitDoesNotGrow() {
+        final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(10, 1, 100);
+
+        for (int i = 0; i < 1000; i += 1) {
+            concurrencyLimiter.release(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        assertEquals(10, concurrencyLimiter.getLimit());
+    }
+
+    @Test
+    void invalidLimitsThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(0, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(20, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(5, 1, 10, 1, 0.5));
+    }
+
+    public static class SyntheticHandler {
+        static final AtomicInteger active = new AtomicInteger();
+        static final AtomicInteger completed = new AtomicInteger();
+        static final AtomicInteger peak = new AtomicInteger();
+
+        public static String handle(String input) throws InterruptedException {
+            final int inFlight = active.incrementAndGet();
+
+            peak.accumulateAndGet(inFlight, Math::max);
+
+            try {
+                TimeUnit.NANOSECONDS.sleep(latencyNanos(inFlight) / 5);
+            }
+            finally {
+                active.decrementAndGet();
+                completed.incrementAndGet();
+            }
+
+            return input;
+        }
+    }
+
+    @Test
+    void runtimeExecutesConcurrentlyWithinTheLimit() throws Exception {
+        final Method method = SyntheticHandler.class.getMethod("handle", String.class);
+        final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(4, 1, 64);
+        final LambdaRuntime<ExecutionContext> lambdaRuntime = LambdaRuntimeTest.lambdaRuntimeBuilder()
+            .setMethodSupplier(() -> method)
+            .setMethodExecutor(new io.abstractor.lambda.runtime.adapter.LambdaMethodExecutor<>())
+            .setExecutionContextSupplier(() -> new SettableExecutionContext("input"))
+            .setConcurrencyLimiter(concurrencyLimiter)
+            .build();
+
+        final Thread thread = new Thread(lambdaRuntime::init);
+
+        thread.start();
+
+        Thread.sleep(1500);
+
+        thread.interrupt();
+        thread.join(5000);
+
+        assertFalse(thread.isAlive());
+        assertTrue(SyntheticHandler.completed.get() > 100);
+        assertTrue(SyntheticHandler.peak.get() > 4, "never ran above the initial limit");
+        assertTrue(SyntheticHandler.peak.get() <= 64);
+        assertTrue(concurrencyLimiter.getLimit() >= 1);
+    }
+
+    @Test
+    void relayTimeIsNotPartOfTheLatency() throws Exception {
+        final List<Long> latencies = new CopyOnWriteArrayList<>();
+
+        final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(2, 1, 2) {
+            @Override
+            public void release(long latencyNanos) {
+                latencies.add(latencyNanos);
+
+                super.release(latencyNanos);
+            }
+        };
+
+        final LambdaRuntime<ExecutionContext> lambdaRuntime = LambdaRuntimeTest.lambdaRuntimeBuilder()
+            .setExecutionRelay(new ExecutionRelay<ExecutionContext>() {
+                @Override
+                public void relayExecutionResult(ExecutionResult executionResult) {
+                    try {
+                        Thread.sleep(100);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                @Override
+                public void relayExecutionException(Throwable e, ExecutionContext executionContext) {}
+
+                @Override
+                public void relayInitException(Throwable e) {}
+            })
+            .setConcurrencyLimiter(concurrencyLimiter)
+            .build();
+
+        final Thread thread = new Thread(lambdaRuntime::init);
+
+        thread.start();
+
+        while (latencies.size() < 4) {
+            Thread.sleep(10);
+        }
+
+        thread.interrupt();
+        thread.join(5000);
+
+        for (long latency : latencies) {
+            assertTrue(latency < TimeUnit.MILLISECONDS.toNanos(50), latency + " ns includes the relay");
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package io.abstractor.lambda.runtime;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.MethodExecutor;
+import io.abstractor.lambda.runtime.port.Recyclable;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineEnforcerTest {
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private final MethodExecutor<ExecutionContext> methodExecutor = (method, executionContext) -> {
+        executions.incrementAndGet();
+
+        return new LambdaRuntimeTest.SettableExecutionResult();
+    };
+
+    private MethodExecutor<ExecutionContext> sleepingMethodExecutor(long millis) {
+        return (method, executionContext) -> {
+            try {
+                Thread.sleep(millis);
+            }
+            catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            return new LambdaRuntimeTest.SettableExecutionResult();
+        };
+    }
+
+    @Test
+    void executionContextWithoutDeadlineIsExecuted() {
+        new DeadlineEnforcer<>(Duration.ofDays(1), true).exec(methodExecutor, null, new SettableExecutionContext());
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void executionContextWithoutEnoughTimeIsRejected() {
+        final DeadlineEnforcer<ExecutionContext> deadlineEnforcer = new DeadlineEnforcer<>(Duration.ofSeconds(10), false);
+
+        assertThrows(DeadlineExceededException.class, () -> {
+            deadlineEnforcer.exec(methodExecutor, null, new DeadlineExecutionContext(1000));
+        });
+
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void estimateIsLearned() {
+        final DeadlineEnforcer<ExecutionContext> deadlineEnforcer = new DeadlineEnforcer<>(Duration.ZERO, false);
+
+        for (int i = 0; i < 64; i += 1) {
+            deadlineEnforcer.record(TimeUnit.SECONDS.toNanos(i < 63 ? 1 : 2));
+        }
+
+        assertEquals(TimeUnit.SECONDS.toNanos(2), deadlineEnforcer.getEstimateNanos());
+    }
+
+    @Test
+    void estimateRecoversFromRejections() {
+        final DeadlineEnforcer<ExecutionContext> deadlineEnforcer = new DeadlineEnforcer<>(Duration.ZERO, false);
+
+        // A burst of slow executions, nothing with less than 10 seconds left is executed anymore
+        for (int i = 0; i < 64; i += 1) {
+            deadlineEnforcer.record(TimeUnit.SECONDS.toNanos(10));
+        }
+
+        int rejections = 0;
+
+        while (executions.get() == 0 && rejections < 1000) {
+            try {
+                deadlineEnforcer.exec(methodExecutor, null, new DeadlineExecutionContext(2000));
+            }
+            catch (DeadlineExceededException e) {
+                rejections += 1;
+            }
+        }
+
+        assertEquals(1, executions.get());
+        assertTrue(rejections <= 64, rejections + " rejections");
+
+        // Fast executions replaced the burst, the next recomputed estimate must not lock the runtime out again
+        for (int i = 0; i < 63; i += 1) {
+            deadlineEnforcer.exec(methodExecutor, null, new DeadlineExecutionContext(2000));
+        }
+
+        assertTrue(deadlineEnforcer.getEstimateNanos() < TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    void minimumRemainingTimeDoesNotDecay() {
+        final DeadlineEnforcer<ExecutionContext> deadlineEnforcer = new DeadlineEnforcer<>(Duration.ofSeconds(10), false);
+
+        for (int i = 0; i < 100; i += 1) {
+            assertThrows(DeadlineExceededException.class, () -> {
+                deadlineEnforcer.exec(methodExecutor, null, new DeadlineExecutionContext(1000));
+            });
+        }
+
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void overrunningExecutionIsInterrupted() {
+        final DeadlineEnforcer<ExecutionContext> deadlineEnforcer = new DeadlineEnforcer<>(Duration.ZERO, true);
+        final long start = System.nanoTime();
+
+        final DeadlineExceededException e = assertThrows(DeadlineExceededException.class, () -> {
+            deadlineEnforcer.exec(sleepingMethodExecutor(10_000), null, new DeadlineExecutionContext(50));
+        });
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertSame(InterruptedException.class, e.getCause().getCause().getClass());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void overrunningExecutionFails() {
+        final DeadlineEnforcer<ExecutionContext> deadlineEnforcer = new DeadlineEnforcer<>(Duration.ZERO, false);
+
+        assertThrows(DeadlineExceededException.class, () -> {
+            deadlineEnforcer.exec(sleepingMethodExecutor(100), null, new DeadlineExecutionContext(20));
+        });
+    }
+
+    @Test
+    void resultOfAnOverrunIsRecycled() {
+        final DeadlineEnforcer<ExecutionContext> deadlineEnforcer = new DeadlineEnforcer<>(Duration.ZERO, false);
+        final AtomicInteger recycled = new AtomicInteger();
+
+        final MethodExecutor<ExecutionContext> overrunningMethodExecutor = (method, executionContext) -> {
+            try {
+                Thread.sleep(100);
+            }
+            catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            return new RecyclableResult(recycled);
+        };
+
+        assertThrows(DeadlineExceededException.class, () -> {
+            deadlineEnforcer.exec(overrunningMethodExecutor, null, new DeadlineExecutionContext(20));
+        });
+
+        assertEquals(1, recycled.get());
+    }
+
+    @Test
+    void completedWatchesAreRemoved() {
+        final DeadlineEnforcer<ExecutionContext> deadlineEnforcer = new DeadlineEnforcer<>(Duration.ZERO, true);
+
+        for (int i = 0; i < 100; i += 1) {
+            deadlineEnforcer.exec(methodExecutor, null, new DeadlineExecutionContext(60_000));
+        }
+
+        assertEquals(100, executions.get());
+        assertEquals(0, deadlineEnforcer.getPendingWatchCount());
+    }
+
+    @Test
+    void runtimeRelaysRejection() {
+        final LambdaRuntime.Builder<ExecutionContext> lambdaRuntimeBuilder = LambdaRuntimeTest.lambdaRuntimeBuilder();
+
+        lambdaRuntimeBuilder.setDeadlines(Duration.ofSeconds(10), true);
+        lambdaRuntimeBuilder.setExecutionContextSupplier(() -> new DeadlineExecutionContext(1000));
+
+        assertThrows(DeadlineExceededException.class, () -> {
+            lambdaRuntimeBuilder.build().exec();
+        });
+    }
+
+    private static class RecyclableResult extends LambdaRuntimeTest.SettableExecutionResult implements Recyclable {
+        private final AtomicInteger recycled;
+
+        RecyclableResult(AtomicInteger recycled) {
+            this.recycled = recycled;
+        }
+
+        @Override
+        public void recycle() {
+            recycled.incrementAndGet();
+        }
+    }
+
+    private static class DeadlineExecutionContext extends SettableExecutionContext {
+        private final long deadline;
+
+        DeadlineExecutionContext(long remainingMillis) {
+            this.deadline = System.currentTimeMillis() + remainingMillis;
+        }
+
+        @Override
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
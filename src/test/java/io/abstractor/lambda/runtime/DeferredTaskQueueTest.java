@@ -0,0 +1,99 @@
+package io.abstractor.lambda.runtime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeferredTaskQueueTest {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @AfterEach
+    void afterEach() {
+        new DeferredTaskQueue(1, Duration.ZERO, DeferredTaskQueue.OverflowPolicy.RUN).unbind();
+    }
+
+    private DeferredTaskQueue bound(int capacity, Duration budget, DeferredTaskQueue.OverflowPolicy overflowPolicy) {
+        final DeferredTaskQueue deferredTaskQueue = new DeferredTaskQueue(capacity, budget, overflowPolicy);
+
+        deferredTaskQueue.bind();
+
+        return deferredTaskQueue;
+    }
+
+    @Test
+    void badArgumentThrows() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new DeferredTaskQueue(0, Duration.ZERO, DeferredTaskQueue.OverflowPolicy.RUN);
+        });
+
+        assertThrows(NullPointerException.class, () -> {
+            new DeferredTaskQueue(1, null, DeferredTaskQueue.OverflowPolicy.RUN);
+        });
+    }
+
+    @Test
+    void unboundTaskRunsImmediately() {
+        DeferredTaskQueue.defer(count::incrementAndGet);
+
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    void boundTaskRunsOnDrain() {
+        final DeferredTaskQueue deferredTaskQueue = bound(2, Duration.ofSeconds(1), DeferredTaskQueue.OverflowPolicy.RUN);
+
+        DeferredTaskQueue.defer(count::incrementAndGet);
+        DeferredTaskQueue.defer(() -> {
+            throw new RuntimeException();
+        });
+        DeferredTaskQueue.defer(count::incrementAndGet);
+
+        // The queue is full, the last task ran on the spot
+        assertEquals(1, count.get());
+
+        deferredTaskQueue.drain();
+
+        assertEquals(2, count.get());
+        assertEquals(0, deferredTaskQueue.size());
+    }
+
+    @Test
+    void overflowPolicies() {
+        bound(1, Duration.ZERO, DeferredTaskQueue.OverflowPolicy.DISCARD);
+
+        DeferredTaskQueue.defer(count::incrementAndGet);
+        DeferredTaskQueue.defer(count::incrementAndGet);
+
+        assertEquals(0, count.get());
+
+        bound(1, Duration.ZERO, DeferredTaskQueue.OverflowPolicy.REJECT);
+
+        DeferredTaskQueue.defer(count::incrementAndGet);
+
+        assertThrows(RejectedExecutionException.class, () -> {
+            DeferredTaskQueue.defer(count::incrementAndGet);
+        });
+    }
+
+    @Test
+    void tasksBeyondBudgetArePostponed() {
+        final DeferredTaskQueue deferredTaskQueue = bound(3, Duration.ZERO, DeferredTaskQueue.OverflowPolicy.REJECT);
+
+        DeferredTaskQueue.defer(count::incrementAndGet);
+        DeferredTaskQueue.defer(count::incrementAndGet);
+
+        deferredTaskQueue.drain();
+
+        assertEquals(1, count.get());
+        assertEquals(1, deferredTaskQueue.size());
+
+        deferredTaskQueue.drain();
+
+        assertEquals(2, count.get());
+    }
+}
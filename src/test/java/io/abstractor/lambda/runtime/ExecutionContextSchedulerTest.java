@@ -0,0 +1,170 @@
+package io.abstractor.lambda.runtime;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionContextSchedulerTest {
+    private static ExecutionContextScheduler<ExecutionContext> scheduler(ExecutionContextScheduler.Policy policy, Supplier<ExecutionContext> first, int firstWeight, int firstMaxInFlight, Supplier<ExecutionContext> second, int secondWeight, int secondMaxInFlight) {
+        return new ExecutionContextScheduler<>(policy, Arrays.asList(
+            new ExecutionContextScheduler.Source<>(0, first, firstWeight, firstMaxInFlight),
+            new ExecutionContextScheduler.Source<>(1, second, secondWeight, secondMaxInFlight)
+        ));
+    }
+
+    private static Supplier<ExecutionContext> source(String input) {
+        return () -> new SettableExecutionContext(input);
+    }
+
+    private static Supplier<ExecutionContext> source(Deque<ExecutionContext> queue) {
+        return queue::poll;
+    }
+
+    @Test
+    void sharesExecutionSlotsInProportionToWeight() {
+        final ExecutionContextScheduler<ExecutionContext> scheduler = scheduler(ExecutionContextScheduler.Policy.WEIGHTED_FAIR, source("interactive"), 3, 10, source("bulk"), 1, 10);
+
+        int interactive = 0;
+
+        for (int i = 0; i < 400; i += 1) {
+            final ExecutionContext executionContext = scheduler.get();
+
+            if ("interactive".equals(executionContext.getInput())) {
+                interactive += 1;
+            }
+
+            scheduler.complete(executionContext);
+        }
+
+        assertEquals(300, interactive);
+    }
+
+    @Test
+    void interleavesSmoothly() {
+        final ExecutionContextScheduler<ExecutionContext> scheduler = scheduler(ExecutionContextScheduler.Policy.WEIGHTED_FAIR, source("a"), 2, 10, source("b"), 1, 10);
+        final List<String> inputs = new ArrayList<>();
+
+        for (int i = 0; i < 6; i += 1) {
+            final ExecutionContext executionContext = scheduler.get();
+
+            inputs.add(executionContext.getInput());
+            scheduler.complete(executionContext);
+        }
+
+        assertEquals(Arrays.asList("a", "b", "a", "a", "b", "a"), inputs);
+    }
+
+    @Test
+    void emptySourceLeavesItsShareToOthers() {
+        final Deque<ExecutionContext> bulk = new ArrayDeque<>();
+        final ExecutionContextScheduler<ExecutionContext> scheduler = scheduler(ExecutionContextScheduler.Policy.WEIGHTED_FAIR, source("interactive"), 1, 10, source(bulk), 10, 10);
+
+        for (int i = 0; i < 10; i += 1) {
+            final ExecutionContext executionContext = scheduler.get();
+
+            assertEquals("interactive", executionContext.getInput());
+
+            scheduler.complete(executionContext);
+        }
+
+        bulk.add(new SettableExecutionContext("bulk"));
+
+        assertEquals("bulk", scheduler.get().getInput());
+    }
+
+    @Test
+    void strictPriorityServesLowerSourcesOnlyWhenHigherOnesCannot() {
+        final Deque<ExecutionContext> interactive = new ArrayDeque<>();
+        final ExecutionContextScheduler<ExecutionContext> scheduler = scheduler(ExecutionContextScheduler.Policy.STRICT_PRIORITY, source("bulk"), 1, 10, source(interactive), 2, 1);
+
+        interactive.add(new SettableExecutionContext("interactive"));
+        interactive.add(new SettableExecutionContext("interactive"));
+
+        final ExecutionContext first = scheduler.get();
+
+        assertEquals("interactive", first.getInput());
+
+        // The interactive source is at its in-flight limit
+        assertEquals("bulk", scheduler.get().getInput());
+        assertEquals(1, scheduler.getInFlight(1));
+
+        scheduler.complete(first);
+
+        assertEquals("interactive", scheduler.get().getInput());
+        assertEquals("bulk", scheduler.get().getInput());
+    }
+
+    @Test
+    void inFlightLimitIsReleasedOnCompletion() {
+        final Deque<ExecutionContext> empty = new ArrayDeque<>();
+        final ExecutionContextScheduler<ExecutionContext> scheduler = scheduler(ExecutionContextScheduler.Policy.WEIGHTED_FAIR, source("bulk"), 1, 2, source(empty), 1, 1);
+
+        final ExecutionContext first = scheduler.get();
+        final ExecutionContext second = scheduler.get();
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(2, scheduler.getInFlight(0));
+        assertNull(scheduler.get());
+
+        scheduler.complete(second);
+
+        assertEquals(1, scheduler.getInFlight(0));
+        assertNotNull(scheduler.get());
+    }
+
+    @Test
+    void failingSourceIsSkipped() {
+        final ExecutionContextScheduler<ExecutionContext> scheduler = scheduler(ExecutionContextScheduler.Policy.STRICT_PRIORITY, () -> {
+            throw new IllegalStateException("unavailable");
+        }, 2, 1, source("bulk"), 1, 1);
+
+        assertEquals("bulk", scheduler.get().getInput());
+    }
+
+    @Test
+    void runtimeReleasesSourcesAfterEachExecutionCycle() {
+        final Deque<ExecutionContext> interactive = new ArrayDeque<>();
+        final Deque<ExecutionContext> bulk = new ArrayDeque<>();
+
+        for (int i = 0; i < 3; i += 1) {
+            interactive.add(new SettableExecutionContext("interactive"));
+            bulk.add(new SettableExecutionContext("bulk"));
+        }
+
+        final LambdaRuntime<ExecutionContext> lambdaRuntime = LambdaRuntimeTest.lambdaRuntimeBuilder()
+            .setExecutionContextSupplier(null)
+            .addExecutionContextSource(source(interactive), 1, 1)
+            .addExecutionContextSource(source(bulk), 1, 1)
+            .build();
+
+        for (int i = 0; i < 6; i += 1) {
+            assertNotNull(lambdaRuntime.exec());
+        }
+
+        assertTrue(interactive.isEmpty());
+        assertTrue(bulk.isEmpty());
+    }
+
+    @Test
+    void supplierAndSourcesAreExclusive() {
+        final LambdaRuntime.Builder<ExecutionContext> builder = LambdaRuntimeTest.lambdaRuntimeBuilder().addExecutionContextSource(source("bulk"), 1, 1);
+
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    @Test
+    void invalidSourcesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ExecutionContextScheduler.Source<>(0, source("bulk"), 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ExecutionContextScheduler.Source<>(0, source("bulk"), 1, 0));
+    }
+}
@@ -0,0 +1,88 @@
+package io.abstractor.lambda.runtime;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionInterceptor;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.MethodExecutor;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterceptorChainTest {
+    private final List<String> calls = new ArrayList<>();
+
+    private ExecutionInterceptor<ExecutionContext> interceptor(String name) {
+        return (method, executionContext, next) -> {
+            calls.add(name + ":before");
+
+            final ExecutionResult executionResult = next.exec(method, executionContext);
+
+            calls.add(name + ":after");
+
+            return executionResult;
+        };
+    }
+
+    @Test
+    void emptyChainIsTheMethodExecutor() {
+        final MethodExecutor<ExecutionContext> methodExecutor = (method, executionContext) -> null;
+
+        assertSame(methodExecutor, InterceptorChain.compile(methodExecutor, Collections.emptyList()));
+    }
+
+    @Test
+    void interceptorsRunInOrder() {
+        final MethodExecutor<ExecutionContext> methodExecutor = (method, executionContext) -> {
+            calls.add("exec");
+
+            return null;
+        };
+
+        InterceptorChain.compile(methodExecutor, Arrays.asList(interceptor("a"), interceptor("b"))).exec(null, new SettableExecutionContext());
+
+        assertEquals(Arrays.asList("a:before", "b:before", "exec", "b:after", "a:after"), calls);
+    }
+
+    @Test
+    void interceptorCanShortCircuit() throws Exception {
+        final Method method = Object.class.getMethod("toString");
+        final List<Method> prepared = new ArrayList<>();
+        final MethodExecutor<ExecutionContext> methodExecutor = new MethodExecutor<ExecutionContext>() {
+            @Override
+            public ExecutionResult exec(Method method, ExecutionContext executionContext) {
+                throw new AssertionError("short-circuited");
+            }
+
+            @Override
+            public void prepare(Method method) {
+                prepared.add(method);
+            }
+        };
+
+        final ExecutionInterceptor<ExecutionContext> deny = (m, executionContext, next) -> {
+            throw new SecurityException("denied " + executionContext.getInput());
+        };
+
+        final LambdaRuntime<ExecutionContext> lambdaRuntime = LambdaRuntimeTest.lambdaRuntimeBuilder()
+            .setMethodSupplier(() -> method)
+            .setMethodExecutor(methodExecutor)
+            .setExecutionContextSupplier(() -> new SettableExecutionContext("guest"))
+            .addInterceptor(interceptor("outer"))
+            .addInterceptor(deny)
+            .build();
+
+        final SecurityException e = assertThrows(SecurityException.class, lambdaRuntime::exec);
+
+        assertEquals("denied guest", e.getMessage());
+        assertEquals(Arrays.asList("outer:before"), calls);
+        assertEquals(Collections.singletonList(method), prepared);
+    }
+}
@@ -0,0 +1,74 @@
+package io.abstractor.lambda.runtime;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvocationAccountingTest {
+    @Test
+    void allocatedBytesAreMeasured() {
+        final InvocationAccounting invocationAccounting = new InvocationAccounting(1, InvocationCost.BY_ALLOCATED_BYTES, null);
+        final long allocatedStart = invocationAccounting.getAllocatedBytes();
+
+        if (allocatedStart < 0) {
+            return;
+        }
+
+        final byte[][] garbage = new byte[16][];
+
+        for (int i = 0; i < garbage.length; i += 1) {
+            garbage[i] = new byte[64 * 1024];
+        }
+
+        invocationAccounting.record(new SettableExecutionContext("input"), System.nanoTime(), invocationAccounting.getCpuTime(), allocatedStart);
+
+        final InvocationCost invocationCost = invocationAccounting.getCostliest().get(0);
+
+        assertTrue(invocationCost.getAllocatedBytes() >= garbage.length * 64 * 1024);
+        assertEquals("input", invocationCost.getInput());
+    }
+
+    @Test
+    void costliestAreKept() {
+        final List<InvocationCost> reported = new ArrayList<>();
+        final InvocationAccounting invocationAccounting = new InvocationAccounting(3, InvocationCost.BY_ALLOCATED_BYTES, reported::add);
+
+        for (int i = 0; i < 10; i += 1) {
+            // allocatedStart stands in for the allocated bytes, the cost is the difference with the current count.
+            invocationAccounting.record(new SettableExecutionContext(Integer.toString(i)), 0, -1, invocationAccounting.getAllocatedBytes() - i * 1_000_000L);
+        }
+
+        final List<InvocationCost> costliest = invocationAccounting.getCostliest();
+
+        assertEquals(10, reported.size());
+        assertEquals(3, costliest.size());
+
+        if (invocationAccounting.getAllocatedBytes() >= 0) {
+            assertEquals("9", costliest.get(0).getInput());
+            assertEquals("8", costliest.get(1).getInput());
+            assertEquals("7", costliest.get(2).getInput());
+        }
+    }
+
+    @Test
+    void runtimeReportsCosts() {
+        final List<InvocationCost> reported = new ArrayList<>();
+        final LambdaRuntime<ExecutionContext> lambdaRuntime = LambdaRuntimeTest.lambdaRuntimeBuilder()
+            .setAccounting(2, InvocationCost.BY_CPU_TIME, reported::add)
+            .build();
+
+        for (int i = 0; i < 5; i += 1) {
+            lambdaRuntime.exec();
+        }
+
+        assertEquals(5, reported.size());
+        assertEquals(2, lambdaRuntime.getCostliestInvocations().size());
+        assertTrue(reported.get(0).getWallNanos() >= 0);
+        assertTrue(LambdaRuntimeTest.lambdaRuntimeBuilder().build().getCostliestInvocations().isEmpty());
+    }
+}
@@ -3,10 +3,18 @@ package io.abstractor.lambda.runtime;
 import io.abstractor.lambda.runtime.port.ExecutionContext;
 import io.abstractor.lambda.runtime.port.ExecutionRelay;
 import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.MethodExecutor;
+import io.abstractor.lambda.runtime.port.Recyclable;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Method;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -112,6 +120,100 @@ class LambdaRuntimeTest {
         assertSame(executionResult, executionResultAtomicReference.get());
     }
 
+    @Test
+    void executionResultRelayFailureIsNotRelayedAsExecutionException() {
+        final RuntimeException relayException = new RuntimeException("relay failed");
+        final AtomicReference<Throwable> executionException = new AtomicReference<>();
+
+        consumableExecutionRelay.setExecutionResultConsumer((result) -> {
+            throw relayException;
+        });
+
+        consumableExecutionRelay.setExecutionExceptionConsumer((e, executionContext) -> executionException.set(e));
+
+        final RuntimeException e = assertThrows(RuntimeException.class, () -> lambdaRuntimeBuilder.build().exec());
+
+        assertSame(relayException, e);
+        assertNull(executionException.get());
+    }
+
+    @Test
+    void deferredTasksRunAfterRelay() {
+        final StringBuilder events = new StringBuilder();
+
+        lambdaRuntimeBuilder.setDeferredTasks(1, Duration.ofSeconds(1), DeferredTaskQueue.OverflowPolicy.REJECT);
+        lambdaRuntimeBuilder.setMethodExecutor((method, executionContext) -> {
+            DeferredTaskQueue.defer(() -> events.append("deferred"));
+
+            events.append("executed,");
+
+            return new SettableExecutionResult();
+        });
+
+        consumableExecutionRelay.setExecutionResultConsumer((result) -> events.append("relayed,"));
+
+        lambdaRuntimeBuilder.build().exec();
+
+        assertEquals("executed,relayed,deferred", events.toString());
+    }
+
+    @Test
+    void executionContextIsDispatchedByRouteKey() throws NoSuchMethodException {
+        final Method defaultMethod = Object.class.getMethod("toString");
+        final Method routeMethod = Object.class.getMethod("hashCode");
+        final List<Method> preparedMethods = new ArrayList<>();
+
+        lambdaRuntimeBuilder.setMethodSupplier(() -> defaultMethod);
+        lambdaRuntimeBuilder.addRoute("route", () -> routeMethod);
+        lambdaRuntimeBuilder.setMethodExecutor(new MethodExecutor<ExecutionContext>() {
+            @Override
+            public ExecutionResult exec(Method method, ExecutionContext executionContext) {
+                return new SettableExecutionResult(executionContext.getId(), method);
+            }
+
+            @Override
+            public void prepare(Method method) {
+                preparedMethods.add(method);
+            }
+        });
+
+        final LambdaRuntime<ExecutionContext> lambdaRuntime = lambdaRuntimeBuilder.build();
+
+        assertSame(defaultMethod, lambdaRuntime.exec().getExecutionValue());
+
+        lambdaRuntimeBuilder.setExecutionContextSupplier(() -> new RoutedExecutionContext("route"));
+
+        assertSame(routeMethod, lambdaRuntimeBuilder.build().exec().getExecutionValue());
+
+        assertEquals(Arrays.asList(routeMethod, defaultMethod), preparedMethods.subList(0, 2));
+    }
+
+    @Test
+    void unknownRouteKeyIsRelayed() {
+        final AtomicReference<Throwable> relayedException = new AtomicReference<>();
+
+        consumableExecutionRelay.setExecutionExceptionConsumer((e, executionContext) -> {
+            relayedException.set(e);
+        });
+
+        lambdaRuntimeBuilder.setMethodSupplier(null);
+        lambdaRuntimeBuilder.addRoute("route", () -> null);
+        lambdaRuntimeBuilder.setExecutionContextSupplier(() -> new RoutedExecutionContext("unknown"));
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            lambdaRuntimeBuilder.build().exec();
+        });
+
+        assertSame(IllegalArgumentException.class, relayedException.get().getClass());
+
+        lambdaRuntimeBuilder.setExecutionContextSupplier(SettableExecutionContext::new);
+
+        // No route key & no default method
+        assertThrows(IllegalArgumentException.class, () -> {
+            lambdaRuntimeBuilder.build().exec();
+        });
+    }
+
     @Test
     void initExecutionResultIsRelayed() {
         final SettableExecutionResult executionResult = new SettableExecutionResult();
@@ -167,6 +269,56 @@ class LambdaRuntimeTest {
         }
     }
 
+    @Test
+    void initRecyclesExecutionContext() {
+        final Thread thread = new Thread(() -> {
+            lambdaRuntimeBuilder.build().init();
+        });
+        final CompletableFuture<Boolean> recycled = new CompletableFuture<>();
+
+        lambdaRuntimeBuilder.setExecutionContextSupplier(() -> new RecyclableExecutionContext(recycled));
+
+        consumableExecutionRelay.setExecutionResultConsumer((result) -> {
+            thread.interrupt();
+        });
+
+        thread.setDaemon(true);
+        thread.start();
+
+        try {
+            assertTrue(recycled.get());
+        }
+        catch (ExecutionException | InterruptedException e) {
+            fail(e);
+        }
+    }
+
+    private static class RoutedExecutionContext extends SettableExecutionContext {
+        private final String routeKey;
+
+        RoutedExecutionContext(String routeKey) {
+            this.routeKey = routeKey;
+        }
+
+        @Override
+        public String getRouteKey() {
+            return routeKey;
+        }
+    }
+
+    private static class RecyclableExecutionContext extends SettableExecutionContext implements Recyclable {
+        private final CompletableFuture<Boolean> recycled;
+
+        RecyclableExecutionContext(CompletableFuture<Boolean> recycled) {
+            this.recycled = recycled;
+        }
+
+        @Override
+        public void recycle() {
+            recycled.complete(true);
+        }
+    }
+
     public static class SettableExecutionResult implements ExecutionResult {
         private String id = UUID.randomUUID().toString();
         private Object value;
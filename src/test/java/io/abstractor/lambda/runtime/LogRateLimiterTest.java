@@ -0,0 +1,23 @@
+package io.abstractor.lambda.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogRateLimiterTest {
+    @Test
+    void badArgumentThrows() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new LogRateLimiter(0);
+        });
+    }
+
+    @Test
+    void deniedPermitsAreCounted() {
+        final LogRateLimiter logRateLimiter = new LogRateLimiter(1);
+
+        assertEquals(0, logRateLimiter.tryAcquire());
+        assertEquals(-1, logRateLimiter.tryAcquire());
+        assertEquals(-1, logRateLimiter.tryAcquire());
+    }
+}
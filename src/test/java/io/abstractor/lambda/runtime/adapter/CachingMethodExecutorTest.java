@@ -0,0 +1,328 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.SettableExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.MethodExecutor;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import java.lang.reflect.Method;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingMethodExecutorTest {
+    private static final Method METHOD;
+
+    static {
+        try {
+            METHOD = String.class.getMethod("toUpperCase");
+        }
+        catch (NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private CachingMethodExecutor.Builder<ExecutionContext> builder() {
+        return new CachingMethodExecutor.Builder<ExecutionContext>().setMethodExecutor((method, executionContext) -> {
+            executions.incrementAndGet();
+
+            return new LambdaExecutionResult(executionContext.getId(), executionContext.getInput().toUpperCase());
+        });
+    }
+
+    @Test
+    void incompleteBuilderThrows() {
+        assertThrows(NullPointerException.class, () -> {
+            new CachingMethodExecutor.Builder<>().build();
+        });
+    }
+
+    @Test
+    void repeatedInputIsServedFromCache() {
+        final CachingMethodExecutor<ExecutionContext> executor = builder().build();
+        final SettableExecutionContext executionContext = new SettableExecutionContext("a", "text/plain");
+
+        executor.exec(METHOD, new SettableExecutionContext("a", "text/plain"));
+
+        final ExecutionResult executionResult = executor.exec(METHOD, executionContext);
+
+        assertEquals(1, executions.get());
+        assertEquals("A", executionResult.getExecutionValue());
+        assertEquals(executionContext.getId(), executionResult.getExecutionId());
+        assertEquals(1, executor.getHitCount());
+        assertEquals(1, executor.getMissCount());
+    }
+
+    @Test
+    void mimeTypeIsPartOfTheKey() {
+        final CachingMethodExecutor<ExecutionContext> executor = builder().build();
+
+        executor.exec(METHOD, new SettableExecutionContext("a", "text/plain"));
+        executor.exec(METHOD, new SettableExecutionContext("a", "application/json"));
+
+        assertEquals(2, executions.get());
+    }
+
+    private static ExecutionContext binaryExecutionContext(byte[] input) {
+        return new SettableExecutionContext(null, "application/cbor") {
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(input);
+            }
+        };
+    }
+
+    private CachingMethodExecutor<ExecutionContext> streamingExecutor() {
+        return new CachingMethodExecutor.Builder<ExecutionContext>().setMethodExecutor((method, executionContext) -> {
+            executions.incrementAndGet();
+
+            return new LambdaExecutionResult(executionContext.getId(), read(ContentEncoding.getInputStream(executionContext)));
+        }).build();
+    }
+
+    private static String read(InputStream inputStream) {
+        try (InputStream in = inputStream) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[256];
+
+            int length;
+
+            while ((length = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, length);
+            }
+
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void binaryInputsAreNotCached() {
+        final CachingMethodExecutor<ExecutionContext> executor = streamingExecutor();
+
+        final ExecutionResult first = executor.exec(METHOD, binaryExecutionContext("first".getBytes(StandardCharsets.UTF_8)));
+        final ExecutionResult second = executor.exec(METHOD, binaryExecutionContext("second".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("first", first.getExecutionValue());
+        assertEquals("second", second.getExecutionValue());
+        assertEquals(2, executions.get());
+        assertEquals(2, executor.getUncacheableCount());
+        assertEquals(0, executor.getSize());
+    }
+
+    @Test
+    void encodedInputsAreNotCached() {
+        final CachingMethodExecutor<ExecutionContext> executor = streamingExecutor();
+
+        final ExecutionResult first = executor.exec(METHOD, ContentEncodingTest.encodedExecutionContext("first", "application/json", ContentEncoding.GZIP));
+        final ExecutionResult second = executor.exec(METHOD, ContentEncodingTest.encodedExecutionContext("second", "application/json", ContentEncoding.GZIP));
+
+        assertEquals("first", first.getExecutionValue());
+        assertEquals("second", second.getExecutionValue());
+        assertEquals(2, executor.getUncacheableCount());
+    }
+
+    @Test
+    void prepareIsForwarded() {
+        final AtomicInteger preparations = new AtomicInteger();
+
+        final CachingMethodExecutor<ExecutionContext> executor = new CachingMethodExecutor.Builder<ExecutionContext>().setMethodExecutor(new MethodExecutor<ExecutionContext>() {
+            @Override
+            public ExecutionResult exec(Method method, ExecutionContext executionContext) {
+                return new LambdaExecutionResult(executionContext.getId(), null);
+            }
+
+            @Override
+            public void prepare(Method method) {
+                assertEquals(METHOD, method);
+
+                preparations.incrementAndGet();
+            }
+        }).build();
+
+        executor.prepare(METHOD);
+
+        assertEquals(1, preparations.get());
+    }
+
+    @Test
+    void contentEncodingAndTypeAreCached() {
+        final CachingMethodExecutor<ExecutionContext> executor = new CachingMethodExecutor.Builder<ExecutionContext>()
+          .setMethodExecutor((method, executionContext) -> {
+              return new LambdaExecutionResult(executionContext.getId(), new byte[]{1}, ContentEncoding.GZIP, "application/json");
+          })
+          .build();
+
+        executor.exec(METHOD, new SettableExecutionContext("a", null));
+
+        final ExecutionResult hit = executor.exec(METHOD, new SettableExecutionContext("a", null));
+
+        assertEquals(1, executor.getHitCount());
+        assertEquals(ContentEncoding.GZIP, hit.getContentEncoding());
+        assertEquals("application/json", hit.getContentType());
+    }
+
+    @Test
+    void expiredEntriesAreExecutedAgain() {
+        final AtomicLong ticker = new AtomicLong();
+        final CachingMethodExecutor<ExecutionContext> executor = builder()
+          .setTicker(ticker::get)
+          .setTimeToLive(Duration.ofNanos(10))
+          .build();
+
+        executor.exec(METHOD, new SettableExecutionContext("a", null));
+
+        ticker.addAndGet(10);
+
+        executor.exec(METHOD, new SettableExecutionContext("a", null));
+
+        assertEquals(2, executions.get());
+        assertEquals(1, executor.getEvictionCount());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        final CachingMethodExecutor<ExecutionContext> executor = builder().setMaximumSize(2).build();
+
+        executor.exec(METHOD, new SettableExecutionContext("a", null));
+        executor.exec(METHOD, new SettableExecutionContext("b", null));
+        executor.exec(METHOD, new SettableExecutionContext("a", null));
+        executor.exec(METHOD, new SettableExecutionContext("c", null));
+        executor.exec(METHOD, new SettableExecutionContext("a", null));
+
+        assertEquals(3, executions.get());
+        assertEquals(1, executor.getEvictionCount());
+        assertEquals(2, executor.getSize());
+    }
+
+    @Test
+    void weightBoundsTheCache() {
+        final CachingMethodExecutor<ExecutionContext> executor = builder().setMaximumWeight(10).build();
+
+        executor.exec(METHOD, new SettableExecutionContext("abcd", null));
+        executor.exec(METHOD, new SettableExecutionContext("efgh", null));
+        executor.exec(METHOD, new SettableExecutionContext("this input is heavier than the cache", null));
+
+        assertEquals(1, executor.getSize());
+        assertEquals(9, executor.getWeight());
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        final RuntimeException e = new RuntimeException();
+        final CachingMethodExecutor<ExecutionContext> executor = new CachingMethodExecutor.Builder<ExecutionContext>()
+          .setMethodExecutor((method, executionContext) -> {
+              executions.incrementAndGet();
+
+              throw e;
+          })
+          .build();
+
+        assertSame(e, assertThrows(RuntimeException.class, () -> executor.exec(METHOD, new SettableExecutionContext("a", null))));
+        assertSame(e, assertThrows(RuntimeException.class, () -> executor.exec(METHOD, new SettableExecutionContext("a", null))));
+
+        assertEquals(2, executions.get());
+        assertEquals(0, executor.getSize());
+    }
+
+    @Test
+    void identicalInFlightExecutionsAreCoalesced() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CachingMethodExecutor<ExecutionContext> executor = new CachingMethodExecutor.Builder<ExecutionContext>()
+          .setMethodExecutor((method, executionContext) -> {
+              executions.incrementAndGet();
+
+              started.countDown();
+
+              try {
+                  release.await();
+              }
+              catch (InterruptedException e) {
+                  throw new RuntimeException(e);
+              }
+
+              return new LambdaExecutionResult(executionContext.getId(), executionContext.getInput());
+          })
+          .build();
+
+        final CompletableFuture<ExecutionResult> first = CompletableFuture.supplyAsync(() -> {
+            return executor.exec(METHOD, new SettableExecutionContext("a", null));
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        final CompletableFuture<ExecutionResult> second = CompletableFuture.supplyAsync(() -> {
+            return executor.exec(METHOD, new SettableExecutionContext("a", null));
+        });
+
+        while (executor.getCoalescedCount() == 0 && !second.isDone()) {
+            Thread.sleep(1);
+        }
+
+        release.countDown();
+
+        assertEquals("a", first.get(5, TimeUnit.SECONDS).getExecutionValue());
+        assertEquals("a", second.get(5, TimeUnit.SECONDS).getExecutionValue());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void coalescedExecutionsFailWithAnError() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AssertionError error = new AssertionError("boom");
+        final CachingMethodExecutor<ExecutionContext> executor = new CachingMethodExecutor.Builder<ExecutionContext>()
+          .setMethodExecutor((method, executionContext) -> {
+              started.countDown();
+
+              try {
+                  release.await();
+              }
+              catch (InterruptedException e) {
+                  throw new RuntimeException(e);
+              }
+
+              throw error;
+          })
+          .build();
+
+        final CompletableFuture<Throwable> first = CompletableFuture.supplyAsync(() -> {
+            return assertThrows(AssertionError.class, () -> executor.exec(METHOD, new SettableExecutionContext("a", null)));
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        final CompletableFuture<Throwable> second = CompletableFuture.supplyAsync(() -> {
+            return assertThrows(AssertionError.class, () -> executor.exec(METHOD, new SettableExecutionContext("a", null)));
+        });
+
+        while (executor.getCoalescedCount() == 0 && !second.isDone()) {
+            Thread.sleep(1);
+        }
+
+        release.countDown();
+
+        assertSame(error, first.get(5, TimeUnit.SECONDS));
+        assertSame(error, second.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,177 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionRelay;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+import io.abstractor.lambda.runtime.port.ResultEncoder;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressingExecutionRelayTest {
+    private final List<ExecutionResult> relayed = new ArrayList<>();
+    private final List<ResultEncoder> encoders = new ArrayList<>();
+
+    private final ExecutionRelay<ExecutionContext> executionRelay = new ExecutionRelay<ExecutionContext>() {
+        @Override
+        public void relayExecutionResult(ExecutionResult executionResult) {
+            relayed.add(executionResult);
+        }
+
+        @Override
+        public void relayExecutionResult(ExecutionResult executionResult, ResultEncoder resultEncoder) {
+            relayed.add(executionResult);
+            encoders.add(resultEncoder);
+        }
+
+        @Override
+        public void relayExecutionException(Throwable e, ExecutionContext executionContext) {}
+
+        @Override
+        public void relayInitException(Throwable e) {}
+    };
+
+    private static String repeat(String value, int times) {
+        final StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < times; i += 1) {
+            builder.append(value);
+        }
+
+        return builder.toString();
+    }
+
+    @Test
+    void valuesAboveThresholdAreCompressed() throws Exception {
+        final CompressingExecutionRelay<ExecutionContext> compressingRelay = new CompressingExecutionRelay<>(executionRelay, 1024);
+        final String value = repeat("{\"field\":\"value\"},", 200);
+
+        compressingRelay.relayExecutionResult(new LambdaExecutionResult("id", value));
+
+        final ExecutionResult executionResult = relayed.get(0);
+        final byte[] encoded = (byte[])executionResult.getExecutionValue();
+
+        assertEquals("id", executionResult.getExecutionId());
+        assertEquals(ContentEncoding.GZIP, executionResult.getContentEncoding());
+        assertEquals("text/plain; charset=utf-8", executionResult.getContentType());
+        assertTrue(encoded.length < value.length());
+
+        final ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+
+        try (InputStream inputStream = ContentEncoding.decode(ContentEncoding.GZIP, new ByteArrayInputStream(encoded))) {
+            final byte[] buffer = new byte[1024];
+
+            int read;
+
+            while ((read = inputStream.read(buffer)) != -1) {
+                decoded.write(buffer, 0, read);
+            }
+        }
+
+        assertEquals(value, new String(decoded.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void smallAndEncodedValuesAreRelayedAsIs() {
+        final CompressingExecutionRelay<ExecutionContext> compressingRelay = new CompressingExecutionRelay<>(executionRelay, "deflate", 16);
+        final ExecutionResult small = new LambdaExecutionResult("1", "small");
+        final ExecutionResult number = new LambdaExecutionResult("2", 42L);
+        final ExecutionResult encoded = new LambdaExecutionResult("3", new byte[64], "gzip");
+
+        compressingRelay.relayExecutionResult(small);
+        compressingRelay.relayExecutionResult(number);
+        compressingRelay.relayExecutionResult(encoded);
+
+        assertSame(small, relayed.get(0));
+        assertSame(number, relayed.get(1));
+        assertSame(encoded, relayed.get(2));
+    }
+
+    @Test
+    void objectsAreCompressedAsEncoded() throws Exception {
+        final CompressingExecutionRelay<ExecutionContext> compressingRelay = new CompressingExecutionRelay<>(executionRelay, 64);
+        final List<Integer> value = new ArrayList<>();
+
+        for (int i = 0; i < 100; i += 1) {
+            value.add(i);
+        }
+
+        compressingRelay.relayExecutionResult(new LambdaExecutionResult("1", value));
+        compressingRelay.relayExecutionResult(new LambdaExecutionResult("2", value), new LambdaResultEncoder(List.class));
+
+        for (ExecutionResult executionResult : relayed) {
+            final ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+
+            try (InputStream inputStream = ContentEncoding.decode(ContentEncoding.GZIP, new ByteArrayInputStream((byte[])executionResult.getExecutionValue()))) {
+                final byte[] buffer = new byte[1024];
+
+                int read;
+
+                while ((read = inputStream.read(buffer)) != -1) {
+                    decoded.write(buffer, 0, read);
+                }
+            }
+
+            assertEquals(ContentEncoding.GZIP, executionResult.getContentEncoding());
+            assertEquals(JacksonPayloadCodec.JSON_MEDIA_TYPE, executionResult.getContentType());
+            assertEquals(JacksonPayloadCodec.json().getObjectMapper().writeValueAsString(value), new String(decoded.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void contentTypeOfTheUncompressedValueIsKept() {
+        final CompressingExecutionRelay<ExecutionContext> compressingRelay = new CompressingExecutionRelay<>(executionRelay, 16);
+
+        compressingRelay.relayExecutionResult(new LambdaExecutionResult("1", new byte[64]));
+        compressingRelay.relayExecutionResult(new LambdaExecutionResult("2", repeat("<p/>", 16), null, "text/html"));
+        compressingRelay.relayExecutionResult(new LambdaExecutionResult("3", repeat("[1]", 16)), new ResultEncoder() {
+            @Override
+            public String getContentType(Object value) {
+                return "application/json";
+            }
+
+            @Override
+            public void encode(Object value, OutputStream outputStream) throws IOException {
+                outputStream.write(((String)value).getBytes(StandardCharsets.UTF_8));
+            }
+        });
+
+        assertEquals("application/octet-stream", relayed.get(0).getContentType());
+        assertEquals("text/html", relayed.get(1).getContentType());
+        assertEquals("application/json", relayed.get(2).getContentType());
+    }
+
+    @Test
+    void resultEncoderIsForwarded() {
+        final CompressingExecutionRelay<ExecutionContext> compressingRelay = new CompressingExecutionRelay<>(executionRelay, 16);
+        final ResultEncoder resultEncoder = new LambdaResultEncoder(String.class);
+
+        compressingRelay.relayExecutionResult(new LambdaExecutionResult("id", repeat("value", 100)), resultEncoder);
+
+        assertSame(resultEncoder, encoders.get(0));
+        assertTrue(relayed.get(0).getExecutionValue() instanceof byte[]);
+        assertEquals(ContentEncoding.GZIP, relayed.get(0).getContentEncoding());
+    }
+
+    @Test
+    void nonCompressingEncodingThrows() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new CompressingExecutionRelay<>(executionRelay, "identity", 0);
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            new CompressingExecutionRelay<>(executionRelay, "br", 0);
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.SettableExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentEncodingTest {
+    static ExecutionContext encodedExecutionContext(String input, String mimeType, String contentEncoding) {
+        final byte[] encoded = ContentEncoding.encode(contentEncoding, input.getBytes(StandardCharsets.UTF_8));
+
+        return new SettableExecutionContext(null, mimeType) {
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(encoded);
+            }
+
+            @Override
+            public String getInputContentEncoding() {
+                return contentEncoding;
+            }
+        };
+    }
+
+    @Test
+    void encodedInputIsDecoded() {
+        final String input = "{\"a\":\"compressed\"}";
+
+        assertEquals(input, ContentEncoding.getInput(encodedExecutionContext(input, null, "gzip")));
+        assertEquals(input, ContentEncoding.getInput(encodedExecutionContext(input, null, "deflate")));
+        assertEquals(input, ContentEncoding.getInput(encodedExecutionContext(input, null, "x-gzip")));
+    }
+
+    @Test
+    void decodedInputIsBounded() {
+        final ExecutionContext executionContext = encodedExecutionContext(new String(new char[4096]).replace('\0', 'x'), null, "gzip");
+
+        assertEquals(4096, ContentEncoding.getInput(executionContext, 4096).length());
+        assertThrows(IllegalStateException.class, () -> ContentEncoding.getInput(executionContext, 4095));
+    }
+
+    @Test
+    void identityIsNotEncoded() {
+        assertFalse(ContentEncoding.isEncoded(null));
+        assertFalse(ContentEncoding.isEncoded(""));
+        assertFalse(ContentEncoding.isEncoded("identity"));
+        assertTrue(ContentEncoding.isEncoded("GZIP"));
+
+        assertEquals("plain", ContentEncoding.getInput(new SettableExecutionContext("plain")));
+        assertNull(ContentEncoding.getInputStream(new SettableExecutionContext()));
+    }
+
+    @Test
+    void unsupportedEncodingThrows() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            ContentEncoding.encode("br", new byte[1]);
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            ContentEncoding.decode("br", new ByteArrayInputStream(new byte[1]));
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HandlerInstancesTest {
+    private final AtomicInteger created = new AtomicInteger();
+
+    private Object create() {
+        created.incrementAndGet();
+
+        return new Object();
+    }
+
+    private Object acquireOnOtherThread(HandlerInstances handlerInstances) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return handlerInstances.acquire();
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }).get();
+    }
+
+    @Test
+    void singletonIsCreatedEagerlyAndShared() throws Exception {
+        final HandlerInstances handlerInstances = HandlerInstances.singleton().create(this::create);
+
+        assertEquals(1, created.get());
+        assertSame(handlerInstances.acquire(), acquireOnOtherThread(handlerInstances));
+    }
+
+    @Test
+    void perThreadInstancesAreNotShared() throws Exception {
+        final HandlerInstances handlerInstances = HandlerInstances.perThread().create(this::create);
+        final Object instance = handlerInstances.acquire();
+
+        assertSame(instance, handlerInstances.acquire());
+        assertNotSame(instance, acquireOnOtherThread(handlerInstances));
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void pooledInstancesAreBoundedAndReused() throws Exception {
+        final HandlerInstances handlerInstances = HandlerInstances.pooled(2, Duration.ofMillis(10)).create(this::create);
+        final Object first = handlerInstances.acquire();
+        final Object second = handlerInstances.acquire();
+
+        assertNotSame(first, second);
+
+        assertThrows(TimeoutException.class, handlerInstances::acquire);
+
+        handlerInstances.release(first);
+
+        assertSame(first, handlerInstances.acquire());
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void badPoolSizeThrows() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            HandlerInstances.pooled(0, Duration.ZERO);
+        });
+    }
+}
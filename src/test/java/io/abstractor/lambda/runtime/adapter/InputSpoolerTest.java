@@ -0,0 +1,176 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.LambdaRuntime;
+import io.abstractor.lambda.runtime.emulator.RuntimeApiEmulator;
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.lang.reflect.Method;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputSpoolerTest {
+    private static final String LARGE_INPUT = "{\"field\":\"" + new String(new char[4096]).replace('\0', 'x') + "\"}";
+    private static final byte[] LARGE_BODY = LARGE_INPUT.getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    private long spooledFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+
+        int read;
+
+        while ((read = inputStream.read(buffer)) != -1) {
+            content.write(buffer, 0, read);
+        }
+
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void largeBodyIsSpooled() throws Exception {
+        final InputSpooler inputSpooler = new InputSpooler(1024, directory);
+
+        try (InputSpooler.SpooledInput spooledInput = inputSpooler.spool(new ByteArrayInputStream(LARGE_BODY), LARGE_BODY.length)) {
+            assertTrue(spooledInput.isSpooled());
+            assertNull(spooledInput.getBytes());
+            assertEquals(1, spooledFiles());
+
+            try (InputStream inputStream = spooledInput.getInputStream()) {
+                assertEquals(LARGE_INPUT, read(inputStream));
+            }
+        }
+
+        assertEquals(0, spooledFiles());
+    }
+
+    @Test
+    void bodyOfUnknownLengthIsSpooledOnceOverThreshold() throws Exception {
+        final InputSpooler inputSpooler = new InputSpooler(1024, directory);
+
+        try (InputSpooler.SpooledInput spooledInput = inputSpooler.spool(new ByteArrayInputStream(LARGE_BODY), -1)) {
+            assertTrue(spooledInput.isSpooled());
+            assertEquals(LARGE_INPUT, read(spooledInput.getInputStream()));
+        }
+
+        final byte[] small = new byte[1023];
+
+        try (InputSpooler.SpooledInput spooledInput = inputSpooler.spool(new ByteArrayInputStream(small), -1)) {
+            assertFalse(spooledInput.isSpooled());
+            assertArrayEquals(small, spooledInput.getBytes());
+        }
+    }
+
+    @Test
+    void smallInputsNeverTouchTheFileSystem() throws Exception {
+        // Creating a file in a missing directory fails, whatever is under the threshold must stay in memory
+        final InputSpooler inputSpooler = new InputSpooler(1024, directory.resolve("missing"));
+        final ExecutionContext encoded = ContentEncodingTest.encodedExecutionContext("small", null, ContentEncoding.GZIP);
+
+        assertArrayEquals("small".getBytes(StandardCharsets.UTF_8), inputSpooler.spool(new ByteArrayInputStream("small".getBytes(StandardCharsets.UTF_8)), 5).getBytes());
+        assertEquals(5, inputSpooler.getByteBuffer(encoded).remaining());
+        assertFalse(inputSpooler.getByteBuffer(encoded).isDirect());
+    }
+
+    @Test
+    void largeCompressedInputIsMapped() throws Exception {
+        final InputSpooler inputSpooler = new InputSpooler(1024, directory);
+        final ExecutionContext executionContext = ContentEncodingTest.encodedExecutionContext(LARGE_INPUT, null, ContentEncoding.GZIP);
+        final ByteBuffer byteBuffer = inputSpooler.getByteBuffer(executionContext);
+
+        assertTrue(byteBuffer.isDirect());
+        assertEquals(LARGE_INPUT.length(), byteBuffer.remaining());
+        assertEquals(0, spooledFiles());
+    }
+
+    @Test
+    void spooledExecutionContextIsMappedAndReleasedOnRecycle() throws Exception {
+        final InputSpooler inputSpooler = new InputSpooler(1024, directory);
+        final InputSpooler.SpooledInput spooledInput = inputSpooler.spool(new ByteArrayInputStream(LARGE_BODY), LARGE_BODY.length);
+        final RuntimeApiExecutionContext executionContext = new RuntimeApiExecutionContext("id", spooledInput, "application/json", 0, null);
+        final ByteBuffer byteBuffer = inputSpooler.getByteBuffer(executionContext);
+        final byte[] content = new byte[byteBuffer.remaining()];
+
+        byteBuffer.get(content);
+
+        assertNull(executionContext.getInput());
+        assertTrue(byteBuffer.isDirect());
+        assertEquals(LARGE_INPUT, new String(content, StandardCharsets.UTF_8));
+        assertEquals(LARGE_INPUT, ContentEncoding.getInput(executionContext));
+
+        executionContext.recycle();
+
+        assertEquals(0, spooledFiles());
+    }
+
+    public static class Handler {
+        public static int fieldLength(Map<String, String> input) {
+            return input.get("field").length();
+        }
+
+        public static int byteBufferSize(ByteBuffer input) {
+            return input.remaining();
+        }
+    }
+
+    private int execute(String method, Class<?> parameterType) throws Exception {
+        final InputSpooler inputSpooler = new InputSpooler(1024, directory);
+        final LambdaParameterSerializer<RuntimeApiExecutionContext> parameterSerializer = LambdaParameterSerializer.createDefaultInstance();
+        final Method handler = Handler.class.getMethod(method, parameterType);
+
+        inputSpooler.register(parameterSerializer);
+
+        try (RuntimeApiEmulator emulator = new RuntimeApiEmulator.Builder().setInputGenerator(() -> LARGE_INPUT).setMaximumInvocations(1).build()) {
+            final RuntimeApiClient runtimeApiClient = new RuntimeApiClient(emulator.getRuntimeApi(), inputSpooler);
+
+            final LambdaRuntime<RuntimeApiExecutionContext> lambdaRuntime = new LambdaRuntime.Builder<RuntimeApiExecutionContext>()
+                .setMethodSupplier(() -> handler)
+                .setMethodExecutor(new LambdaMethodExecutor<>(parameterSerializer))
+                .setExecutionContextSupplier(() -> {
+                    final RuntimeApiExecutionContext executionContext = runtimeApiClient.get();
+
+                    assertNull(executionContext.getInput(), "the input was materialized");
+
+                    return executionContext;
+                })
+                .setExecutionRelay(runtimeApiClient)
+                .build();
+
+            return (Integer)lambdaRuntime.exec().getExecutionValue();
+        }
+    }
+
+    @Test
+    void inputIsSpooledAtIngestion() throws Exception {
+        assertEquals(4096, execute("fieldLength", Map.class));
+        assertEquals(0, spooledFiles());
+    }
+
+    @Test
+    void spooledInputIsMappedByTheRuntime() throws Exception {
+        assertEquals(LARGE_BODY.length, execute("byteBufferSize", ByteBuffer.class));
+        assertEquals(0, spooledFiles());
+    }
+}
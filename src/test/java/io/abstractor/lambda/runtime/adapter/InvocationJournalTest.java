@@ -0,0 +1,179 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.SettableExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionRelay;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvocationJournalTest {
+    @TempDir
+    Path directory;
+
+    private static List<InvocationJournal.Record> readAll(Path file) throws IOException {
+        final List<InvocationJournal.Record> records = new ArrayList<>();
+
+        try (InvocationJournal.Reader reader = InvocationJournal.read(file)) {
+            InvocationJournal.Record record;
+
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+
+        return records;
+    }
+
+    @Test
+    void recordsAreReadBackAcrossSegments() throws Exception {
+        final Path file = directory.resolve("journal");
+
+        try (InvocationJournal journal = new InvocationJournal(file, 128)) {
+            for (int i = 0; i < 50; i += 1) {
+                journal.appendContext(new SettableExecutionContext("{\"i\":" + i + "}", "application/json"));
+                journal.appendResult(new LambdaExecutionResult("result-" + i, Collections.singletonMap("i", i)), true);
+            }
+
+            journal.appendException("failed", new LambdaExecutionException(new IllegalStateException("boom")));
+        }
+
+        assertEquals(Files.size(file), readAllSize(file));
+
+        final List<InvocationJournal.Record> records = readAll(file);
+
+        assertEquals(101, records.size());
+        assertEquals(InvocationJournal.CONTEXT, records.get(10).getType());
+        assertEquals("{\"i\":5}", records.get(10).getField(2));
+        assertEquals("application/json", records.get(10).getField(1));
+        assertNull(records.get(10).getField(3));
+        assertEquals("result-5", records.get(11).getId());
+        assertEquals("{\"i\":5}", records.get(11).getField(1));
+
+        final InvocationJournal.Record exception = records.get(100);
+
+        assertEquals(InvocationJournal.EXCEPTION, exception.getType());
+        assertEquals(IllegalStateException.class.getName(), exception.getField(1));
+        assertEquals("boom", exception.getField(2));
+    }
+
+    @Test
+    void reopenedJournalIsAppended() throws Exception {
+        final Path file = directory.resolve("journal");
+
+        try (InvocationJournal journal = new InvocationJournal(file, 1024)) {
+            journal.appendResult(new LambdaExecutionResult("first", new byte[]{1, 2, 3}), true);
+        }
+
+        try (InvocationJournal journal = new InvocationJournal(file, 1024)) {
+            journal.appendResult(new LambdaExecutionResult("second", null), true);
+        }
+
+        final List<InvocationJournal.Record> records = readAll(file);
+
+        assertEquals(2, records.size());
+        assertArrayEquals(new byte[]{1, 2, 3}, records.get(0).getBytes(1));
+        assertEquals("second", records.get(1).getId());
+        assertNull(records.get(1).getBytes(1));
+    }
+
+    @Test
+    void unclosedJournalIsReadUpToItsLastRecord() throws Exception {
+        final Path file = directory.resolve("journal");
+        final InvocationJournal journal = new InvocationJournal(file, 1024);
+
+        journal.appendContext(new SettableExecutionContext("input"));
+
+        // The file spans the whole mapped segment, the unwritten part reads as the end of the journal.
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "r")) {
+            assertEquals(1024, randomAccessFile.length());
+        }
+
+        assertEquals(1, readAll(file).size());
+
+        journal.close();
+
+        assertEquals(journal.size(), Files.size(file));
+    }
+
+    @Test
+    void rawInputIsJournaledWithItsContentEncoding() throws Exception {
+        final Path file = directory.resolve("journal");
+        final byte[] compressed = ContentEncoding.encode(ContentEncoding.GZIP, "compressed".getBytes(StandardCharsets.UTF_8));
+        final byte[] large = new byte[4096];
+
+        Arrays.fill(large, (byte)'x');
+
+        final InputSpooler.SpooledInput spooledInput = new InputSpooler(1024, directory).spool(new ByteArrayInputStream(large), large.length);
+
+        try (InvocationJournal journal = new InvocationJournal(file, 1024)) {
+            journal.appendContext(ContentEncodingTest.encodedExecutionContext("compressed", "application/json", ContentEncoding.GZIP));
+            journal.appendContext(new RuntimeApiExecutionContext("spooled", spooledInput, "application/octet-stream", 0, null));
+        }
+        finally {
+            spooledInput.close();
+        }
+
+        final List<InvocationJournal.Record> records = readAll(file);
+
+        assertArrayEquals(compressed, records.get(0).getBytes(2));
+        assertEquals(ContentEncoding.GZIP, records.get(0).getField(3));
+        assertArrayEquals(large, records.get(1).getBytes(2));
+        assertEquals(ContentEncoding.IDENTITY, records.get(1).getField(3));
+    }
+
+    @Test
+    void resultValuesAreOptIn() throws Exception {
+        final Path file = directory.resolve("journal");
+
+        try (InvocationJournal journal = new InvocationJournal(file, 1024)) {
+            final JournalingExecutionRelay<ExecutionContext> relay = new JournalingExecutionRelay<>(new ExecutionRelay<ExecutionContext>() {
+                @Override
+                public void relayExecutionResult(ExecutionResult executionResult) {}
+
+                @Override
+                public void relayExecutionException(Throwable e, ExecutionContext executionContext) {}
+
+                @Override
+                public void relayInitException(Throwable e) {}
+            }, journal);
+
+            relay.relayExecutionResult(new LambdaExecutionResult("id", Collections.singletonMap("not", "serialized")));
+        }
+
+        final InvocationJournal.Record record = readAll(file).get(0);
+
+        assertEquals("id", record.getId());
+        assertEquals(1, record.getFieldCount());
+        assertNull(record.getBytes(1));
+    }
+
+    private static long readAllSize(Path file) throws IOException {
+        long size = 0;
+
+        for (InvocationJournal.Record record : readAll(file)) {
+            size += 4 + 1 + 8;
+
+            for (int i = 0; i < record.getFieldCount(); i += 1) {
+                size += 4 + (record.getBytes(i) == null ? 0 : record.getBytes(i).length);
+            }
+        }
+
+        return size;
+    }
+}
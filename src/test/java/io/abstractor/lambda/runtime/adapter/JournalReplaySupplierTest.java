@@ -0,0 +1,180 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.SettableExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionRelay;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalReplaySupplierTest {
+    @TempDir
+    Path directory;
+
+    private Path record(int count) throws Exception {
+        final Path file = directory.resolve("journal");
+        final Queue<ExecutionContext> executionContexts = new ArrayDeque<>();
+
+        for (int i = 0; i < count; i += 1) {
+            executionContexts.add(new SettableExecutionContext("input-" + i, "text/plain"));
+        }
+
+        try (InvocationJournal journal = new InvocationJournal(file)) {
+            final Supplier<ExecutionContext> supplier = new JournalingExecutionContextSupplier<>(executionContexts::poll, journal);
+            final ExecutionRelay<ExecutionContext> relay = new JournalingExecutionRelay<>(new ExecutionRelay<ExecutionContext>() {
+                @Override
+                public void relayExecutionResult(ExecutionResult executionResult) {}
+
+                @Override
+                public void relayExecutionException(Throwable e, ExecutionContext executionContext) {}
+
+                @Override
+                public void relayInitException(Throwable e) {}
+            }, journal);
+
+            ExecutionContext executionContext;
+
+            while ((executionContext = supplier.get()) != null) {
+                relay.relayExecutionResult(new LambdaExecutionResult(executionContext.getId(), executionContext.getInput().toUpperCase()));
+
+                Thread.sleep(10);
+            }
+        }
+
+        return file;
+    }
+
+    @Test
+    void recordedContextsAreReplayed() throws Exception {
+        final Path file = record(3);
+
+        try (JournalReplaySupplier replaySupplier = new JournalReplaySupplier(file, JournalReplaySupplier.Pacing.MAXIMUM)) {
+            for (int i = 0; i < 3; i += 1) {
+                assertTrue(replaySupplier.hasNext());
+
+                final RecyclableExecutionContext executionContext = replaySupplier.get();
+
+                assertEquals("input-" + i, executionContext.getInput());
+                assertEquals("text/plain", executionContext.getInputMimeType());
+
+                executionContext.recycle();
+            }
+
+            assertFalse(replaySupplier.hasNext());
+            assertNull(replaySupplier.get());
+            assertEquals(3, replaySupplier.getReplayedCount());
+        }
+    }
+
+    @Test
+    void encodedContextsAreReplayedAsStreams() throws Exception {
+        final Path file = directory.resolve("journal");
+
+        try (InvocationJournal journal = new InvocationJournal(file)) {
+            journal.appendContext(ContentEncodingTest.encodedExecutionContext("{\"a\":\"compressed\"}", "application/json", ContentEncoding.DEFLATE));
+        }
+
+        try (JournalReplaySupplier replaySupplier = new JournalReplaySupplier(file, JournalReplaySupplier.Pacing.MAXIMUM)) {
+            final RecyclableExecutionContext executionContext = replaySupplier.get();
+
+            assertNull(executionContext.getInput());
+            assertEquals(ContentEncoding.DEFLATE, executionContext.getInputContentEncoding());
+            assertEquals("application/json", executionContext.getInputMimeType());
+            assertEquals("{\"a\":\"compressed\"}", ContentEncoding.getInput(executionContext));
+
+            executionContext.recycle();
+
+            assertNull(replaySupplier.get());
+        }
+    }
+
+    @Test
+    void routeKeysAndDeadlinesAreReplayed() throws Exception {
+        final Path file = directory.resolve("journal");
+        final long deadline = System.currentTimeMillis() + 60_000;
+
+        try (InvocationJournal journal = new InvocationJournal(file)) {
+            journal.appendContext(new SettableExecutionContext("input", "text/plain") {
+                @Override
+                public String getRouteKey() {
+                    return "orders";
+                }
+
+                @Override
+                public long getDeadline() {
+                    return deadline;
+                }
+            });
+
+            journal.appendContext(new SettableExecutionContext("input", "text/plain"));
+        }
+
+        try (JournalReplaySupplier replaySupplier = new JournalReplaySupplier(file, JournalReplaySupplier.Pacing.MAXIMUM)) {
+            final RecyclableExecutionContext routed = replaySupplier.get();
+            final long remaining = routed.getDeadline() - System.currentTimeMillis();
+
+            assertEquals("orders", routed.getRouteKey());
+            assertTrue(remaining > 55_000 && remaining <= 60_000, Long.toString(remaining));
+
+            routed.recycle();
+
+            final RecyclableExecutionContext unrouted = replaySupplier.get();
+
+            assertNull(unrouted.getRouteKey());
+            assertEquals(0, unrouted.getDeadline());
+        }
+    }
+
+    @Test
+    void pacingDoesNotBlockOtherSuppliers() throws Exception {
+        final Path file = directory.resolve("journal");
+
+        try (InvocationJournal journal = new InvocationJournal(file)) {
+            journal.appendContext(new SettableExecutionContext("first", "text/plain"));
+
+            Thread.sleep(500);
+
+            journal.appendContext(new SettableExecutionContext("second", "text/plain"));
+        }
+
+        try (JournalReplaySupplier replaySupplier = new JournalReplaySupplier(file, JournalReplaySupplier.Pacing.RECORDED)) {
+            assertEquals("first", replaySupplier.get().getInput());
+
+            final Thread paced = new Thread(replaySupplier::get);
+
+            paced.start();
+
+            while (replaySupplier.getReplayedCount() < 2) {
+                Thread.sleep(1);
+            }
+
+            final long start = System.nanoTime();
+
+            assertFalse(replaySupplier.hasNext());
+            assertTrue(System.nanoTime() - start < 200_000_000L);
+
+            paced.join();
+        }
+    }
+
+    @Test
+    void recordedPacingIsKept() throws Exception {
+        final Path file = record(5);
+        final long start = System.nanoTime();
+
+        try (JournalReplaySupplier replaySupplier = new JournalReplaySupplier(file, JournalReplaySupplier.Pacing.RECORDED)) {
+            while (replaySupplier.get() != null);
+        }
+
+        // 4 gaps of at least 10 ms were recorded
+        assertTrue(System.nanoTime() - start >= 35_000_000L);
+    }
+}
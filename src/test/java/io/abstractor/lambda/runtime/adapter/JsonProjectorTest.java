@@ -0,0 +1,135 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.SettableExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.lang.reflect.Method;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonProjectorTest {
+    private static String S3_EVENT;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        S3_EVENT = new String(Files.readAllBytes(Paths.get(JsonProjectorTest.class.getResource("/s3-event.json").toURI())), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void projectedValuesAreResolved() {
+        final Object[] arguments = new Object[4];
+
+        JsonProjector.of(Lambda.METHOD).project(S3_EVENT, arguments);
+
+        assertEquals("mybucket", arguments[0]);
+        assertEquals("HappyFace.jpg", arguments[1]);
+        assertEquals(1024L, arguments[2]);
+        assertNull(arguments[3]);
+    }
+
+    @Test
+    void compressedInputIsProjected() {
+        final Object[] arguments = new Object[4];
+
+        JsonProjector.of(Lambda.METHOD).project(ContentEncoding.getInputStream(ContentEncodingTest.encodedExecutionContext(S3_EVENT, null, ContentEncoding.GZIP)), arguments);
+
+        assertEquals("mybucket", arguments[0]);
+        assertEquals("HappyFace.jpg", arguments[1]);
+        assertEquals(1024L, arguments[2]);
+    }
+
+    @Test
+    void missingPointerResolvesToNull() {
+        final Object[] arguments = new Object[4];
+
+        JsonProjector.of(Lambda.METHOD).project("{\"Records\": []}", arguments);
+
+        assertArrayEquals(new Object[4], arguments);
+    }
+
+    @Test
+    void overlappingPointersAreResolved() {
+        final Object[] arguments = new Object[2];
+
+        JsonProjector.of(Lambda.OVERLAPPING_METHOD).project(S3_EVENT, arguments);
+
+        assertEquals("mybucket", ((Map<?, ?>)arguments[0]).get("name"));
+        assertEquals("mybucket", arguments[1]);
+    }
+
+    @Test
+    void methodWithoutProjectionsIsEmpty() {
+        assertTrue(JsonProjector.of(Lambda.PLAIN_METHOD).isEmpty());
+    }
+
+    @Test
+    void malformedInputThrows() {
+        assertThrows(RuntimeException.class, () -> {
+            JsonProjector.of(Lambda.METHOD).project("{\"Records\": [", new Object[4]);
+        });
+    }
+
+    @Test
+    void executorResolvesProjectedAndSerializedParameters() {
+        final ExecutionContext executionContext = new SettableExecutionContext(S3_EVENT, "application/json");
+        final ExecutionResult executionResult = new LambdaMethodExecutor<>().exec(Lambda.MIXED_METHOD, executionContext);
+
+        assertEquals("mybucket/HappyFace.jpg " + S3_EVENT.length(), executionResult.getExecutionValue());
+    }
+
+    private static class Lambda {
+        static final Method METHOD;
+        static final Method PLAIN_METHOD;
+        static final Method MIXED_METHOD;
+        static final Method OVERLAPPING_METHOD;
+
+        static {
+            try {
+                METHOD = Lambda.class.getMethod("handle", String.class, String.class, Long.class, List.class);
+                PLAIN_METHOD = Lambda.class.getMethod("plain", String.class);
+                MIXED_METHOD = Lambda.class.getMethod("mixed", String.class, InputStream.class, String.class);
+                OVERLAPPING_METHOD = Lambda.class.getMethod("overlapping", Map.class, String.class);
+            }
+            catch (NoSuchMethodException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        public Lambda() {}
+
+        public void handle(@JsonProjection("/Records/0/s3/bucket/name") String bucket,
+                           @JsonProjection("/Records/0/s3/object/key") String key,
+                           @JsonProjection("/Records/0/s3/object/size") Long size,
+                           @JsonProjection("/Records/1/s3/object/key") List<String> missing) {}
+
+        public void plain(String input) {}
+
+        public String mixed(@JsonProjection("/Records/0/s3/bucket/name") String bucket,
+                            InputStream inputStream,
+                            @JsonProjection("/Records/0/s3/object/key") String key) throws IOException {
+            int length = 0;
+
+            while (inputStream.read() != -1) {
+                length += 1;
+            }
+
+            return bucket + "/" + key + " " + length;
+        }
+
+        public void overlapping(@JsonProjection("/Records/0/s3/bucket") Map<String, Object> bucket,
+                                @JsonProjection("/Records/0/s3/bucket/name") String name) {}
+    }
+}
@@ -0,0 +1,42 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LambdaExecutionExceptionTest {
+    @Test
+    void invocationTargetExceptionIsUnwrapped() {
+        final IllegalStateException e = new IllegalStateException();
+
+        assertSame(e, new LambdaExecutionException(new InvocationTargetException(e)).getCause());
+    }
+
+    @Test
+    void stackTraceCaptureIsOptional() {
+        final RuntimeException cause = new RuntimeException();
+
+        assertEquals(0, new LambdaExecutionException(cause, false).getStackTrace().length);
+        assertNotEquals(0, new LambdaExecutionException(cause, true).getStackTrace().length);
+        assertNotEquals(0, new LambdaExecutionException(cause, false).getCause().getStackTrace().length);
+    }
+
+    @Test
+    void errorPayload() {
+        final LambdaExecutionException e = new LambdaExecutionException(new IllegalArgumentException("bad \"input\""));
+
+        assertEquals(IllegalArgumentException.class.getName(), e.getErrorType());
+        assertEquals("bad \"input\"", e.getErrorMessage());
+        assertEquals("{\"errorType\":\"java.lang.IllegalArgumentException\",\"errorMessage\":\"bad \\\"input\\\"\"}", e.getErrorPayload());
+    }
+
+    @Test
+    void errorPayloadWithoutMessageIsReused() {
+        final String payload = LambdaExecutionException.createErrorPayload(new NullPointerException());
+
+        assertEquals("{\"errorType\":\"java.lang.NullPointerException\",\"errorMessage\":null}", payload);
+        assertSame(payload, LambdaExecutionException.createErrorPayload(new NullPointerException()));
+    }
+}
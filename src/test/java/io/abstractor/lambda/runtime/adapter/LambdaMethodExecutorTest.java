@@ -6,6 +6,14 @@ import io.abstractor.lambda.runtime.port.ExecutionResult;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,6 +57,15 @@ class LambdaMethodExecutorTest {
         assertSame(e, exception.getCause());
     }
 
+    @Test
+    void handlerExceptionIsUnwrapped() {
+        final Throwable exception = assertThrows(LambdaExecutionException.class, () -> {
+            lambdaMethodExecutor.exec(Lambda.FAILING_METHOD, new SettableExecutionContext());
+        });
+
+        assertSame(UnsupportedOperationException.class, exception.getCause().getClass());
+    }
+
     @Test
     void staticClassMethodUsesNullInvokeContext() {
         final AtomicReference<Object> invokeContext = new AtomicReference<>();
@@ -80,6 +97,84 @@ class LambdaMethodExecutorTest {
         assertSame(executionContext.getInput(), executionResult.getExecutionValue());
     }
 
+    @Test
+    void eachMethodHasItsOwnInvokeContext() {
+        final LambdaMethodExecutor<ExecutionContext> lambdaMethodExecutor = new LambdaMethodExecutor<>();
+
+        lambdaMethodExecutor.prepare(Lambda.INSTANCE_METHOD);
+
+        final Object lambda = lambdaMethodExecutor.exec(Lambda.INSTANCE_METHOD, new SettableExecutionContext()).getExecutionValue();
+        final Object other = lambdaMethodExecutor.exec(OtherLambda.METHOD, new SettableExecutionContext()).getExecutionValue();
+
+        assertSame(Lambda.class, lambda.getClass());
+        assertSame(OtherLambda.class, other.getClass());
+        assertSame(lambda, lambdaMethodExecutor.exec(Lambda.INSTANCE_METHOD, new SettableExecutionContext()).getExecutionValue());
+    }
+
+    @Test
+    void perThreadInstanceStrategy() throws Exception {
+        final LambdaMethodExecutor<ExecutionContext> lambdaMethodExecutor = new LambdaMethodExecutor<>(new LambdaParameterSerializer<>(), true, HandlerInstances.perThread());
+        final Object lambda = lambdaMethodExecutor.exec(Lambda.INSTANCE_METHOD, new SettableExecutionContext()).getExecutionValue();
+        final Object otherThreadLambda = CompletableFuture.supplyAsync(() -> {
+            return lambdaMethodExecutor.exec(Lambda.INSTANCE_METHOD, new SettableExecutionContext()).getExecutionValue();
+        }).get();
+
+        assertNotSame(lambda, otherThreadLambda);
+    }
+
+    @Test
+    void preparingBadConstructorThrows() {
+        assertThrows(LambdaExecutionException.class, () -> {
+            lambdaMethodExecutor.prepare(BadConstructorClass.METHOD);
+        });
+    }
+
+    @Test
+    void concurrentFirstExecutionsCreateASingleInstance() throws Exception {
+        final AtomicInteger instances = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final int threads = 8;
+
+        final LambdaMethodExecutor<ExecutionContext> lambdaMethodExecutor = new LambdaMethodExecutor<ExecutionContext>() {
+            @Override
+            protected Object createMethodInvokeContext(Method method) throws Exception {
+                instances.incrementAndGet();
+
+                // Widens the window in which other threads would find no plan
+                Thread.sleep(50);
+
+                return super.createMethodInvokeContext(method);
+            }
+        };
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+
+        try {
+            final List<Future<Object>> values = new ArrayList<>();
+
+            for (int i = 0; i < threads; i += 1) {
+                values.add(executorService.submit(() -> {
+                    start.await();
+
+                    return lambdaMethodExecutor.exec(Lambda.INSTANCE_METHOD, new SettableExecutionContext()).getExecutionValue();
+                }));
+            }
+
+            start.countDown();
+
+            final Object lambda = values.get(0).get();
+
+            for (Future<Object> value : values) {
+                assertSame(lambda, value.get());
+            }
+
+            assertEquals(1, instances.get());
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
     @Test
     void method() {
     }
@@ -106,11 +201,15 @@ class LambdaMethodExecutorTest {
     private static class Lambda {
         static final Method METHOD;
         static final Method STATIC_METHOD;
+        static final Method FAILING_METHOD;
+        static final Method INSTANCE_METHOD;
 
         static {
             try {
                 METHOD = Lambda.class.getMethod("handle", String.class);
                 STATIC_METHOD = Lambda.class.getMethod("staticHandle");
+                FAILING_METHOD = Lambda.class.getMethod("failingHandle");
+                INSTANCE_METHOD = Lambda.class.getMethod("instance");
 
             }
             catch (NoSuchMethodException e) {
@@ -126,5 +225,32 @@ class LambdaMethodExecutorTest {
         }
 
         public static void staticHandle() {}
+
+        public Object instance() {
+            return this;
+        }
+
+        public static void failingHandle() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class OtherLambda {
+        static final Method METHOD;
+
+        static {
+            try {
+                METHOD = OtherLambda.class.getMethod("instance");
+            }
+            catch (NoSuchMethodException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        public OtherLambda() {}
+
+        public Object instance() {
+            return this;
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,13 +2,20 @@ package io.abstractor.lambda.runtime.adapter;
 
 import io.abstractor.lambda.runtime.SettableExecutionContext;
 import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.PayloadCodec;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class LambdaParameterSerializerTest {
@@ -62,6 +69,59 @@ class LambdaParameterSerializerTest {
         });
     }
 
+    @Test
+    void structuredSyntaxSuffixIsDecoded() {
+        final ExecutionContext executionContext = new SettableExecutionContext("{\"field\": \"yo\"}", "application/vnd.api+json; charset=utf-8");
+
+        assertEquals("yo", parameterSerializer.serialize(UnknownType.class, executionContext).getField());
+    }
+
+    @Test
+    void binaryCodecsDecodeS3Event() throws Exception {
+        final LambdaParameterSerializer<ExecutionContext> pr = LambdaParameterSerializer.createDefaultInstance();
+        final String json = new String(Files.readAllBytes(Paths.get(getClass().getResource("/s3-event.json").toURI())), StandardCharsets.UTF_8);
+        final Map<?, ?> expected = pr.serialize(Map.class, new SettableExecutionContext(json, JacksonPayloadCodec.JSON_MEDIA_TYPE));
+
+        for (JacksonPayloadCodec codec : new JacksonPayloadCodec[]{JacksonPayloadCodec.smile(), JacksonPayloadCodec.cbor()}) {
+            final byte[] encoded = codec.getObjectMapper().writeValueAsBytes(expected);
+            final String mimeType = codec == JacksonPayloadCodec.smile() ? JacksonPayloadCodec.SMILE_MEDIA_TYPE : JacksonPayloadCodec.CBOR_MEDIA_TYPE;
+            final ExecutionContext executionContext = new SettableExecutionContext(null, mimeType) {
+                @Override
+                public InputStream getInputStream() {
+                    return new ByteArrayInputStream(encoded);
+                }
+            };
+
+            assertEquals(expected, pr.serialize(Map.class, executionContext));
+        }
+    }
+
+    @Test
+    void compressedInputIsDecoded() {
+        final LambdaParameterSerializer<ExecutionContext> pr = LambdaParameterSerializer.createDefaultInstance();
+        final String json = "{\"field\": \"gzipped\"}";
+
+        for (String contentEncoding : new String[]{ContentEncoding.GZIP, ContentEncoding.DEFLATE}) {
+            final ExecutionContext executionContext = ContentEncodingTest.encodedExecutionContext(json, JacksonPayloadCodec.JSON_MEDIA_TYPE, contentEncoding);
+
+            assertEquals("gzipped", pr.serialize(UnknownType.class, executionContext).getField());
+            assertEquals(json, pr.serialize(String.class, executionContext));
+        }
+    }
+
+    @Test
+    void codecsCanBeAdded() {
+        parameterSerializer.addCodec("text/csv", new PayloadCodec() {
+            @Override
+            public <R> R decode(Class<R> cls, InputStream inputStream) {
+                return cls.cast(new UnknownType().setField("csv"));
+            }
+        });
+
+        assertEquals("csv", parameterSerializer.serialize(UnknownType.class, new SettableExecutionContext("a,b", "text/csv")).getField());
+        assertNull(parameterSerializer.getCodec("text/plain"));
+    }
+
     @Test
     void testDefaultInstance() {
         final LambdaParameterSerializer<ExecutionContext> pr = LambdaParameterSerializer.createDefaultInstance();
@@ -0,0 +1,149 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LambdaResultEncoderTest {
+    public static class Animal {
+        public String name = "animal";
+    }
+
+    public static class Cat extends Animal {
+        public int lives = 9;
+    }
+
+    public static class Handler {
+        public static List<Animal> animals() {
+            return null;
+        }
+
+        public static Object anything() {
+            return null;
+        }
+
+        public static int count() {
+            return 0;
+        }
+    }
+
+    private static String encode(LambdaResultEncoder resultEncoder, Object value) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        resultEncoder.encode(value, outputStream);
+
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static LambdaResultEncoder forMethod(String name) throws Exception {
+        final Method method = Handler.class.getDeclaredMethod(name);
+
+        return LambdaResultEncoder.forMethod(method);
+    }
+
+    @Test
+    void binaryAndTextualValuesAreWrittenAsIs() throws Exception {
+        final LambdaResultEncoder resultEncoder = forMethod("anything");
+        final byte[] bytes = "bytes".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("bytes", encode(resultEncoder, bytes));
+        assertEquals("application/octet-stream", resultEncoder.getContentType(bytes));
+        assertEquals(5, resultEncoder.getContentLength(bytes));
+
+        assertEquals("text", encode(resultEncoder, "text"));
+        assertEquals("text/plain; charset=utf-8", resultEncoder.getContentType("text"));
+        assertEquals(4, resultEncoder.getContentLength("text"));
+
+        assertEquals("null", encode(resultEncoder, null));
+        assertEquals(4, resultEncoder.getContentLength(null));
+    }
+
+    @Test
+    void textIsMeasuredAsItIsEncoded() throws Exception {
+        final LambdaResultEncoder resultEncoder = forMethod("anything");
+        final StringBuilder large = new StringBuilder();
+
+        // Spans several encoder buffers, with multi byte sequences straddling their boundaries
+        while (large.length() < 50_000) {
+            large.append("a\u00e9\u20ac\ud83d\ude00");
+        }
+
+        final String[] values = {"", "ascii", "\u00e9\u20ac\ud83d\ude00", "unpaired \ud83d and \ude00", large.toString()};
+
+        for (String value : values) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            resultEncoder.encode(value, outputStream);
+
+            assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), outputStream.toByteArray());
+            assertEquals(outputStream.size(), resultEncoder.getContentLength(value));
+        }
+    }
+
+    @Test
+    void byteBuffersAreNotConsumed() throws Exception {
+        final LambdaResultEncoder resultEncoder = forMethod("anything");
+        final ByteBuffer heap = ByteBuffer.wrap("xxheap".getBytes(StandardCharsets.UTF_8));
+        final ByteBuffer direct = ByteBuffer.allocateDirect(20_000);
+
+        heap.position(2);
+
+        for (int i = 0; i < direct.capacity(); i += 1) {
+            direct.put((byte)('a' + i % 26));
+        }
+
+        direct.flip();
+
+        assertEquals("heap", encode(resultEncoder, heap));
+        assertEquals("heap", encode(resultEncoder, heap.asReadOnlyBuffer()));
+        assertEquals(2, heap.position());
+
+        final String encoded = encode(resultEncoder, direct);
+
+        assertEquals(20_000, encoded.length());
+        assertEquals("abc", encoded.substring(0, 3));
+        assertEquals(0, direct.position());
+        assertEquals(20_000, resultEncoder.getContentLength(direct));
+    }
+
+    @Test
+    void objectsAreWrittenAsJsonForTheReturnType() throws Exception {
+        final LambdaResultEncoder resultEncoder = forMethod("animals");
+        final List<Animal> animals = Arrays.asList(new Animal(), new Cat());
+
+        // Written as the declared element type
+        assertEquals("[{\"name\":\"animal\"},{\"name\":\"animal\"}]", encode(resultEncoder, animals));
+        assertEquals("application/json", resultEncoder.getContentType(animals));
+        assertEquals(-1, resultEncoder.getContentLength(animals));
+    }
+
+    @Test
+    void valuesOutsideTheReturnTypeAreWrittenForTheirRuntimeType() throws Exception {
+        assertEquals("{\"name\":\"animal\",\"lives\":9}", encode(forMethod("animals"), new Cat()));
+        assertEquals("{\"name\":\"animal\",\"lives\":9}", encode(forMethod("anything"), new Cat()));
+        assertEquals("7", encode(forMethod("count"), 7));
+    }
+
+    @Test
+    void outputStreamIsLeftOpen() throws Exception {
+        final LambdaResultEncoder resultEncoder = forMethod("animals");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                fail("closed");
+            }
+        };
+
+        resultEncoder.encode(Arrays.asList(new Animal()), outputStream);
+        resultEncoder.encode(new Cat(), outputStream);
+    }
+}
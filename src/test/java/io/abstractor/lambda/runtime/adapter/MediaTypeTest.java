@@ -0,0 +1,35 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MediaTypeTest {
+    @Test
+    void nullMimeTypeIsNotParsed() {
+        assertNull(MediaType.parse(null));
+    }
+
+    @Test
+    void mimeTypeIsParsed() {
+        final MediaType mediaType = MediaType.parse(" Application/Vnd.API+JSON ; charset=utf-8");
+
+        assertEquals("application", mediaType.getType());
+        assertEquals("vnd.api+json", mediaType.getSubtype());
+        assertEquals("json", mediaType.getSuffix());
+        assertEquals("application/vnd.api+json", mediaType.getEssence());
+    }
+
+    @Test
+    void parsedMimeTypeIsCached() {
+        assertSame(MediaType.parse("text/plain"), MediaType.parse("text/plain"));
+    }
+
+    @Test
+    void mimeTypeWithoutSubtype() {
+        final MediaType mediaType = MediaType.parse("json");
+
+        assertEquals("json", mediaType.getEssence());
+        assertNull(mediaType.getSuffix());
+    }
+}
@@ -0,0 +1,43 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecyclableExecutionContextTest {
+    @Test
+    void recycledContextIsReused() {
+        final RecyclableExecutionContext.Pool pool = new RecyclableExecutionContext.Pool(1);
+        final RecyclableExecutionContext executionContext = pool.acquire().set("id", "input", "text/plain");
+
+        assertEquals("id", executionContext.getId());
+        assertEquals("input", executionContext.getInput());
+        assertEquals("text/plain", executionContext.getInputMimeType());
+
+        executionContext.recycle();
+
+        assertNull(executionContext.getInput());
+        assertSame(executionContext, pool.acquire());
+    }
+
+    @Test
+    void recyclingTwiceIsIgnored() {
+        final RecyclableExecutionContext.Pool pool = new RecyclableExecutionContext.Pool(2);
+        final RecyclableExecutionContext executionContext = pool.acquire();
+
+        executionContext.recycle();
+        executionContext.recycle();
+
+        assertEquals(1, pool.getAvailableCount());
+    }
+
+    @Test
+    void leakedContextAccessThrowsInDebugMode() {
+        final RecyclableExecutionContext executionContext = new RecyclableExecutionContext.Pool(1, true).acquire();
+
+        executionContext.set("id", "input", null).recycle();
+
+        assertThrows(IllegalStateException.class, executionContext::getInput);
+        assertThrows(IllegalStateException.class, executionContext::recycle);
+    }
+}
@@ -0,0 +1,91 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.SettableExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecyclingLambdaMethodExecutorTest {
+    @Test
+    void recycledResultHolderIsReused() {
+        final RecyclingLambdaMethodExecutor<ExecutionContext> executor = new RecyclingLambdaMethodExecutor<>();
+        final ExecutionResult first = executor.exec(Lambda.METHOD, new SettableExecutionContext("a"));
+
+        assertEquals("a", first.getExecutionValue());
+
+        ((RecyclableExecutionResult)first).recycle();
+
+        final SettableExecutionContext executionContext = new SettableExecutionContext("b");
+        final ExecutionResult second = executor.exec(Lambda.METHOD, executionContext);
+
+        assertSame(first, second);
+        assertEquals("b", second.getExecutionValue());
+        assertEquals(executionContext.getId(), second.getExecutionId());
+    }
+
+    @Test
+    void ownedResultHolderIsNotReused() {
+        final RecyclingLambdaMethodExecutor<ExecutionContext> executor = new RecyclingLambdaMethodExecutor<>(true);
+        final ExecutionResult first = executor.exec(Lambda.METHOD, new SettableExecutionContext("a"));
+        final ExecutionResult second = executor.exec(Lambda.METHOD, new SettableExecutionContext("b"));
+
+        assertNotSame(first, second);
+        assertEquals("a", first.getExecutionValue());
+        assertEquals("b", second.getExecutionValue());
+    }
+
+    @Test
+    void leakedResultAccessThrowsInDebugMode() {
+        final ExecutionResult executionResult = new RecyclingLambdaMethodExecutor<>(true).exec(Lambda.METHOD, new SettableExecutionContext("a"));
+
+        ((RecyclableExecutionResult)executionResult).recycle();
+
+        assertThrows(IllegalStateException.class, executionResult::getExecutionValue);
+        assertThrows(IllegalStateException.class, executionResult::getExecutionId);
+    }
+
+    @Test
+    void argumentsArrayIsReusedAndCleared() {
+        final AtomicReference<Object[]> first = new AtomicReference<>();
+        final AtomicReference<Object[]> second = new AtomicReference<>();
+        final RecyclingLambdaMethodExecutor<ExecutionContext> executor = new RecyclingLambdaMethodExecutor<ExecutionContext>() {
+            @Override
+            protected Object invoke(Method method, Object methodInvokeContext, Object[] args) throws Exception {
+                (first.get() == null ? first : second).set(args);
+
+                return super.invoke(method, methodInvokeContext, args);
+            }
+        };
+
+        executor.exec(Lambda.METHOD, new SettableExecutionContext("a"));
+        executor.exec(Lambda.METHOD, new SettableExecutionContext("b"));
+
+        assertSame(first.get(), second.get());
+        assertNull(first.get()[0]);
+    }
+
+    private static class Lambda {
+        static final Method METHOD;
+
+        static {
+            try {
+                METHOD = Lambda.class.getMethod("handle", String.class);
+            }
+            catch (NoSuchMethodException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        public Lambda() {}
+
+        public Object handle(String str) {
+            return str;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import io.abstractor.lambda.runtime.port.ExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionRelay;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientExecutionRelayTest {
+    /**
+     * Hands the (zero based) index of each call to a behaviour, which may sleep or throw.
+     */
+    private static class ScriptedExecutionRelay implements ExecutionRelay<ExecutionContext> {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger relayed = new AtomicInteger();
+        private final IntConsumer behaviour;
+
+        ScriptedExecutionRelay(IntConsumer behaviour) {
+            this.behaviour = behaviour;
+        }
+
+        private void call() {
+            behaviour.accept(calls.getAndIncrement());
+
+            relayed.incrementAndGet();
+        }
+
+        @Override
+        public void relayExecutionResult(ExecutionResult executionResult) {
+            call();
+        }
+
+        @Override
+        public void relayExecutionException(Throwable e, ExecutionContext executionContext) {
+            call();
+        }
+
+        @Override
+        public void relayInitException(Throwable e) {
+            call();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ResilientExecutionRelay.Builder<ExecutionContext> builder(ScriptedExecutionRelay executionRelay) {
+        return new ResilientExecutionRelay.Builder<ExecutionContext>()
+            .setExecutionRelay(executionRelay)
+            .setRetries(2, Duration.ofMillis(1), Duration.ofMillis(5));
+    }
+
+    private static ExecutionResult executionResult() {
+        return new LambdaExecutionResult("id", "value");
+    }
+
+    @Test
+    void failedCallsAreRetried() {
+        final ScriptedExecutionRelay executionRelay = new ScriptedExecutionRelay(call -> {
+            if (call < 2) {
+                throw new IllegalStateException("transient");
+            }
+        });
+
+        final ResilientExecutionRelay<ExecutionContext> resilientExecutionRelay = builder(executionRelay).build();
+
+        resilientExecutionRelay.relayExecutionResult(executionResult());
+
+        assertEquals(1, executionRelay.relayed.get());
+        assertEquals(2, resilientExecutionRelay.getRetryCount());
+        assertEquals(0, resilientExecutionRelay.getRelayFailureCount());
+    }
+
+    @Test
+    void exhaustedRetriesThrowRelayException() {
+        final IllegalStateException failure = new IllegalStateException("down");
+        final ScriptedExecutionRelay executionRelay = new ScriptedExecutionRelay(call -> {
+            throw failure;
+        });
+
+        final ResilientExecutionRelay<ExecutionContext> resilientExecutionRelay = builder(executionRelay).build();
+
+        final RelayException e = assertThrows(RelayException.class, () -> resilientExecutionRelay.relayExecutionResult(executionResult()));
+
+        assertSame(failure, e.getCause());
+        assertEquals(3, executionRelay.calls.get());
+        assertEquals(1, resilientExecutionRelay.getRelayFailureCount());
+        assertEquals(0, resilientExecutionRelay.getHandlerFailureCount());
+    }
+
+    @Test
+    void attemptsRunOnTheCallingThreadWithoutHedging() {
+        final Thread caller = Thread.currentThread();
+        final ScriptedExecutionRelay executionRelay = new ScriptedExecutionRelay(call -> assertSame(caller, Thread.currentThread()));
+
+        builder(executionRelay).build().relayExecutionResult(executionResult());
+
+        assertEquals(1, executionRelay.relayed.get());
+    }
+
+    @Test
+    void completedWatchesAreRemoved() {
+        final ScriptedExecutionRelay executionRelay = new ScriptedExecutionRelay(call -> {});
+        final ResilientExecutionRelay<ExecutionContext> resilientExecutionRelay = builder(executionRelay).setTimeout(Duration.ofMinutes(1)).build();
+
+        for (int i = 0; i < 100; i += 1) {
+            resilientExecutionRelay.relayExecutionResult(executionResult());
+        }
+
+        assertEquals(100, executionRelay.relayed.get());
+        assertEquals(0, resilientExecutionRelay.getPendingWatchCount());
+    }
+
+    @Test
+    void slowCallsTimeOut() {
+        // Interruptible, as the calling thread is interrupted once the attempt timed out
+        final ScriptedExecutionRelay executionRelay = new ScriptedExecutionRelay(call -> {
+            try {
+                Thread.sleep(2000);
+            }
+            catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        final ResilientExecutionRelay<ExecutionContext> resilientExecutionRelay = builder(executionRelay)
+            .setTimeout(Duration.ofMillis(50))
+            .setRetries(0, Duration.ZERO, Duration.ZERO)
+            .build();
+
+        final long start = System.nanoTime();
+
+        final RelayException e = assertThrows(RelayException.class, () -> resilientExecutionRelay.relayInitException(new RuntimeException()));
+
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(1000).toNanos());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void slowHedgedCallsTimeOut() {
+        final ScriptedExecutionRelay executionRelay = new ScriptedExecutionRelay(call -> sleep(2000));
+        final ResilientExecutionRelay<ExecutionContext> resilientExecutionRelay = builder(executionRelay)
+            .setTimeout(Duration.ofMillis(50))
+            .setRetries(0, Duration.ZERO, Duration.ZERO)
+            .setHedging(true)
+            .build();
+
+        final long start = System.nanoTime();
+
+        final RelayException e = assertThrows(RelayException.class, () -> resilientExecutionRelay.relayInitException(new RuntimeException()));
+
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(1000).toNanos());
+    }
+
+    /**
+     * Relays results of id "slow" slowly the first time, records the id every call read once it completed.
+     */
+    private static class SlowOnceExecutionRelay implements ExecutionRelay<ExecutionContext> {
+        private final AtomicBoolean slow = new AtomicBoolean(true);
+        private final List<Object> relayed = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch slowCallEnded = new CountDownLatch(1);
+
+        @Override
+        public void relayExecutionResult(ExecutionResult executionResult) {
+            final boolean slowCall = "slow".equals(executionResult.getExecutionId()) && slow.compareAndSet(true, false);
+
+            try {
+                if (slowCall) {
+                    sleep(1000);
+                }
+
+                relayed.add(executionResult.getExecutionId());
+            }
+            catch (RuntimeException e) {
+                relayed.add(e);
+            }
+            finally {
+                if (slowCall) {
+                    slowCallEnded.countDown();
+                }
+            }
+        }
+
+        @Override
+        public void relayExecutionException(Throwable e, ExecutionContext executionContext) {}
+
+        @Override
+        public void relayInitException(Throwable e) {}
+    }
+
+    private static ResilientExecutionRelay<ExecutionContext> warmedUpHedgingRelay(ExecutionRelay<ExecutionContext> executionRelay) {
+        final ResilientExecutionRelay<ExecutionContext> resilientExecutionRelay = new ResilientExecutionRelay.Builder<ExecutionContext>()
+            .setExecutionRelay(executionRelay)
+            .setTimeout(Duration.ofSeconds(10))
+            .setHedging(true)
+            .build();
+
+        for (int i = 0; i < 50; i += 1) {
+            resilientExecutionRelay.relayExecutionResult(executionResult());
+        }
+
+        return resilientExecutionRelay;
+    }
+
+    @Test
+    void slowCallsAreHedged() {
+        final ResilientExecutionRelay<ExecutionContext> resilientExecutionRelay = warmedUpHedgingRelay(new SlowOnceExecutionRelay());
+
+        // Warm up calls may be hedged too, on a busy box
+        final long hedgeCount = resilientExecutionRelay.getHedgeCount();
+        final long start = System.nanoTime();
+
+        resilientExecutionRelay.relayExecutionResult(new LambdaExecutionResult("slow", "value"));
+
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(800).toNanos(), "the hedged call did not win");
+        assertEquals(hedgeCount + 1, resilientExecutionRelay.getHedgeCount());
+        assertEquals(0, resilientExecutionRelay.getRetryCount());
+    }
+
+    @Test
+    void losingCallsDoNotReadRecycledResults() throws Exception {
+        final SlowOnceExecutionRelay executionRelay = new SlowOnceExecutionRelay();
+        final ResilientExecutionRelay<ExecutionContext> resilientExecutionRelay = warmedUpHedgingRelay(executionRelay);
+        final RecyclableExecutionResult executionResult = new RecyclableExecutionResult(true).set("slow", "value");
+
+        executionRelay.relayed.clear();
+
+        resilientExecutionRelay.relayExecutionResult(executionResult);
+
+        // As the runtime does once relayed, the losing call is still running
+        executionResult.recycle();
+        executionResult.set("next", "value");
+
+        assertTrue(executionRelay.slowCallEnded.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("slow", "slow"), executionRelay.relayed);
+    }
+
+    @Test
+    void exceptionRelaysOfRecyclableContextsAwaitTheirCalls() {
+        final AtomicBoolean slow = new AtomicBoolean(true);
+        final AtomicInteger ended = new AtomicInteger();
+
+        final ExecutionRelay<ExecutionContext> executionRelay = new ExecutionRelay<ExecutionContext>() {
+            @Override
+            public void relayExecutionResult(ExecutionResult executionResult) {}
+
+            @Override
+            public void relayExecutionException(Throwable e, ExecutionContext executionContext) {
+                if (slow.compareAndSet(true, false)) {
+                    sleep(500);
+                }
+
+                executionContext.getId();
+
+                ended.incrementAndGet();
+            }
+
+            @Override
+            public void relayInitException(Throwable e) {}
+        };
+
+        final ResilientExecutionRelay<ExecutionContext> resilientExecutionRelay = warmedUpHedgingRelay(executionRelay);
+        final RecyclableExecutionContext.Pool pool = new RecyclableExecutionContext.Pool(1, true);
+        final RecyclableExecutionContext executionContext = pool.acquire().set("id", "{}", "application/json");
+
+        resilientExecutionRelay.relayExecutionException(new RuntimeException(), executionContext);
+
+        // Both the winning hedge and the slow call ended, the context may be recycled
+        assertEquals(2, ended.get());
+
+        executionContext.recycle();
+    }
+
+    @Test
+    void handlerFailuresAreCountedApartFromRelayFailures() {
+        final ScriptedExecutionRelay executionRelay = new ScriptedExecutionRelay(call -> {});
+        final ResilientExecutionRelay<ExecutionContext> resilientExecutionRelay = builder(executionRelay).build();
+
+        resilientExecutionRelay.relayExecutionException(new RuntimeException("handler failed"), new RuntimeApiExecutionContext("id", "{}", null, 0, null));
+
+        assertEquals(1, resilientExecutionRelay.getHandlerFailureCount());
+        assertEquals(0, resilientExecutionRelay.getRelayFailureCount());
+        assertEquals(1, executionRelay.relayed.get());
+    }
+}
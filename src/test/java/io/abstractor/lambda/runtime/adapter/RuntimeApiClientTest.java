@@ -0,0 +1,47 @@
+package io.abstractor.lambda.runtime.adapter;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuntimeApiClientTest {
+    @Test
+    void hungRelayTimesOut() throws Exception {
+        // Accepts connections but never responds
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            final Thread acceptor = new Thread(() -> {
+                try (Socket socket = serverSocket.accept()) {
+                    Thread.sleep(5000);
+                }
+                catch (Exception ignored) {}
+            });
+
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            final RuntimeApiClient runtimeApiClient = new RuntimeApiClient("localhost:" + serverSocket.getLocalPort(), null, Duration.ofSeconds(1), Duration.ofMillis(100));
+            final long start = System.nanoTime();
+
+            final UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> {
+                runtimeApiClient.relayExecutionResult(new LambdaExecutionResult("id", "value"));
+            });
+
+            assertTrue(e.getCause() instanceof SocketTimeoutException);
+            assertTrue(System.nanoTime() - start < 2_000_000_000L);
+
+            acceptor.interrupt();
+        }
+    }
+
+    @Test
+    void timeoutsMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new RuntimeApiClient("localhost:9001", null, Duration.ZERO, Duration.ofSeconds(1)));
+    }
+}
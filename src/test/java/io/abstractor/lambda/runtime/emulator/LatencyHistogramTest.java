@@ -0,0 +1,32 @@
+package io.abstractor.lambda.runtime.emulator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    @Test
+    void bucketsAreContiguous() {
+        for (int bucket = 0; bucket < 20_000; bucket += 1) {
+            assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.lowestValueOf(bucket)));
+        }
+
+        assertEquals(LatencyHistogram.bucketOf(1535), LatencyHistogram.bucketOf(1534));
+        assertTrue(LatencyHistogram.bucketOf(Long.MAX_VALUE) > 0);
+    }
+
+    @Test
+    void percentilesAreWithinPrecision() {
+        final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+        for (long micros = 1; micros <= 100_000; micros += 1) {
+            latencyHistogram.record(micros);
+        }
+
+        assertEquals(100_000, latencyHistogram.getTotalCount());
+        assertEquals(100_000, latencyHistogram.getMaximum());
+        assertEquals(50_000, latencyHistogram.getValueAtPercentile(50), 50_000 * 0.002);
+        assertEquals(99_000, latencyHistogram.getValueAtPercentile(99), 99_000 * 0.002);
+        assertEquals(1, new LatencyHistogram().getValueAtPercentile(50) + 1);
+    }
+}
@@ -0,0 +1,168 @@
+package io.abstractor.lambda.runtime.emulator;
+
+import io.abstractor.lambda.runtime.LambdaRuntime;
+import io.abstractor.lambda.runtime.adapter.LambdaMethodExecutor;
+import io.abstractor.lambda.runtime.adapter.LambdaResultEncoder;
+import io.abstractor.lambda.runtime.adapter.RuntimeApiClient;
+import io.abstractor.lambda.runtime.adapter.RuntimeApiExecutionContext;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+
+import java.lang.reflect.Method;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuntimeApiEmulatorTest {
+    public static class Handler {
+        public static Object handle(Map<String, Object> input) {
+            final int n = (Integer)input.get("n");
+
+            if (n % 10 == 0) {
+                throw new IllegalArgumentException("multiple of 10");
+            }
+
+            return input;
+        }
+    }
+
+    private static LambdaRuntime<RuntimeApiExecutionContext> lambdaRuntime(RuntimeApiEmulator emulator) throws Exception {
+        final RuntimeApiClient runtimeApiClient = new RuntimeApiClient(emulator.getRuntimeApi());
+        final Method method = Handler.class.getDeclaredMethod("handle", Map.class);
+
+        return new LambdaRuntime.Builder<RuntimeApiExecutionContext>()
+            .setMethodSupplier(() -> method)
+            .setMethodExecutor(new LambdaMethodExecutor<>())
+            .setExecutionRelay(runtimeApiClient)
+            .setExecutionContextSupplier(runtimeApiClient)
+            .build();
+    }
+
+    @Test
+    void concurrentPollersAreServed() throws Exception {
+        final int invocations = 200;
+        final int pollers = 4;
+        final AtomicInteger counter = new AtomicInteger();
+        final ExecutorService executorService = Executors.newFixedThreadPool(pollers);
+
+        try (RuntimeApiEmulator emulator = new RuntimeApiEmulator.Builder()
+            .setInputGenerator(() -> "{\"n\":" + counter.incrementAndGet() + "}")
+            .setMaximumInvocations(invocations)
+            .build()) {
+            final LambdaRuntime<RuntimeApiExecutionContext> lambdaRuntime = lambdaRuntime(emulator);
+            final List<Future<?>> futures = new ArrayList<>();
+
+            for (int i = 0; i < pollers; i += 1) {
+                futures.add(executorService.submit(() -> {
+                    for (int j = 0; j < invocations / pollers; j += 1) {
+                        try {
+                            lambdaRuntime.exec();
+                        }
+                        catch (RuntimeException e) {
+                            // Relayed as an error
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            final RuntimeApiEmulator.Stats stats = emulator.getStats();
+
+            assertEquals(invocations, stats.getDispatchedCount());
+            assertEquals(invocations, stats.getCompletedCount());
+            assertEquals(invocations / 10, stats.getErrorCount());
+            assertTrue(stats.getThroughput() > 0);
+            assertTrue(stats.getP50() <= stats.getP99());
+            assertTrue(stats.getP99() <= stats.getMaximum());
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void encodedResultsAreStreamed() throws Exception {
+        final int invocations = 50;
+        final AtomicInteger counter = new AtomicInteger();
+        final Method method = Handler.class.getDeclaredMethod("handle", Map.class);
+
+        try (RuntimeApiEmulator emulator = new RuntimeApiEmulator.Builder()
+            .setInputGenerator(() -> "{\"n\":" + counter.incrementAndGet() + "}")
+            .setMaximumInvocations(invocations)
+            .build()) {
+            final RuntimeApiClient runtimeApiClient = new RuntimeApiClient(emulator.getRuntimeApi());
+            final LambdaRuntime<RuntimeApiExecutionContext> lambdaRuntime = new LambdaRuntime.Builder<RuntimeApiExecutionContext>()
+                .setMethodSupplier(() -> method)
+                .setMethodExecutor(new LambdaMethodExecutor<>())
+                .setExecutionRelay(runtimeApiClient)
+                .setExecutionContextSupplier(runtimeApiClient)
+                .setResultEncoder(LambdaResultEncoder::forMethod)
+                .build();
+
+            for (int i = 0; i < invocations; i += 1) {
+                try {
+                    lambdaRuntime.exec();
+                }
+                catch (RuntimeException e) {
+                    // Relayed as an error
+                }
+            }
+
+            final RuntimeApiEmulator.Stats stats = emulator.getStats();
+
+            // JSON values have no known length, they are posted in chunks
+            assertEquals(invocations, stats.getCompletedCount());
+            assertEquals(invocations / 10, stats.getErrorCount());
+        }
+    }
+
+    @Test
+    void invalidRequestsAreRejected() throws Exception {
+        try (RuntimeApiEmulator emulator = new RuntimeApiEmulator.Builder().setInputGenerator(() -> "{}").build()) {
+            final String baseUrl = "http://" + emulator.getRuntimeApi() + "/2018-06-01/runtime/";
+
+            assertEquals(400, post(baseUrl + "invocation/unknown/response"));
+            assertEquals(404, post(baseUrl + "unknown"));
+            assertEquals(202, post(baseUrl + "init/error"));
+            assertEquals(1, emulator.getStats().getInitErrorCount());
+        }
+    }
+
+    @Test
+    void pollersAreHeldOnceExhausted() throws Exception {
+        try (RuntimeApiEmulator emulator = new RuntimeApiEmulator.Builder().setInputGenerator(() -> null).build()) {
+            final HttpURLConnection connection = (HttpURLConnection)new URL("http://" + emulator.getRuntimeApi() + "/2018-06-01/runtime/invocation/next").openConnection();
+
+            connection.setReadTimeout(200);
+
+            assertThrows(java.net.SocketTimeoutException.class, connection::getResponseCode);
+        }
+    }
+
+    private static int post(String url) throws Exception {
+        final HttpURLConnection connection = (HttpURLConnection)new URL(url).openConnection();
+
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write("{}".getBytes());
+        }
+
+        return connection.getResponseCode();
+    }
+}
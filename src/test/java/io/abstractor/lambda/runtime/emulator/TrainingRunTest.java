@@ -0,0 +1,35 @@
+package io.abstractor.lambda.runtime.emulator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrainingRunTest {
+    public static class Handler {
+        public static Object handle(Map<String, Object> input) {
+            if (input.containsKey("fail")) {
+                throw new IllegalArgumentException("failed on purpose");
+            }
+
+            return input;
+        }
+    }
+
+    @Test
+    void trainsSuccessAndErrorPaths(@TempDir Path directory) throws Exception {
+        final Path sampleInputs = Files.write(directory.resolve("inputs.jsonl"), Arrays.asList("{\"n\":1}", "", "{\"fail\":true}"), StandardCharsets.UTF_8);
+
+        final RuntimeApiEmulator.Stats stats = TrainingRun.train(Handler.class.getName() + ".handle", sampleInputs, 10);
+
+        assertEquals(10, stats.getDispatchedCount());
+        assertEquals(10, stats.getCompletedCount());
+        assertEquals(5, stats.getErrorCount());
+    }
+}
@@ -0,0 +1,22 @@
+package io.abstractor.lambda.runtime.jfr;
+
+import io.abstractor.lambda.runtime.SettableExecutionContext;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvocationEventsTest {
+    // The Java 8 version is on the test class path, phases are never recorded.
+    @Test
+    void phasesAreNotRecordedOnJava8() {
+        for (InvocationEvents.Phase phase : InvocationEvents.Phase.values()) {
+            final Object event = InvocationEvents.begin(phase);
+
+            assertNull(event);
+
+            InvocationEvents.end(event, new SettableExecutionContext("input"), "java.lang.String");
+            InvocationEvents.end(event, "id", null);
+        }
+    }
+}
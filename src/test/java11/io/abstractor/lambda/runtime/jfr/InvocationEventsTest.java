@@ -0,0 +1,133 @@
+package io.abstractor.lambda.runtime.jfr;
+
+import io.abstractor.lambda.runtime.LambdaRuntime;
+import io.abstractor.lambda.runtime.adapter.LambdaMethodExecutor;
+import io.abstractor.lambda.runtime.adapter.LambdaParameterSerializer;
+import io.abstractor.lambda.runtime.adapter.RuntimeApiExecutionContext;
+import io.abstractor.lambda.runtime.port.ExecutionRelay;
+import io.abstractor.lambda.runtime.port.ExecutionResult;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvocationEventsTest {
+    private static final String[] EVENT_NAMES = {
+        "io.abstractor.lambda.ContextFetch",
+        "io.abstractor.lambda.Deserialization",
+        "io.abstractor.lambda.Invocation",
+        "io.abstractor.lambda.Relay"
+    };
+
+    public static class Handler {
+        public static String handle(String input) {
+            return input.toUpperCase();
+        }
+    }
+
+    private static LambdaRuntime<RuntimeApiExecutionContext> lambdaRuntime(String input) throws Exception {
+        final Method method = Handler.class.getMethod("handle", String.class);
+        final LambdaParameterSerializer<RuntimeApiExecutionContext> parameterSerializer = new LambdaParameterSerializer<>();
+
+        parameterSerializer.addSerializer(String.class, RuntimeApiExecutionContext::getInput);
+
+        return new LambdaRuntime.Builder<RuntimeApiExecutionContext>()
+            .setMethodSupplier(() -> method)
+            .setMethodExecutor(new LambdaMethodExecutor<>(parameterSerializer))
+            .setExecutionContextSupplier(() -> new RuntimeApiExecutionContext("id", input, "text/plain", 0, null))
+            .setExecutionRelay(new ExecutionRelay<RuntimeApiExecutionContext>() {
+                @Override
+                public void relayExecutionResult(ExecutionResult executionResult) {}
+
+                @Override
+                public void relayExecutionException(Throwable e, RuntimeApiExecutionContext executionContext) {}
+
+                @Override
+                public void relayInitException(Throwable e) {}
+            })
+            .build();
+    }
+
+    private static Map<String, RecordedEvent> record(LambdaRuntime<RuntimeApiExecutionContext> lambdaRuntime) throws Exception {
+        final Path file = Files.createTempFile("invocation-events", ".jfr");
+
+        try {
+            try (Recording recording = new Recording()) {
+                for (String name : EVENT_NAMES) {
+                    recording.enable(name).withoutThreshold();
+                }
+
+                recording.start();
+
+                try {
+                    lambdaRuntime.exec();
+                }
+                catch (RuntimeException ignored) {
+                    // Failed executions are relayed and rethrown
+                }
+
+                recording.stop();
+                recording.dump(file);
+            }
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            final Map<String, RecordedEvent> eventsByName = new HashMap<>();
+
+            for (RecordedEvent event : events) {
+                eventsByName.put(event.getEventType().getName(), event);
+            }
+
+            return eventsByName;
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void phasesAreRecorded() throws Exception {
+        final Map<String, RecordedEvent> eventsByName = record(lambdaRuntime("input"));
+
+        for (String name : EVENT_NAMES) {
+            final RecordedEvent event = eventsByName.get(name);
+
+            assertNotNull(event, name + " was not recorded");
+            assertEquals("id", event.getString("executionId"));
+            assertEquals(5, event.getLong("payloadLength"), name);
+        }
+
+        assertEquals(String.class.getName(), eventsByName.get("io.abstractor.lambda.Deserialization").getString("parameterType"));
+    }
+
+    @Test
+    void failedInvocationsAreRecorded() throws Exception {
+        // A null input makes the handler throw
+        final Map<String, RecordedEvent> eventsByName = record(lambdaRuntime(null));
+
+        for (String name : EVENT_NAMES) {
+            final RecordedEvent event = eventsByName.get(name);
+
+            assertNotNull(event, name + " was not recorded");
+            assertEquals("id", event.getString("executionId"));
+        }
+    }
+
+    @Test
+    void payloadLengthIsNotADataAmount() {
+        final jdk.jfr.EventType eventType = jdk.jfr.EventType.getEventType(InvocationEvents.InvocationEvent.class);
+
+        assertNull(eventType.getField("payloadLength").getContentType());
+    }
+}